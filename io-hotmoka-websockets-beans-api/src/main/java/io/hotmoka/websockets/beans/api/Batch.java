@@ -0,0 +1,42 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.api;
+
+import java.util.stream.Stream;
+
+/**
+ * A batch of messages, sent together in a single websocket frame.
+ * Its JSON representation is the array of the JSON representations of its messages,
+ * each as it would be sent alone. A batch is unpacked by the receiver, that handles
+ * its messages one by one, as if they were received alone.
+ */
+public interface Batch {
+
+	/**
+	 * Yields the messages in this batch, in order.
+	 * 
+	 * @return the messages
+	 */
+	Stream<Object> getMessages();
+
+	/**
+	 * Yields the number of messages in this batch.
+	 * 
+	 * @return the number of messages
+	 */
+	int size();
+}
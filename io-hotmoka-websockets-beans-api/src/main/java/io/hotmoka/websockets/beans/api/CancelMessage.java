@@ -0,0 +1,24 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.api;
+
+/**
+ * A network message sent by a client to let the server know that it is not interested anymore
+ * in the reply to a request. Its identifier is that of the request.
+ */
+public interface CancelMessage extends RpcMessage {
+}
@@ -0,0 +1,33 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.api;
+
+/**
+ * A network message sent by the receiver of a stream of replies, to allow the sender to send
+ * more replies. The sender of the stream never sends more replies than the total credit
+ * received so far, so that the memory of the receiver remains bounded.
+ * Its identifier is that of the request that started the stream.
+ */
+public interface StreamDemandMessage extends RpcMessage {
+
+	/**
+	 * Yields the number of further replies that the sender of the stream is allowed to send.
+	 * 
+	 * @return the number of further replies; this is positive
+	 */
+	long getCredit();
+}
@@ -0,0 +1,44 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.api;
+
+/**
+ * An RPC message that carries the time within which its sender expects a reply.
+ * Its JSON representation is an envelope {@code {"@timed":<wrapped message>,"@deadline":<deadline>}},
+ * whose property names cannot clash with the fields of the wrapped message, since they are not
+ * Java identifiers. The deadline is relative, so that it does not
+ * depend on the clocks of the sender and of the receiver being synchronized: the receiver
+ * can drop the message if it has not started processing it within that time from its reception,
+ * since nobody is going to read its reply anymore. It has the type and the identifier
+ * of the wrapped message.
+ */
+public interface TimedMessage extends RpcMessage {
+
+	/**
+	 * Yields the wrapped message.
+	 * 
+	 * @return the wrapped message
+	 */
+	RpcMessage getMessage();
+
+	/**
+	 * Yields the time, in milliseconds, within which the sender expects a reply.
+	 * 
+	 * @return the time; this is positive
+	 */
+	long getDeadline();
+}
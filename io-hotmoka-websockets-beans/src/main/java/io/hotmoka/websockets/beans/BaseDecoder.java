@@ -72,6 +72,9 @@ public class BaseDecoder<T> implements DecoderText<T> {
 	 * @return true if and only if that condition holds
 	 */
 	private boolean willDecodeRpcMessage(String s) {
+		if (Batches.isBatch(s))
+			return false; // batches are decoded by the decoder of batches
+
 		try {
 			return ((AbstractRpcMessage) gson.fromJson(JsonParser.parseString(s), clazz)).isTypeConsistent();
 		}
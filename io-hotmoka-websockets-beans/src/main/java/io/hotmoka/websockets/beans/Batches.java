@@ -0,0 +1,173 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.gson.JsonParser;
+
+import io.hotmoka.websockets.beans.api.Batch;
+import io.hotmoka.websockets.beans.api.DecoderText;
+import io.hotmoka.websockets.beans.api.EncoderText;
+import io.hotmoka.websockets.beans.internal.BatchImpl;
+import io.hotmoka.websockets.beans.internal.DelegateCoders;
+import jakarta.websocket.DecodeException;
+import jakarta.websocket.EncodeException;
+import jakarta.websocket.EndpointConfig;
+
+/**
+ * A provider of {@link Batch}.
+ */
+public final class Batches {
+
+	private Batches() {}
+
+	/**
+	 * Yields a {@link Batch}.
+	 * 
+	 * @param messages the messages in the batch
+	 * @return the batch
+	 */
+	public static Batch of(Collection<?> messages) {
+		return new BatchImpl(messages);
+	}
+
+	/**
+	 * Determines if the given JSON looks like a batch, that is, a JSON array.
+	 * 
+	 * @param s the JSON
+	 * @return true if and only if {@code s} looks like a batch
+	 */
+	static boolean isBatch(String s) {
+		for (int pos = 0; pos < s.length(); pos++) {
+			char c = s.charAt(pos);
+			if (!Character.isWhitespace(c))
+				return c == '[';
+		}
+
+		return false;
+	}
+
+	/**
+	 * Encoder of batches. It encodes each message of the batch with the first of the other
+	 * encoders of the same endpoint that can encode its type.
+	 */
+	public static class Encoder implements EncoderText<Batch> {
+
+		/**
+		 * The other text encoders of the endpoint.
+		 */
+		private DelegateCoders.Encoders encoders;
+
+		/**
+		 * Creates a new encoder.
+		 */
+		public Encoder() {}
+
+		@Override
+		public void init(EndpointConfig config) {
+			encoders = new DelegateCoders.Encoders(config, "batches", List.of(getClass()));
+		}
+
+		@Override
+		public void destroy() {
+			if (encoders != null)
+				encoders.destroy();
+		}
+
+		@Override
+		public String encode(Batch batch) throws EncodeException {
+			var sb = new StringBuilder("[");
+			var it = batch.getMessages().iterator();
+
+			while (it.hasNext()) {
+				var message = it.next();
+				var encoder = encoders.get(message.getClass());
+				if (encoder == null)
+					throw new EncodeException(message, "No encoder for a " + message.getClass().getName() + " in a batch");
+
+				sb.append(encoder.encode(message));
+				if (it.hasNext())
+					sb.append(',');
+			}
+
+			return sb.append(']').toString();
+		}
+	}
+
+	/**
+	 * Decoder of batches. It decodes each message of the batch with the first of the other
+	 * decoders of the same endpoint that is willing to decode it.
+	 */
+	public static class Decoder implements DecoderText<Batch> {
+
+		/**
+		 * The other text decoders of the endpoint.
+		 */
+		private DelegateCoders.Decoders decoders;
+
+		/**
+		 * Creates a new decoder.
+		 */
+		public Decoder() {}
+
+		@Override
+		public void init(EndpointConfig config) {
+			decoders = new DelegateCoders.Decoders(config, "batches", List.of(getClass()));
+		}
+
+		@Override
+		public void destroy() {
+			if (decoders != null)
+				decoders.destroy();
+		}
+
+		/**
+		 * Determines if the given string is worth trying to decode with this decoder.
+		 * This is the case if it looks like a JSON array, since messages are JSON objects.
+		 */
+		@Override
+		public boolean willDecode(String s) {
+			return s != null && isBatch(s);
+		}
+
+		@Override
+		public Batch decode(String s) throws DecodeException {
+			var messages = new ArrayList<Object>();
+
+			try {
+				for (var element: JsonParser.parseString(s).getAsJsonArray())
+					messages.add(decodeMessage(element.toString()));
+			}
+			catch (RuntimeException e) {
+				throw new DecodeException(s, "Could not decode a batch: " + e.getMessage(), e);
+			}
+
+			return new BatchImpl(messages);
+		}
+
+		private Object decodeMessage(String s) throws DecodeException {
+			var decoder = decoders.get(s);
+			if (decoder == null)
+				throw new DecodeException(s, "No decoder for a message in a batch");
+
+			return decoder.decode(s);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans;
+
+import io.hotmoka.websockets.beans.api.CancelMessage;
+import io.hotmoka.websockets.beans.internal.CancelMessageImpl;
+import io.hotmoka.websockets.beans.internal.json.CancelMessageJson;
+
+/**
+ * A provider of {@link CancelMessage}.
+ */
+public final class CancelMessages {
+
+	private CancelMessages() {}
+
+	/**
+	 * Yields a {@link CancelMessage}.
+	 * 
+	 * @param id the identifier of the cancelled request
+	 * @return the message
+	 */
+	public static CancelMessage of(String id) {
+		return new CancelMessageImpl(id);
+	}
+
+	/**
+	 * Gson encoder.
+	 */
+	public static class Encoder extends MappedEncoder<CancelMessage, Json> {
+
+		/**
+		 * Creates a new encoder.
+		 */
+		public Encoder() {
+			super(Json::new);
+		}
+	}
+
+	/**
+	 * Gson decoder. It is meant to be registered in all endpoints, hence it first checks
+	 * cheaply if a message might be a {@link CancelMessage}, without parsing it.
+	 */
+	public static class Decoder extends MappedDecoder<CancelMessage, Json> {
+		private final static String TYPE = "\"" + CancelMessage.class.getName() + "\"";
+
+		/**
+		 * Creates a new decoder.
+		 */
+		public Decoder() {
+			super(Json.class);
+		}
+
+		@Override
+		public boolean willDecode(String s) {
+			return s != null && s.contains(TYPE) && super.willDecode(s);
+		}
+	}
+
+	/**
+	 * Json representation.
+	 */
+	public static class Json extends CancelMessageJson {
+
+		/**
+		 * Creates the Json representation for the given message.
+		 * 
+		 * @param message the message
+		 */
+		public Json(CancelMessage message) {
+			super(message);
+		}
+
+		@Override
+		public String getExpectedType() {
+			return CancelMessage.class.getName();
+		}
+	}
+}
@@ -17,8 +17,10 @@ limitations under the License.
 package io.hotmoka.websockets.beans;
 
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import io.hotmoka.websockets.beans.api.ExceptionMessage;
+import io.hotmoka.websockets.beans.internal.ExceptionClassResolver;
 import io.hotmoka.websockets.beans.internal.ExceptionMessageImpl;
 import io.hotmoka.websockets.beans.internal.json.ExceptionMessageJson;
 
@@ -52,6 +54,17 @@ public final class ExceptionMessages {
 		return new ExceptionMessageImpl(exception.getClass(), Optional.ofNullable(exception.getMessage()), id);
 	}
 
+	/**
+	 * Restricts the exception classes that can be decoded from exception messages to those
+	 * whose name is accepted by the given allowlist. Exception messages about other classes
+	 * cannot be decoded and their classes are not even loaded. By default, all classes are allowed.
+	 * 
+	 * @param allowed the allowlist of the names of the exception classes
+	 */
+	public static void setAllowedExceptionClasses(Predicate<String> allowed) {
+		ExceptionClassResolver.setAllowed(allowed);
+	}
+
 	/**
 	 * Gson encoder.
 	 */
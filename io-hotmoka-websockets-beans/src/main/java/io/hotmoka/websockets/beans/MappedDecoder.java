@@ -75,6 +75,9 @@ public class MappedDecoder<T, JSON extends JsonRepresentation<T>> implements Dec
 	 * @return true if and only if that condition holds
 	 */
 	private boolean willDecodeRpcMessage(String s) {
+		if (Batches.isBatch(s))
+			return false; // batches are decoded by the decoder of batches
+
 		try {
 			return ((AbstractRpcMessageJsonRepresentation<?>) gson.fromJson(JsonParser.parseString(s), clazz)).isTypeConsistent();
 		}
@@ -0,0 +1,93 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans;
+
+import io.hotmoka.websockets.beans.api.StreamDemandMessage;
+import io.hotmoka.websockets.beans.internal.StreamDemandMessageImpl;
+import io.hotmoka.websockets.beans.internal.json.StreamDemandMessageJson;
+
+/**
+ * A provider of {@link StreamDemandMessage}.
+ */
+public final class StreamDemandMessages {
+
+	private StreamDemandMessages() {}
+
+	/**
+	 * Yields a {@link StreamDemandMessage}.
+	 * 
+	 * @param credit the number of further replies that the sender of the stream is allowed to send; it must be positive
+	 * @param id the identifier of the request that started the stream
+	 * @return the message
+	 */
+	public static StreamDemandMessage of(long credit, String id) {
+		return new StreamDemandMessageImpl(credit, id);
+	}
+
+	/**
+	 * Gson encoder.
+	 */
+	public static class Encoder extends MappedEncoder<StreamDemandMessage, Json> {
+
+		/**
+		 * Creates a new encoder.
+		 */
+		public Encoder() {
+			super(Json::new);
+		}
+	}
+
+	/**
+	 * Gson decoder. It is meant to be registered in all endpoints, hence it first checks
+	 * cheaply if a message might be a {@link StreamDemandMessage}, without parsing it.
+	 */
+	public static class Decoder extends MappedDecoder<StreamDemandMessage, Json> {
+		private final static String TYPE = "\"" + StreamDemandMessage.class.getName() + "\"";
+
+		/**
+		 * Creates a new decoder.
+		 */
+		public Decoder() {
+			super(Json.class);
+		}
+
+		@Override
+		public boolean willDecode(String s) {
+			return s != null && s.contains(TYPE) && super.willDecode(s);
+		}
+	}
+
+	/**
+	 * Json representation.
+	 */
+	public static class Json extends StreamDemandMessageJson {
+
+		/**
+		 * Creates the Json representation for the given message.
+		 * 
+		 * @param message the message
+		 */
+		public Json(StreamDemandMessage message) {
+			super(message);
+		}
+
+		@Override
+		public String getExpectedType() {
+			return StreamDemandMessage.class.getName();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans;
+
+import io.hotmoka.websockets.beans.api.StreamEndMessage;
+import io.hotmoka.websockets.beans.internal.StreamEndMessageImpl;
+import io.hotmoka.websockets.beans.internal.json.StreamEndMessageJson;
+
+/**
+ * A provider of {@link StreamEndMessage}.
+ */
+public final class StreamEndMessages {
+
+	private StreamEndMessages() {}
+
+	/**
+	 * Yields a {@link StreamEndMessage}.
+	 * 
+	 * @param id the identifier of the request that started the stream
+	 * @return the message
+	 */
+	public static StreamEndMessage of(String id) {
+		return new StreamEndMessageImpl(id);
+	}
+
+	/**
+	 * Gson encoder.
+	 */
+	public static class Encoder extends MappedEncoder<StreamEndMessage, Json> {
+
+		/**
+		 * Creates a new encoder.
+		 */
+		public Encoder() {
+			super(Json::new);
+		}
+	}
+
+	/**
+	 * Gson decoder. It is meant to be registered in all endpoints, hence it first checks
+	 * cheaply if a message might be a {@link StreamEndMessage}, without parsing it.
+	 */
+	public static class Decoder extends MappedDecoder<StreamEndMessage, Json> {
+		private final static String TYPE = "\"" + StreamEndMessage.class.getName() + "\"";
+
+		/**
+		 * Creates a new decoder.
+		 */
+		public Decoder() {
+			super(Json.class);
+		}
+
+		@Override
+		public boolean willDecode(String s) {
+			return s != null && s.contains(TYPE) && super.willDecode(s);
+		}
+	}
+
+	/**
+	 * Json representation.
+	 */
+	public static class Json extends StreamEndMessageJson {
+
+		/**
+		 * Creates the Json representation for the given message.
+		 * 
+		 * @param message the message
+		 */
+		public Json(StreamEndMessage message) {
+			super(message);
+		}
+
+		@Override
+		public String getExpectedType() {
+			return StreamEndMessage.class.getName();
+		}
+	}
+}
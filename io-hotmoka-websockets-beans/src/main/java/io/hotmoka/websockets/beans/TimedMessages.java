@@ -0,0 +1,194 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans;
+
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.hotmoka.websockets.beans.api.DecoderText;
+import io.hotmoka.websockets.beans.api.EncoderText;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.beans.api.TimedMessage;
+import io.hotmoka.websockets.beans.internal.DelegateCoders;
+import io.hotmoka.websockets.beans.internal.TimedMessageImpl;
+import jakarta.websocket.DecodeException;
+import jakarta.websocket.EncodeException;
+import jakarta.websocket.EndpointConfig;
+
+/**
+ * A provider of {@link TimedMessage}.
+ */
+public final class TimedMessages {
+
+	private TimedMessages() {}
+
+	/**
+	 * The name of the JSON property of the envelope that holds the wrapped message.
+	 * It is not a Java identifier, hence it cannot clash with the fields of the beans.
+	 */
+	private final static String TIMED = "@timed";
+
+	/**
+	 * The name of the JSON property of the envelope that holds the deadline.
+	 * It is not a Java identifier, hence it cannot clash with the fields of the beans.
+	 */
+	private final static String DEADLINE = "@deadline";
+
+	/**
+	 * The beginning of the JSON representation of every timed message.
+	 */
+	private final static String PREFIX = "{\"" + TIMED + "\":";
+
+	/**
+	 * Yields a {@link TimedMessage}.
+	 * 
+	 * @param message the wrapped message
+	 * @param deadline the time, in milliseconds, within which the sender expects a reply; it must be positive
+	 * @return the timed message
+	 */
+	public static TimedMessage of(RpcMessage message, long deadline) {
+		return new TimedMessageImpl(message, deadline);
+	}
+
+	/**
+	 * Encoder of timed messages. It encodes the wrapped message with the first of the other
+	 * encoders of the same endpoint that can encode its type, and puts the result in an envelope
+	 * {@code {"@timed":<wrapped message>,"@deadline":<deadline>}}.
+	 */
+	public static class Encoder implements EncoderText<TimedMessage> {
+
+		/**
+		 * The other text encoders of the endpoint.
+		 */
+		private DelegateCoders.Encoders encoders;
+
+		/**
+		 * Creates a new encoder.
+		 */
+		public Encoder() {}
+
+		@Override
+		public void init(EndpointConfig config) {
+			encoders = new DelegateCoders.Encoders(config, "timed messages", List.of(getClass(), Batches.Encoder.class));
+		}
+
+		@Override
+		public void destroy() {
+			if (encoders != null)
+				encoders.destroy();
+		}
+
+		@Override
+		public String encode(TimedMessage timed) throws EncodeException {
+			var message = timed.getMessage();
+			var encoder = encoders.get(message.getClass());
+			if (encoder == null)
+				throw new EncodeException(message, "No encoder for a timed " + message.getClass().getName());
+
+			// the wrapped message is not parsed again, since it is already JSON
+			return PREFIX + encoder.encode(message) + ",\"" + DEADLINE + "\":" + timed.getDeadline() + '}';
+		}
+	}
+
+	/**
+	 * Decoder of timed messages. It decodes the wrapped message with the first of the other
+	 * decoders of the same endpoint that is willing to decode it. It must precede those decoders
+	 * in the configuration of the endpoint, since some of them might be willing to decode
+	 * the envelope as well, ignoring its deadline. It only decodes envelopes, hence
+	 * the messages that are not timed are left to the other decoders, unchanged.
+	 */
+	public static class Decoder implements DecoderText<TimedMessage> {
+
+		/**
+		 * The other text decoders of the endpoint.
+		 */
+		private DelegateCoders.Decoders decoders;
+
+		/**
+		 * Creates a new decoder.
+		 */
+		public Decoder() {}
+
+		@Override
+		public void init(EndpointConfig config) {
+			decoders = new DelegateCoders.Decoders(config, "timed messages", List.of(getClass(), Batches.Decoder.class));
+		}
+
+		@Override
+		public void destroy() {
+			if (decoders != null)
+				decoders.destroy();
+		}
+
+		/**
+		 * Determines if the given string is worth trying to decode with this decoder.
+		 * This is the case if it is the envelope of a timed message, as built by the encoder:
+		 * a JSON object with exactly a {@code @timed} JSON object and a positive {@code @deadline}.
+		 */
+		@Override
+		public boolean willDecode(String s) {
+			// cheap check first, since most messages are not timed
+			if (s == null || !s.startsWith(PREFIX))
+				return false;
+
+			try {
+				var json = JsonParser.parseString(s).getAsJsonObject();
+				return json.size() == 2 && json.get(TIMED).isJsonObject() && deadlineOf(json) > 0L;
+			}
+			catch (RuntimeException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public TimedMessage decode(String s) throws DecodeException {
+			long deadline;
+			String message;
+
+			try {
+				var json = JsonParser.parseString(s).getAsJsonObject();
+				deadline = deadlineOf(json);
+				message = json.get(TIMED).getAsJsonObject().toString();
+			}
+			catch (RuntimeException e) {
+				throw new DecodeException(s, "Could not decode a timed message: " + e.getMessage(), e);
+			}
+
+			var decoder = decoders.get(message);
+			if (decoder == null)
+				throw new DecodeException(s, "No decoder for a timed message");
+
+			if (decoder.decode(message) instanceof RpcMessage rpc && !(rpc instanceof TimedMessage)) {
+				try {
+					return of(rpc, deadline);
+				}
+				catch (IllegalArgumentException e) {
+					throw new DecodeException(s, "Could not decode a timed message: " + e.getMessage(), e);
+				}
+			}
+
+			throw new DecodeException(s, "A timed message must wrap an RPC message");
+		}
+
+		private static long deadlineOf(JsonObject json) {
+			var deadline = json.get(DEADLINE);
+			return deadline != null && deadline.isJsonPrimitive() && deadline.getAsJsonPrimitive().isNumber() ? deadline.getAsLong() : -1L;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import io.hotmoka.websockets.beans.api.Batch;
+
+/**
+ * Implementation of a batch of messages.
+ */
+public class BatchImpl implements Batch {
+
+	/**
+	 * The messages in the batch.
+	 */
+	private final Object[] messages;
+
+	/**
+	 * Creates a batch.
+	 * 
+	 * @param messages the messages in the batch
+	 */
+	public BatchImpl(Collection<?> messages) {
+		this.messages = messages.toArray();
+
+		for (var message: this.messages)
+			Objects.requireNonNull(message, "messages cannot hold null");
+	}
+
+	@Override
+	public Stream<Object> getMessages() {
+		return Stream.of(messages);
+	}
+
+	@Override
+	public int size() {
+		return messages.length;
+	}
+
+	@Override
+	public String toString() {
+		return "batch of " + messages.length + " messages";
+	}
+}
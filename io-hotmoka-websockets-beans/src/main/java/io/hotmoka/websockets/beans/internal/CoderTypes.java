@@ -0,0 +1,83 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utilities for finding the type of the objects handled by encoders and decoders.
+ */
+public final class CoderTypes {
+
+	private CoderTypes() {}
+
+	/**
+	 * Yields the class bound to the single type parameter of the given generic supertype
+	 * of the given coder class. For instance, for a class {@code C extends BaseEncoder<String>}
+	 * and the generic supertype {@code Encoder.Text}, this yields {@code String}.
+	 * 
+	 * @param coder the class of the coder
+	 * @param generic the generic supertype
+	 * @return the bound class; this is {@code Object} if it cannot be determined
+	 */
+	public static Class<?> typeOf(Class<?> coder, Class<?> generic) {
+		var result = find(coder, generic, Map.of());
+		if (result instanceof Class<?> clazz)
+			return clazz;
+		else if (result instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> clazz)
+			return clazz;
+		else
+			return Object.class;
+	}
+
+	private static Type find(Class<?> clazz, Class<?> generic, Map<TypeVariable<?>, Type> bindings) {
+		var superclass = clazz.getGenericSuperclass();
+		if (superclass != null) {
+			var result = findIn(superclass, generic, bindings);
+			if (result != null)
+				return result;
+		}
+
+		for (var superinterface: clazz.getGenericInterfaces()) {
+			var result = findIn(superinterface, generic, bindings);
+			if (result != null)
+				return result;
+		}
+
+		return null;
+	}
+
+	private static Type findIn(Type supertype, Class<?> generic, Map<TypeVariable<?>, Type> bindings) {
+		if (supertype instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> raw) {
+			var variables = raw.getTypeParameters();
+			var arguments = pt.getActualTypeArguments();
+			var newBindings = new HashMap<TypeVariable<?>, Type>();
+			for (int pos = 0; pos < variables.length; pos++)
+				newBindings.put(variables[pos], arguments[pos] instanceof TypeVariable<?> tv ? bindings.getOrDefault(tv, Object.class) : arguments[pos]);
+
+			return raw == generic ? newBindings.get(variables[0]) : find(raw, generic, newBindings);
+		}
+		else if (supertype instanceof Class<?> raw)
+			return raw == generic ? Object.class : find(raw, generic, Map.of());
+		else
+			return null;
+	}
+}
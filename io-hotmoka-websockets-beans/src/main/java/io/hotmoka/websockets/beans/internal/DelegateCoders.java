@@ -0,0 +1,159 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.websocket.Decoder;
+import jakarta.websocket.Encoder;
+import jakarta.websocket.EndpointConfig;
+
+/**
+ * The other text coders of an endpoint, to which the coders of the messages that wrap
+ * other messages, such as batches and timed messages, delegate the wrapped messages.
+ */
+public final class DelegateCoders {
+
+	private DelegateCoders() {}
+
+	private final static Logger LOGGER = Logger.getLogger(DelegateCoders.class.getName());
+
+	/**
+	 * The other text encoders of an endpoint.
+	 */
+	public static class Encoders {
+
+		/**
+		 * The encoders, with the type of the objects they encode.
+		 */
+		private final Map<Encoder.Text<Object>, Class<?>> encoders = new LinkedHashMap<>();
+
+		/**
+		 * A cache from the class of the messages to the encoder to use for them.
+		 */
+		private final ConcurrentMap<Class<?>, Encoder.Text<Object>> encoderFor = new ConcurrentHashMap<>();
+
+		/**
+		 * Creates and initializes the text encoders of the given configuration, except the excluded ones.
+		 *
+		 * @param config the configuration of the endpoint
+		 * @param wrapped what the encoders are used for, as reported in the logs
+		 * @param excluded the classes of the encoders that must not be used
+		 */
+		@SuppressWarnings("unchecked")
+		public Encoders(EndpointConfig config, String wrapped, List<Class<?>> excluded) {
+			for (var clazz: config.getEncoders()) {
+				if (!excluded.contains(clazz) && Encoder.Text.class.isAssignableFrom(clazz)) {
+					try {
+						var encoder = (Encoder.Text<Object>) clazz.getConstructor().newInstance();
+						encoder.init(config);
+						encoders.put(encoder, CoderTypes.typeOf(clazz, Encoder.Text.class));
+					}
+					catch (ReflectiveOperationException | RuntimeException e) {
+						LOGGER.log(Level.WARNING, "cannot use encoder " + clazz.getName() + " for " + wrapped, e);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Yields the first encoder that can encode objects of the given class.
+		 *
+		 * @param clazz the class
+		 * @return the encoder, or {@code null} if there is none
+		 */
+		public Encoder.Text<Object> get(Class<?> clazz) {
+			return encoderFor.computeIfAbsent(clazz, this::find);
+		}
+
+		/**
+		 * Destroys the encoders.
+		 */
+		public void destroy() {
+			encoders.keySet().forEach(Encoder::destroy);
+		}
+
+		private Encoder.Text<Object> find(Class<?> clazz) {
+			for (var entry: encoders.entrySet())
+				if (entry.getValue().isAssignableFrom(clazz))
+					return entry.getKey();
+
+			return null;
+		}
+	}
+
+	/**
+	 * The other text decoders of an endpoint.
+	 */
+	public static class Decoders {
+
+		/**
+		 * The decoders, in the order of the configuration.
+		 */
+		private final List<Decoder.Text<?>> decoders = new ArrayList<>();
+
+		/**
+		 * Creates and initializes the text decoders of the given configuration, except the excluded ones.
+		 *
+		 * @param config the configuration of the endpoint
+		 * @param wrapped what the decoders are used for, as reported in the logs
+		 * @param excluded the classes of the decoders that must not be used
+		 */
+		public Decoders(EndpointConfig config, String wrapped, List<Class<?>> excluded) {
+			for (var clazz: config.getDecoders()) {
+				if (!excluded.contains(clazz) && Decoder.Text.class.isAssignableFrom(clazz)) {
+					try {
+						var decoder = (Decoder.Text<?>) clazz.getConstructor().newInstance();
+						decoder.init(config);
+						decoders.add(decoder);
+					}
+					catch (ReflectiveOperationException | RuntimeException e) {
+						LOGGER.log(Level.WARNING, "cannot use decoder " + clazz.getName() + " for " + wrapped, e);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Yields the first decoder that is willing to decode the given string.
+		 *
+		 * @param s the string
+		 * @return the decoder, or {@code null} if there is none
+		 */
+		public Decoder.Text<?> get(String s) {
+			for (var decoder: decoders)
+				if (decoder.willDecode(s))
+					return decoder;
+
+			return null;
+		}
+
+		/**
+		 * Destroys the decoders.
+		 */
+		public void destroy() {
+			decoders.forEach(Decoder::destroy);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+import io.hotmoka.websockets.beans.api.InconsistentJsonException;
+
+/**
+ * A resolver of the names of the exception classes found in exception messages.
+ * Resolutions, also failed ones, are kept in a bounded cache, so that error storms
+ * do not require a class lookup for each exception message. Only the names accepted
+ * by an allowlist are resolved; the others are never passed to {@link Class#forName(String)},
+ * so that an exception message cannot trigger the loading of arbitrary classes.
+ * This class is thread-safe.
+ */
+public final class ExceptionClassResolver {
+
+	/**
+	 * The maximal number of resolutions kept in cache.
+	 */
+	private final static int MAX_CACHED = 1024;
+
+	/**
+	 * The cached resolutions, from class name to class or failure.
+	 */
+	private final static ConcurrentMap<String, Resolution> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * The allowlist of the names of the exception classes that can be resolved.
+	 */
+	private static volatile Predicate<String> allowed = name -> true;
+
+	private ExceptionClassResolver() {}
+
+	/**
+	 * Sets the allowlist of the names of the exception classes that can be resolved.
+	 * Resolutions performed with a previous allowlist are not used anymore.
+	 * 
+	 * @param allowed the allowlist
+	 */
+	public static void setAllowed(Predicate<String> allowed) {
+		ExceptionClassResolver.allowed = Objects.requireNonNull(allowed, "allowed cannot be null");
+		cache.clear();
+	}
+
+	/**
+	 * Yields the exception class with the given name.
+	 * 
+	 * @param className the name of the class
+	 * @return the class
+	 * @throws ClassNotFoundException if the class cannot be found or is not allowed
+	 * @throws InconsistentJsonException if the class is not an exception
+	 */
+	static Class<? extends Exception> resolve(String className) throws ClassNotFoundException, InconsistentJsonException {
+		var allowed = ExceptionClassResolver.allowed;
+		var resolution = cache.get(className);
+		// a resolution might have been put back in cache by a resolve() that started before setAllowed()
+		if (resolution == null || resolution.allowed != allowed) {
+			resolution = new Resolution(className, allowed);
+
+			// when full, the cache is emptied: it will refill with the names actually in use
+			if (cache.size() >= MAX_CACHED)
+				cache.clear();
+
+			cache.put(className, resolution);
+		}
+
+		return resolution.get();
+	}
+
+	/**
+	 * The result of the resolution of a class name.
+	 */
+	private static class Resolution {
+		private final String className;
+
+		/**
+		 * The allowlist used for this resolution.
+		 */
+		private final Predicate<String> allowed;
+
+		private final Class<? extends Exception> clazz;
+		private final String failure;
+		private final boolean isException;
+
+		private Resolution(String className, Predicate<String> allowed) {
+			this.className = className;
+			this.allowed = allowed;
+
+			Class<? extends Exception> clazz = null;
+			String failure = null;
+			boolean isException = true;
+
+			if (!allowed.test(className))
+				failure = className + " is not an allowed exception class";
+			else {
+				try {
+					clazz = Class.forName(className).asSubclass(Exception.class);
+				}
+				catch (ClassNotFoundException | LinkageError e) {
+					failure = e.getMessage();
+				}
+				catch (ClassCastException e) {
+					failure = className + " is not an exception class";
+					isException = false;
+				}
+			}
+
+			this.clazz = clazz;
+			this.failure = failure;
+			this.isException = isException;
+		}
+
+		private Class<? extends Exception> get() throws ClassNotFoundException, InconsistentJsonException {
+			if (clazz != null)
+				return clazz;
+			else if (isException)
+				throw new ClassNotFoundException(failure != null ? failure : className);
+			else
+				throw new InconsistentJsonException(failure);
+		}
+	}
+}
@@ -68,12 +68,7 @@ public class ExceptionMessageImpl extends AbstractRpcMessage implements Exceptio
 	}
 
 	private static Class<? extends Exception> mkClass(String className) throws InconsistentJsonException, ClassNotFoundException {
-		try {
-			return Class.forName(Objects.requireNonNull(className, "className cannot be null", InconsistentJsonException::new)).asSubclass(Exception.class);
-		}
-		catch (ClassCastException e) {
-			throw new InconsistentJsonException(e);
-		}
+		return ExceptionClassResolver.resolve(Objects.requireNonNull(className, "className cannot be null", InconsistentJsonException::new));
 	}
 
 	/**
@@ -0,0 +1,87 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal;
+
+import io.hotmoka.exceptions.ExceptionSupplierFromMessage;
+import io.hotmoka.websockets.beans.AbstractRpcMessage;
+import io.hotmoka.websockets.beans.api.InconsistentJsonException;
+import io.hotmoka.websockets.beans.api.StreamDemandMessage;
+import io.hotmoka.websockets.beans.internal.json.StreamDemandMessageJson;
+
+/**
+ * Implementation of the network message that allows the sender of a stream of replies to send more replies.
+ */
+public class StreamDemandMessageImpl extends AbstractRpcMessage implements StreamDemandMessage {
+
+	/**
+	 * The number of further replies that the sender of the stream is allowed to send.
+	 */
+	private final long credit;
+
+	/**
+	 * Creates the message.
+	 * 
+	 * @param credit the number of further replies that the sender of the stream is allowed to send
+	 * @param id the identifier of the request that started the stream
+	 */
+	public StreamDemandMessageImpl(long credit, String id) {
+		this(credit, id, IllegalArgumentException::new);
+	}
+
+	/**
+	 * Creates a message from the given JSON representation.
+	 * 
+	 * @param json the json
+	 * @throws InconsistentJsonException if {@code json} is inconsistent
+	 */
+	public StreamDemandMessageImpl(StreamDemandMessageJson json) throws InconsistentJsonException {
+		this(json.getCredit(), json.getId(), InconsistentJsonException::new);
+	}
+
+	/**
+	 * Creates the message.
+	 * 
+	 * @param <E> the exception to throw if some argument is illegal
+	 * @param credit the number of further replies that the sender of the stream is allowed to send
+	 * @param id the identifier of the request that started the stream
+	 * @param onIllegalArgs the provider of the exception to throw if some argument is illegal
+	 * @throws E if some argument is illegal
+	 */
+	private <E extends Exception> StreamDemandMessageImpl(long credit, String id, ExceptionSupplierFromMessage<? extends E> onIllegalArgs) throws E {
+		super(id, onIllegalArgs);
+
+		if (credit <= 0L)
+			throw onIllegalArgs.apply("credit must be positive");
+
+		this.credit = credit;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof StreamDemandMessage sdm && super.equals(other) && credit == sdm.getCredit();
+	}
+
+	@Override
+	public long getCredit() {
+		return credit;
+	}
+
+	@Override
+	protected String getExpectedType() {
+		return StreamDemandMessage.class.getName();
+	}
+}
@@ -0,0 +1,70 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal;
+
+import io.hotmoka.exceptions.ExceptionSupplierFromMessage;
+import io.hotmoka.websockets.beans.AbstractRpcMessage;
+import io.hotmoka.websockets.beans.api.InconsistentJsonException;
+import io.hotmoka.websockets.beans.api.StreamEndMessage;
+import io.hotmoka.websockets.beans.internal.json.StreamEndMessageJson;
+
+/**
+ * Implementation of the network message corresponding to the end of a stream of replies.
+ */
+public class StreamEndMessageImpl extends AbstractRpcMessage implements StreamEndMessage {
+
+	/**
+	 * Creates the message.
+	 * 
+	 * @param id the identifier of the request that started the stream
+	 */
+	public StreamEndMessageImpl(String id) {
+		this(id, IllegalArgumentException::new);
+	}
+
+	/**
+	 * Creates a message from the given JSON representation.
+	 * 
+	 * @param json the json
+	 * @throws InconsistentJsonException if {@code json} is inconsistent
+	 */
+	public StreamEndMessageImpl(StreamEndMessageJson json) throws InconsistentJsonException {
+		this(json.getId(), InconsistentJsonException::new);
+	}
+
+	/**
+	 * Creates the message.
+	 * 
+	 * @param <E> the exception to throw if some argument is illegal
+	 * @param id the identifier of the request that started the stream
+	 * @param onIllegalArgs the provider of the exception to throw if some argument is illegal
+	 * @throws E if some argument is illegal
+	 */
+	private <E extends Exception> StreamEndMessageImpl(String id, ExceptionSupplierFromMessage<? extends E> onIllegalArgs) throws E {
+		super(id, onIllegalArgs);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof StreamEndMessage && super.equals(other);
+	}
+
+	@Override
+	protected String getExpectedType() {
+		return StreamEndMessage.class.getName();
+	}
+}
@@ -0,0 +1,90 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal;
+
+import java.util.Objects;
+
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.beans.api.TimedMessage;
+
+/**
+ * Implementation of an RPC message that carries the time within which its sender expects a reply.
+ */
+public class TimedMessageImpl implements TimedMessage {
+
+	/**
+	 * The wrapped message.
+	 */
+	private final RpcMessage message;
+
+	/**
+	 * The time, in milliseconds, within which the sender expects a reply.
+	 */
+	private final long deadline;
+
+	/**
+	 * Creates the message.
+	 * 
+	 * @param message the wrapped message
+	 * @param deadline the time, in milliseconds, within which the sender expects a reply
+	 */
+	public TimedMessageImpl(RpcMessage message, long deadline) {
+		this.message = Objects.requireNonNull(message, "message cannot be null");
+		if (message instanceof TimedMessage)
+			throw new IllegalArgumentException("message cannot be a timed message itself");
+
+		if (deadline <= 0L)
+			throw new IllegalArgumentException("deadline must be positive");
+
+		this.deadline = deadline;
+	}
+
+	@Override
+	public RpcMessage getMessage() {
+		return message;
+	}
+
+	@Override
+	public long getDeadline() {
+		return deadline;
+	}
+
+	@Override
+	public String getType() {
+		return message.getType();
+	}
+
+	@Override
+	public String getId() {
+		return message.getId();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof TimedMessage tm && deadline == tm.getDeadline() && message.equals(tm.getMessage());
+	}
+
+	@Override
+	public int hashCode() {
+		return message.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return message + " within " + deadline + "ms";
+	}
+}
@@ -0,0 +1,42 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal.json;
+
+import io.hotmoka.websockets.beans.AbstractRpcMessageJsonRepresentation;
+import io.hotmoka.websockets.beans.api.InconsistentJsonException;
+import io.hotmoka.websockets.beans.api.CancelMessage;
+import io.hotmoka.websockets.beans.internal.CancelMessageImpl;
+
+/**
+ * The JSON representation of a {@link CancelMessage}.
+ */
+public abstract class CancelMessageJson extends AbstractRpcMessageJsonRepresentation<CancelMessage> {
+
+	protected CancelMessageJson(CancelMessage message) {
+		super(message);
+	}
+
+	@Override
+	public CancelMessage unmap() throws InconsistentJsonException {
+		return new CancelMessageImpl(this);
+	}
+
+	@Override
+	protected String getExpectedType() {
+		return CancelMessage.class.getName();
+	}
+}
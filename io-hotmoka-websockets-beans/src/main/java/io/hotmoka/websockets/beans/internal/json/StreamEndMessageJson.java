@@ -0,0 +1,42 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans.internal.json;
+
+import io.hotmoka.websockets.beans.AbstractRpcMessageJsonRepresentation;
+import io.hotmoka.websockets.beans.api.InconsistentJsonException;
+import io.hotmoka.websockets.beans.api.StreamEndMessage;
+import io.hotmoka.websockets.beans.internal.StreamEndMessageImpl;
+
+/**
+ * The JSON representation of a {@link StreamEndMessage}.
+ */
+public abstract class StreamEndMessageJson extends AbstractRpcMessageJsonRepresentation<StreamEndMessage> {
+
+	protected StreamEndMessageJson(StreamEndMessage message) {
+		super(message);
+	}
+
+	@Override
+	public StreamEndMessage unmap() throws InconsistentJsonException {
+		return new StreamEndMessageImpl(this);
+	}
+
+	@Override
+	protected String getExpectedType() {
+		return StreamEndMessage.class.getName();
+	}
+}
@@ -0,0 +1,154 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.beans;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.websockets.beans.api.Batch;
+import io.hotmoka.websockets.beans.api.TimedMessage;
+import jakarta.websocket.DecodeException;
+import jakarta.websocket.EncodeException;
+import jakarta.websocket.EndpointConfig;
+
+/**
+ * Tests of the coders of timed messages, configured as in the endpoints of the servers,
+ * where the decoder of the timed messages precedes those of the requests.
+ */
+public class TimedMessagesTests {
+
+	@Test
+	@DisplayName("a request with a deadline field of its own arrives unchanged")
+	public void requestWithDeadlineFieldIsNotTimed() throws EncodeException, DecodeException {
+		var request = new Reminder("id1", "call back", 1234L);
+		var json = new Reminder.Encoder().encode(request);
+
+		var timedDecoder = new TimedMessages.Decoder();
+		timedDecoder.init(config());
+		assertFalse(timedDecoder.willDecode(json));
+
+		var decoder = new Reminder.Decoder();
+		assertTrue(decoder.willDecode(json));
+		var decoded = decoder.decode(json);
+		assertEquals(request, decoded);
+		assertEquals(1234L, decoded.deadline);
+	}
+
+	@Test
+	@DisplayName("a timed request with a deadline field of its own keeps both deadlines")
+	public void timedRequestWithDeadlineField() throws EncodeException, DecodeException {
+		var request = new Reminder("id2", "call back", 1234L);
+		var encoder = new TimedMessages.Encoder();
+		encoder.init(config());
+		var json = encoder.encode(TimedMessages.of(request, 500L));
+
+		var timedDecoder = new TimedMessages.Decoder();
+		timedDecoder.init(config());
+		assertTrue(timedDecoder.willDecode(json));
+		var timed = timedDecoder.decode(json);
+		assertEquals(500L, timed.getDeadline());
+		assertEquals(request, timed.getMessage());
+		assertEquals(1234L, ((Reminder) timed.getMessage()).deadline);
+	}
+
+	@Test
+	@DisplayName("timed requests inside a batch keep their deadline")
+	public void timedRequestsInBatch() throws EncodeException, DecodeException {
+		var first = new Reminder("id3", "first", 1L);
+		var second = new Reminder("id4", "second", 2L);
+		var encoder = new Batches.Encoder();
+		encoder.init(config());
+		var json = encoder.encode(Batches.of(List.of(TimedMessages.of(first, 700L), second)));
+
+		var decoder = new Batches.Decoder();
+		decoder.init(config());
+		assertTrue(decoder.willDecode(json));
+		Batch batch = decoder.decode(json);
+		var messages = batch.getMessages().toList();
+		assertEquals(TimedMessages.of(first, 700L), messages.get(0));
+		assertTrue(messages.get(0) instanceof TimedMessage);
+		assertEquals(second, messages.get(1));
+		assertFalse(messages.get(1) instanceof TimedMessage);
+	}
+
+	/**
+	 * Yields the configuration of an endpoint for {@link Reminder}s, as built for servers.
+	 */
+	private static EndpointConfig config() {
+		return new EndpointConfig() {
+			private final Map<String, Object> userProperties = new HashMap<>();
+
+			@Override
+			public List<Class<? extends jakarta.websocket.Encoder>> getEncoders() {
+				return List.of(Reminder.Encoder.class, TimedMessages.Encoder.class, Batches.Encoder.class);
+			}
+
+			@Override
+			public List<Class<? extends jakarta.websocket.Decoder>> getDecoders() {
+				return List.of(TimedMessages.Decoder.class, Reminder.Decoder.class, Batches.Decoder.class);
+			}
+
+			@Override
+			public Map<String, Object> getUserProperties() {
+				return userProperties;
+			}
+		};
+	}
+
+	/**
+	 * A request of the application, with a field named {@code deadline}.
+	 */
+	public static class Reminder extends AbstractRpcMessage {
+		private final String text;
+		private final long deadline;
+
+		private Reminder(String id, String text, long deadline) {
+			super(id);
+
+			this.text = text;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Reminder reminder && super.equals(other) && text.equals(reminder.text) && deadline == reminder.deadline;
+		}
+
+		@Override
+		protected String getExpectedType() {
+			return Reminder.class.getName();
+		}
+
+		public static class Encoder extends BaseEncoder<Reminder> {
+			public Encoder() {}
+		}
+
+		public static class Decoder extends BaseDecoder<Reminder> {
+			public Decoder() {
+				super(Reminder.class);
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * A client that spreads requests over a set of backends, that is, remotes connected
+ * to replicas of the same service, according to a {@link BalancingPolicy}. Backends that fail
+ * repeatedly, or whose remote gets closed, are ejected and no longer receive requests,
+ * until a periodic probe finds them healthy again. Implementations must be thread-safe.
+ *
+ * @param <R> the type of the remotes
+ */
+public interface BalancedRemote<R extends Remote> extends AutoCloseable {
+
+	/**
+	 * Performs a request through the backend chosen by the policy of this client.
+	 * 
+	 * @param <T> the type of the result of the request
+	 * @param request the function that sends the request through the given remote and yields the future of its result
+	 * @return the future of the result; it completes exceptionally with a {@link DisconnectedException}
+	 *         if no backend is currently healthy
+	 */
+	<T> CompletableFuture<T> call(Function<? super R, ? extends CompletionStage<T>> request);
+
+	/**
+	 * Yields the remotes of the backends that are currently healthy.
+	 * 
+	 * @return the remotes
+	 */
+	List<R> getRemotes();
+
+	/**
+	 * Yields the number of times a backend has been ejected.
+	 * 
+	 * @return the number of ejections
+	 */
+	long getEjections();
+
+	/**
+	 * Closes this client and all its remotes. Calls still waiting for their result fail.
+	 */
+	@Override
+	void close();
+}
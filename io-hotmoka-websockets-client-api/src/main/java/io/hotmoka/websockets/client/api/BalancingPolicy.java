@@ -0,0 +1,37 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * The way a balanced remote chooses the backend for each request.
+ */
+public enum BalancingPolicy {
+
+	/**
+	 * The backend with the fewest requests still waiting for their reply is used.
+	 */
+	LEAST_OUTSTANDING,
+
+	/**
+	 * The backend with the lowest moving average of the latency of its replies is used,
+	 * weighted by the number of its requests still waiting for their reply, so that a fast backend
+	 * does not receive all requests until it becomes slow. The average fades while a backend
+	 * receives no replies and restarts when a backend is readmitted, so that a backend that
+	 * was slow in the past gets requests again and its latency is measured anew.
+	 */
+	LEAST_LATENCY
+}
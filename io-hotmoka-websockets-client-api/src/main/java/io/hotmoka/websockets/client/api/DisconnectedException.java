@@ -0,0 +1,36 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+import java.util.Objects;
+
+/**
+ * An exception raised for a request whose reply will never arrive, since the session
+ * it has been sent through, or the whole remote, has been closed.
+ */
+@SuppressWarnings("serial")
+public class DisconnectedException extends RuntimeException {
+
+	/**
+	 * Creates the exception, with the given message.
+	 * 
+	 * @param message the message
+	 */
+	public DisconnectedException(String message) {
+		super(Objects.requireNonNull(message));
+	}
+}
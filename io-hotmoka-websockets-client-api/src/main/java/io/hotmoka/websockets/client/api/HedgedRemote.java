@@ -0,0 +1,91 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * A client that spreads requests over a set of equivalent remotes, connected to replicas
+ * of the same service, and hedges the slow ones: if the reply to a request does not arrive within
+ * a high percentile of the latencies observed for that kind of request, the same request is sent
+ * to another replica and the first reply wins. If the original request wins, the hedge gets cancelled;
+ * otherwise the original request is left running until it completes, since the latencies are those
+ * of the original requests only.
+ * This cuts the tail latency due to a slow replica. It should only be used for read-only requests,
+ * since a request might be executed by more than one replica. Implementations must be thread-safe.
+ *
+ * @param <R> the type of the remotes
+ */
+public interface HedgedRemote<R extends Remote> extends AutoCloseable {
+
+	/**
+	 * Performs a request, possibly hedged.
+	 * 
+	 * @param <T> the type of the result of the request
+	 * @param operation the name of the kind of request; the latencies of the requests
+	 *                  of each kind are measured separately, in order to decide when to hedge them
+	 * @param request the function that sends the request through the given remote and yields
+	 *                the future of its result; cancelling that future must cancel the request
+	 * @return the future of the result of the first reply; it completes exceptionally
+	 *         if all requests sent for the call fail, with the failure of the last of them
+	 */
+	<T> CompletableFuture<T> call(String operation, Function<? super R, ? extends CompletionStage<T>> request);
+
+	/**
+	 * Yields the remotes used by this client.
+	 * 
+	 * @return the remotes
+	 */
+	List<R> getRemotes();
+
+	/**
+	 * Yields the number of calls performed by this client.
+	 * 
+	 * @return the number of calls
+	 */
+	long getCalls();
+
+	/**
+	 * Yields the number of calls whose request has been sent a second time, to another remote.
+	 * 
+	 * @return the number of hedged calls
+	 */
+	long getHedges();
+
+	/**
+	 * Yields the number of hedged calls whose result has been provided by the second request.
+	 * 
+	 * @return the number of hedged calls won by the second request
+	 */
+	long getHedgeWins();
+
+	/**
+	 * Yields the number of calls that should have been hedged, but were not, since hedging would have exceeded its budget.
+	 * 
+	 * @return the number of suppressed hedges
+	 */
+	long getSuppressedHedges();
+
+	/**
+	 * Closes this client and all its remotes. Calls still waiting for their result fail.
+	 */
+	@Override
+	void close();
+}
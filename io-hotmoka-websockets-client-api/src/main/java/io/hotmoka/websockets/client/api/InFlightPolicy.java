@@ -0,0 +1,40 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * The behavior of a remote when a new request is issued while the maximal number
+ * of its requests are already in flight.
+ */
+public enum InFlightPolicy {
+
+	/**
+	 * The new request waits until another request completes, for at most the timeout of the remote.
+	 * If no request completes in time, the new request is rejected.
+	 */
+	BLOCK,
+
+	/**
+	 * The new request is rejected immediately.
+	 */
+	FAIL_FAST,
+
+	/**
+	 * The oldest request in flight is aborted, to make room for the new request.
+	 */
+	SHED
+}
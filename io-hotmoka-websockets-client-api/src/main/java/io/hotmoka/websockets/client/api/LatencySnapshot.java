@@ -0,0 +1,89 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * A snapshot of a histogram of latencies. Values are recorded into buckets whose width grows
+ * with the magnitude of the values, so that percentiles are reported with a relative error
+ * below 2%. All values are in nanoseconds.
+ */
+public interface LatencySnapshot {
+
+	/**
+	 * Yields the number of recorded values.
+	 * 
+	 * @return the number of recorded values
+	 */
+	long getCount();
+
+	/**
+	 * Yields the smallest recorded value.
+	 * 
+	 * @return the smallest recorded value, or 0 if no value has been recorded
+	 */
+	long getMin();
+
+	/**
+	 * Yields the largest recorded value.
+	 * 
+	 * @return the largest recorded value, or 0 if no value has been recorded
+	 */
+	long getMax();
+
+	/**
+	 * Yields the average of the recorded values.
+	 * 
+	 * @return the average, or 0 if no value has been recorded
+	 */
+	double getMean();
+
+	/**
+	 * Yields the median of the recorded values.
+	 * 
+	 * @return the median
+	 */
+	long getP50();
+
+	/**
+	 * Yields the 90th percentile of the recorded values.
+	 * 
+	 * @return the 90th percentile
+	 */
+	long getP90();
+
+	/**
+	 * Yields the 99th percentile of the recorded values.
+	 * 
+	 * @return the 99th percentile
+	 */
+	long getP99();
+
+	/**
+	 * Yields the 99.9th percentile of the recorded values.
+	 * 
+	 * @return the 99.9th percentile
+	 */
+	long getP999();
+
+	/**
+	 * Yields the value below which the given percentage of the recorded values falls.
+	 * 
+	 * @param percentile the percentage, between 0 and 100
+	 * @return the value, or 0 if no value has been recorded
+	 */
+	long getValueAtPercentile(double percentile);
+}
@@ -0,0 +1,35 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * The behavior of a subscription to the notifications of a remote when a new notification
+ * arrives while the buffer of the subscription is full, since its listener is slower
+ * than the rate of the notifications.
+ */
+public enum NotificationOverflowPolicy {
+
+	/**
+	 * The new notification is dropped.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * The oldest notification in the buffer is dropped, to make room for the new notification.
+	 */
+	DROP_OLDEST
+}
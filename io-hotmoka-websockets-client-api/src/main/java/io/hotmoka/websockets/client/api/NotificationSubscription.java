@@ -0,0 +1,47 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * A subscription of a listener to the notifications of a remote, that is, to the messages
+ * that the server pushes without a corresponding request. Implementations must be thread-safe.
+ */
+public interface NotificationSubscription extends AutoCloseable {
+
+	/**
+	 * Yields the number of notifications that have been dropped for this subscription,
+	 * since its buffer was full.
+	 * 
+	 * @return the number of dropped notifications
+	 */
+	long getDroppedNotifications();
+
+	/**
+	 * Yields the number of notifications that have been replaced in the buffer of this subscription
+	 * by a later notification with the same coalescing key, before being delivered to the listener.
+	 * 
+	 * @return the number of coalesced notifications
+	 */
+	long getCoalescedNotifications();
+
+	/**
+	 * Cancels this subscription. The notifications still in its buffer are discarded
+	 * and no further notification will be delivered to its listener.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,33 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+import java.util.List;
+
+/**
+ * The management interface of the statistics of the requests of a remote,
+ * as exposed through JMX.
+ */
+public interface RemoteStatisticsMXBean {
+
+	/**
+	 * Yields a snapshot of the statistics of the requests of the remote, for each type of requests.
+	 * 
+	 * @return the statistics, in alphabetical order of type of requests
+	 */
+	List<RpcStatistics> getStatistics();
+}
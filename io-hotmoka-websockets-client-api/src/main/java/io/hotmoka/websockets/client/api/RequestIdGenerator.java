@@ -0,0 +1,49 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * A generator of the identifiers of the RPC requests of a remote. Each identifier
+ * corresponds to a numeric key, that the remote uses internally to match a reply with its request,
+ * and to a string, that travels inside the messages. Implementations must be thread-safe.
+ */
+public interface RequestIdGenerator {
+
+	/**
+	 * Yields the key of a new request. It must be positive and different
+	 * from all the keys yielded before by this generator.
+	 * 
+	 * @return the key
+	 */
+	long nextKey();
+
+	/**
+	 * Yields the identifier, as put inside the messages, of the request with the given key.
+	 * 
+	 * @param key the key, yielded by {@link #nextKey()}
+	 * @return the identifier
+	 */
+	String toId(long key);
+
+	/**
+	 * Yields the key of the request with the given identifier. This is the inverse of {@link #toId(long)}.
+	 * 
+	 * @param id the identifier
+	 * @return the key, or 0 if {@code id} has not been generated by this generator
+	 */
+	long toKey(String id);
+}
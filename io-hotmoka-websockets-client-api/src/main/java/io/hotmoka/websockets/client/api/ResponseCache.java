@@ -0,0 +1,93 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+import java.util.function.Predicate;
+
+/**
+ * A cache of the values replied to the requests of a remote. Keys identify identical requests
+ * and are opaque to the cache, that only uses their {@code equals()} and {@code hashCode()}.
+ * Implementations must be thread-safe.
+ */
+public interface ResponseCache {
+
+	/**
+	 * Yields the value cached for the given key, if any and not expired.
+	 * 
+	 * @param key the key
+	 * @return the value, or {@code null} if there is no value for {@code key} or it is expired
+	 */
+	Object get(Object key);
+
+	/**
+	 * Caches a value for the given key, replacing the value already cached for it, if any.
+	 * 
+	 * @param key the key
+	 * @param value the value
+	 * @param ttl the time to live of the value, in milliseconds
+	 */
+	void put(Object key, Object value, long ttl);
+
+	/**
+	 * Removes the value cached for the given key, if any.
+	 * 
+	 * @param key the key
+	 */
+	void invalidate(Object key);
+
+	/**
+	 * Removes the values cached for the keys that satisfy the given condition.
+	 * 
+	 * @param condition the condition
+	 */
+	void invalidateIf(Predicate<Object> condition);
+
+	/**
+	 * Removes all values in this cache.
+	 */
+	void invalidateAll();
+
+	/**
+	 * Yields the number of calls to {@link #get(Object)} that found a value.
+	 * 
+	 * @return the number of hits
+	 */
+	long getHits();
+
+	/**
+	 * Yields the number of calls to {@link #get(Object)} that did not find a value.
+	 * 
+	 * @return the number of misses
+	 */
+	long getMisses();
+
+	/**
+	 * Yields the number of values removed from this cache to respect its size bound.
+	 * Expired or invalidated values are not counted.
+	 * 
+	 * @return the number of evictions
+	 */
+	long getEvictions();
+
+	/**
+	 * Yields the number of values currently in this cache, including the expired ones
+	 * that have not been removed yet.
+	 * 
+	 * @return the number of values
+	 */
+	int size();
+}
@@ -0,0 +1,90 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * A snapshot of the statistics of the requests of a given type, sent by a remote.
+ */
+public interface RpcStatistics {
+
+	/**
+	 * Yields the name of the type of the requests.
+	 * 
+	 * @return the name of the type of the requests
+	 */
+	String getMessageType();
+
+	/**
+	 * Yields the number of requests that have been sent.
+	 * 
+	 * @return the number of requests
+	 */
+	long getRequests();
+
+	/**
+	 * Yields the number of requests that timed out before receiving their reply.
+	 * 
+	 * @return the number of timeouts
+	 */
+	long getTimeouts();
+
+	/**
+	 * Yields the number of requests whose reply was an exception.
+	 * 
+	 * @return the number of exception replies
+	 */
+	long getExceptionReplies();
+
+	/**
+	 * Yields the number of replies of unexpected type, or carrying an exception of unexpected type,
+	 * that have been ignored.
+	 * 
+	 * @return the number of unexpected replies
+	 */
+	long getUnexpectedReplies();
+
+	/**
+	 * Yields the timeout currently applied to the requests. This is the timeout of the remote,
+	 * unless timeouts are derived from the observed latencies, in which case it changes over time.
+	 * 
+	 * @return the timeout, in nanoseconds
+	 */
+	long getTimeout();
+
+	/**
+	 * Yields the time spent sending the requests to the network. It does not include
+	 * the requests sent in batches.
+	 * 
+	 * @return the snapshot of the histogram of the send latencies
+	 */
+	LatencySnapshot getSendLatency();
+
+	/**
+	 * Yields the time from the sending of the requests to the arrival of their reply.
+	 * 
+	 * @return the snapshot of the histogram of the round-trip latencies
+	 */
+	LatencySnapshot getRoundTripLatency();
+
+	/**
+	 * Yields the time from the arrival of the replies to their delivery to the thread waiting for them,
+	 * or to the completion of their future, for asynchronous requests.
+	 * 
+	 * @return the snapshot of the histogram of the hand-off delays
+	 */
+	LatencySnapshot getHandOffDelay();
+}
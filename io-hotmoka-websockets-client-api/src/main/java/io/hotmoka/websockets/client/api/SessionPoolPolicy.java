@@ -0,0 +1,34 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.api;
+
+/**
+ * The way a remote spreads its requests over the sessions of a pool,
+ * when it has more sessions for the same path.
+ */
+public enum SessionPoolPolicy {
+
+	/**
+	 * The sessions are used in turn.
+	 */
+	ROUND_ROBIN,
+
+	/**
+	 * The session with the fewest requests still waiting for their reply is used.
+	 */
+	LEAST_OUTSTANDING
+}
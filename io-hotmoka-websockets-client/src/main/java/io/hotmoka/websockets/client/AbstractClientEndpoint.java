@@ -18,8 +18,11 @@ package io.hotmoka.websockets.client;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -33,10 +36,18 @@ import org.glassfish.tyrus.client.ClientManager;
 import org.glassfish.tyrus.client.ClientProperties;
 
 import io.hotmoka.websockets.api.FailedDeploymentException;
+import io.hotmoka.websockets.beans.Batches;
+import io.hotmoka.websockets.beans.CancelMessages;
+import io.hotmoka.websockets.beans.ExceptionMessages;
+import io.hotmoka.websockets.beans.StreamDemandMessages;
+import io.hotmoka.websockets.beans.StreamEndMessages;
+import io.hotmoka.websockets.beans.TimedMessages;
+import io.hotmoka.websockets.beans.api.Batch;
 import io.hotmoka.websockets.beans.api.InconsistentJsonException;
 import io.hotmoka.websockets.client.api.ClientEndpoint;
 import io.hotmoka.websockets.client.api.WebSocketClient;
 import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.DecodeException;
 import jakarta.websocket.Decoder;
 import jakarta.websocket.DeploymentException;
@@ -87,6 +98,50 @@ public abstract class AbstractClientEndpoint<C extends WebSocketClient> extends
 		super.onError(session, throwable);
 	}
 
+	@Override
+	public void onClose(Session session, CloseReason closeReason) {
+		Keepalive.stop(session);
+		super.onClose(session, closeReason);
+	}
+
+	/**
+	 * Starts pinging the server through the given session, periodically, measuring the round-trip
+	 * time of its pongs (see {@link #getRoundTripTime(Session)}). If {@code maxMissedPongs} consecutive
+	 * pings remain without pong, the server is considered dead and the session gets closed,
+	 * without waiting for a request to time out. Pinging stops when the session gets closed.
+	 * Nothing happens if the session is already pinged.
+	 * 
+	 * @param session the session
+	 * @param interval the time between two pings
+	 * @param maxMissedPongs the number of consecutive pings without pong after which the server is considered dead
+	 * @param onDead called when the server is considered dead, before closing the session
+	 */
+	protected final void startKeepalive(Session session, Duration interval, int maxMissedPongs, Runnable onDead) {
+		Keepalive.start(session, interval, maxMissedPongs, onDead);
+	}
+
+	/**
+	 * Yields the moving estimate of the round-trip time of the pings sent through the given session
+	 * (see {@link #startKeepalive(Session, Duration, int, Runnable)}).
+	 * 
+	 * @param session the session
+	 * @return the estimate; this is empty if the session is not pinged or no pong has arrived yet
+	 */
+	protected static Optional<Duration> getRoundTripTime(Session session) {
+		return Keepalive.getRoundTripTime(session);
+	}
+
+	/**
+	 * Determines if this endpoint decodes incoming {@link Batch}es of messages. In that case,
+	 * the decoder of batches is registered at deployment time, after the decoders of the endpoint.
+	 * By default, batches are not decoded.
+	 * 
+	 * @return true if and only if batches are decoded
+	 */
+	protected boolean acceptsBatches() {
+		return false;
+	}
+
 	/**
 	 * Deploys this endpoint at the given URI, with the given decoders (inputs) and encoders (outputs).
 	 * 
@@ -127,23 +182,44 @@ public abstract class AbstractClientEndpoint<C extends WebSocketClient> extends
 		List<Class<? extends Decoder>> inputs = Stream.of(coders)
 			.filter(coder -> Decoder.class.isAssignableFrom(coder))
 			.map(coder -> (Class<? extends Decoder>) coder)
-			.collect(Collectors.toList());
+			.collect(Collectors.toCollection(ArrayList::new));
 
 		List<Class<? extends Encoder>> outputs = Stream.of(coders)
 			.filter(coder -> Encoder.class.isAssignableFrom(coder))
 			.map(coder -> (Class<? extends Encoder>) coder)
-			.collect(Collectors.toList());
+			.collect(Collectors.toCollection(ArrayList::new));
 
 		Stream.of(coders)
 			.filter(coder -> !inputs.contains(coder) && !outputs.contains(coder))
 			.forEach(coder -> LOGGER.warning("Unknown coder " + coder + ": only encoders and decoders are allowed"));
 
+		// batches are decoded only if required; their decoder comes last, so that the decoders
+		// of this endpoint keep precedence over it, also for messages that are JSON arrays
+		if (acceptsBatches() && !inputs.contains(Batches.Decoder.class))
+			inputs.add(Batches.Decoder.class);
+
+		outputs.add(Batches.Encoder.class);
+
+		// control messages about the replies to the requests are always accepted as well
+		inputs.add(StreamEndMessages.Decoder.class);
+		outputs.add(StreamDemandMessages.Encoder.class);
+		outputs.add(CancelMessages.Encoder.class);
+
+		// the server replies with an exception message to the requests it rejects when overloaded
+		if (!inputs.contains(ExceptionMessages.Decoder.class))
+			inputs.add(ExceptionMessages.Decoder.class);
+
+		// requests can carry the time within which a reply is expected
+		outputs.add(TimedMessages.Encoder.class);
+
 		var config = ClientEndpointConfig.Builder.create()
 			.decoders(inputs)
 			.encoders(outputs)
 			.build();
 
+		// the client is cheap, while the transport, with its threads, is shared among clients if possible
 		ClientManager client = ClientManager.createClient();
+		SharedClientContainer.applyTo(client.getProperties());
 		timeout.ifPresent(threshold -> client.getProperties().put(ClientProperties.HANDSHAKE_TIMEOUT, threshold));
 
 		try {
@@ -161,13 +237,20 @@ public abstract class AbstractClientEndpoint<C extends WebSocketClient> extends
 
 	/**
 	 * Adds the given handler for incoming messages to the given session.
+	 * The messages inside a {@link Batch} are passed to the handler one by one.
 	 * 
 	 * @param <M> the type of the messages
 	 * @param session the session
 	 * @param handler the handler
 	 */
+	@SuppressWarnings("unchecked")
 	protected <M> void addMessageHandler(Session session, Consumer<M> handler) {
-		session.addMessageHandler((MessageHandler.Whole<M>) handler::accept);
+		session.addMessageHandler((MessageHandler.Whole<M>) message -> {
+			if (message instanceof Batch batch)
+				batch.getMessages().forEach(element -> handler.accept((M) element));
+			else
+				handler.accept(message);
+		});
 	}
 
 	/**
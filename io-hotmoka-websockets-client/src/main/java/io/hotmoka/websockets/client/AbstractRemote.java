@@ -17,6 +17,7 @@ limitations under the License.
 package io.hotmoka.websockets.client;
 
 import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.client.api.RequestIdGenerator;
 import io.hotmoka.websockets.client.internal.AbstractRemoteImpl;
 
 /**
@@ -37,6 +38,18 @@ public abstract class AbstractRemote extends AbstractRemoteImpl {
 		super(timeout);
 	}
 
+	/**
+	 * Creates and opens a new remote application for the API of another application
+	 * whose web service is already published.
+	 * 
+	 * @param timeout the time (in milliseconds) allowed for a call to the network service;
+	 *                beyond that threshold, a timeout exception is thrown
+	 * @param idGenerator the generator of the identifiers of the requests of this remote
+	 */
+	protected AbstractRemote(int timeout, RequestIdGenerator idGenerator) {
+		super(timeout, idGenerator);
+	}
+
 	/**
 	 * The endpoint class that can be extended to implement the remote call for each API method.
 	 */
@@ -0,0 +1,84 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import io.hotmoka.websockets.api.FailedDeploymentException;
+import io.hotmoka.websockets.client.api.BalancedRemote;
+import io.hotmoka.websockets.client.api.BalancingPolicy;
+import io.hotmoka.websockets.client.api.Remote;
+import io.hotmoka.websockets.client.api.RemoteSupplier;
+import io.hotmoka.websockets.client.internal.BalancedRemoteImpl;
+
+/**
+ * A provider of {@link BalancedRemote}.
+ */
+public final class BalancedRemotes {
+
+	private BalancedRemotes() {}
+
+	/**
+	 * Yields a client that balances the requests over the replicas of a service published at the given URIs.
+	 * A backend is ejected after three consecutive requests failed because of the network, or as soon as its
+	 * remote gets closed. Ejected backends are probed every five seconds: they are readmitted if their remote is open,
+	 * after recreating it if it has been closed.
+	 * 
+	 * @param <R> the type of the remotes
+	 * @param supplier the supplier of the remotes, used for each URI
+	 * @param uris the URIs where the replicas of the service are published; there must be at least one
+	 * @param timeout the threshold, in milliseconds, after which the requests of the remotes time out
+	 * @param policy the policy used to choose the backend of each request
+	 * @return the client
+	 * @throws FailedDeploymentException if no remote could be created
+	 * @throws TimeoutException if the creation of every remote timed out
+	 * @throws InterruptedException if the current thread has been interrupted
+	 */
+	public static <R extends Remote> BalancedRemote<R> of(RemoteSupplier<? extends R> supplier, List<URI> uris, int timeout, BalancingPolicy policy) throws FailedDeploymentException, TimeoutException, InterruptedException {
+		return new BalancedRemoteImpl<>(supplier, uris, timeout, policy, 3, Duration.ofSeconds(5), Optional.empty());
+	}
+
+	/**
+	 * Yields a client that balances the requests over the replicas of a service published at the given URIs.
+	 * 
+	 * @param <R> the type of the remotes
+	 * @param supplier the supplier of the remotes, used for each URI
+	 * @param uris the URIs where the replicas of the service are published; there must be at least one
+	 * @param timeout the threshold, in milliseconds, after which the requests of the remotes time out
+	 * @param policy the policy used to choose the backend of each request
+	 * @param maxFailures the number of consecutive requests failed because of the network
+	 *                    (timeouts, disconnections and I/O errors), after which a backend is ejected
+	 * @param probeInterval the time between two probes of the ejected backends
+	 * @param probe the request used to check if an ejected backend is healthy again: it is readmitted
+	 *              if the request succeeds within {@code timeout}
+	 * @return the client
+	 * @throws FailedDeploymentException if no remote could be created
+	 * @throws TimeoutException if the creation of every remote timed out
+	 * @throws InterruptedException if the current thread has been interrupted
+	 */
+	public static <R extends Remote> BalancedRemote<R> of(RemoteSupplier<? extends R> supplier, List<URI> uris, int timeout, BalancingPolicy policy,
+			int maxFailures, Duration probeInterval, Function<? super R, ? extends CompletionStage<?>> probe) throws FailedDeploymentException, TimeoutException, InterruptedException {
+
+		return new BalancedRemoteImpl<>(supplier, uris, timeout, policy, maxFailures, probeInterval, Optional.of(probe));
+	}
+}
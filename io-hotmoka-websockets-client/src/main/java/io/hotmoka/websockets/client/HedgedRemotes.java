@@ -0,0 +1,56 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import io.hotmoka.websockets.api.FailedDeploymentException;
+import io.hotmoka.websockets.client.api.HedgedRemote;
+import io.hotmoka.websockets.client.api.Remote;
+import io.hotmoka.websockets.client.api.RemoteSupplier;
+import io.hotmoka.websockets.client.internal.HedgedRemoteImpl;
+
+/**
+ * A provider of {@link HedgedRemote}.
+ */
+public final class HedgedRemotes {
+
+	private HedgedRemotes() {}
+
+	/**
+	 * Yields a client that hedges the requests sent to the replicas of a service published at the given URIs.
+	 * The calls of a kind of request get hedged once enough of them have been observed to estimate the
+	 * percentile of their latencies.
+	 * 
+	 * @param <R> the type of the remotes
+	 * @param supplier the supplier of the remotes, used for each URI
+	 * @param uris the URIs where the replicas of the service are published; there must be at least two
+	 * @param timeout the threshold, in milliseconds, after which the requests of the remotes time out
+	 * @param percentile the percentile of the latencies of a kind of request, after which its calls get hedged,
+	 *                   between 0 (excluded) and 100 (excluded), such as 95
+	 * @param budget the maximal fraction of calls that can be hedged, between 0 (excluded) and 1 (included), such as 0.05
+	 * @return the client
+	 * @throws FailedDeploymentException if some remote could not be created
+	 * @throws TimeoutException if the creation of some remote timed out
+	 * @throws InterruptedException if the current thread has been interrupted
+	 */
+	public static <R extends Remote> HedgedRemote<R> of(RemoteSupplier<? extends R> supplier, List<URI> uris, int timeout, double percentile, double budget) throws FailedDeploymentException, TimeoutException, InterruptedException {
+		return new HedgedRemoteImpl<>(supplier, uris, timeout, percentile, budget);
+	}
+}
@@ -0,0 +1,41 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client;
+
+import io.hotmoka.websockets.client.api.RequestIdGenerator;
+import io.hotmoka.websockets.client.internal.StripedRequestIdGenerator;
+
+/**
+ * A provider of {@link RequestIdGenerator}.
+ */
+public final class RequestIdGenerators {
+
+	private RequestIdGenerators() {}
+
+	/**
+	 * Yields the default generator of request identifiers. It uses striped counters,
+	 * so that concurrent threads do not contend for the same counter, and a random prefix,
+	 * unique for each generator, so that replies meant for another generator are not confused
+	 * with replies meant for this one. The resulting identifiers are short, typically
+	 * the prefix followed by a few base-36 digits.
+	 * 
+	 * @return the generator
+	 */
+	public static RequestIdGenerator striped() {
+		return new StripedRequestIdGenerator();
+	}
+}
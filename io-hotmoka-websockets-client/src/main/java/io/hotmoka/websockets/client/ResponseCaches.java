@@ -0,0 +1,39 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client;
+
+import io.hotmoka.websockets.client.api.ResponseCache;
+import io.hotmoka.websockets.client.internal.LRUResponseCache;
+
+/**
+ * A provider of {@link ResponseCache}.
+ */
+public final class ResponseCaches {
+
+	private ResponseCaches() {}
+
+	/**
+	 * Yields a cache that holds at most the given number of values. When full, it evicts
+	 * its least recently used value. Expired values are removed when they are found.
+	 * 
+	 * @param maxSize the maximal number of values in the cache
+	 * @return the cache
+	 */
+	public static ResponseCache lru(int maxSize) {
+		return new LRUResponseCache(maxSize);
+	}
+}
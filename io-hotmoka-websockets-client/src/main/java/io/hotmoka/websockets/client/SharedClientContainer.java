@@ -0,0 +1,164 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client;
+
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.tyrus.client.ClientProperties;
+import org.glassfish.tyrus.client.ThreadPoolConfig;
+
+import io.hotmoka.annotations.ThreadSafe;
+
+/**
+ * The configuration of the client container shared by the endpoints deployed by
+ * {@link AbstractClientEndpoint}. By default, all client endpoints of the process reuse
+ * the same transport, with its selector and worker threads, instead of starting their own
+ * for each deployment, which would mean thousands of threads for a process holding hundreds
+ * of remotes. The shared container counts the sessions using it and gets released when the last
+ * of them is closed and no new session is opened for the idle timeout. Its threads are sized
+ * when it is started, hence a new configuration takes effect only for the next container,
+ * after the current one has been released.
+ */
+@ThreadSafe
+public final class SharedClientContainer {
+
+	private SharedClientContainer() {}
+
+	/**
+	 * True if and only if the endpoints use the shared container.
+	 */
+	private static volatile boolean enabled = true;
+
+	/**
+	 * The number of selector threads of the shared container; 0 means the default of the transport.
+	 */
+	private static volatile int selectorThreads;
+
+	/**
+	 * The number of worker threads of the shared container; 0 means the default of the transport.
+	 */
+	private static volatile int workerThreads;
+
+	/**
+	 * The size of the buffer for incoming messages, in bytes; 0 means the default of the transport.
+	 */
+	private static volatile int incomingBufferSize;
+
+	/**
+	 * The time, in seconds, after which the shared container is released, if no session uses it.
+	 */
+	private static volatile int idleTimeout = 1;
+
+	/**
+	 * The name of the property of the Grizzly transport for the configuration of its selector threads.
+	 */
+	private final static String SELECTOR_THREAD_POOL_CONFIG = "org.glassfish.tyrus.client.grizzly.selectorThreadPoolConfig";
+
+	private final static Logger LOGGER = Logger.getLogger(SharedClientContainer.class.getName());
+
+	/**
+	 * Configures the shared container.
+	 * 
+	 * @param selectorThreads the number of selector threads; 0 means the default of the transport
+	 * @param workerThreads the number of worker threads; 0 means the default of the transport
+	 * @param incomingBufferSize the size of the buffer for incoming messages, in bytes; 0 means the default of the transport
+	 * @param idleTimeout the time, in seconds, after which the container is released, if no session uses it
+	 */
+	public static void configure(int selectorThreads, int workerThreads, int incomingBufferSize, int idleTimeout) {
+		if (selectorThreads < 0)
+			throw new IllegalArgumentException("selectorThreads cannot be negative");
+
+		if (workerThreads < 0)
+			throw new IllegalArgumentException("workerThreads cannot be negative");
+
+		if (incomingBufferSize < 0)
+			throw new IllegalArgumentException("incomingBufferSize cannot be negative");
+
+		if (idleTimeout < 1)
+			throw new IllegalArgumentException("idleTimeout must be positive");
+
+		SharedClientContainer.selectorThreads = selectorThreads;
+		SharedClientContainer.workerThreads = workerThreads;
+		SharedClientContainer.incomingBufferSize = incomingBufferSize;
+		SharedClientContainer.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Determines if the endpoints deployed from now on use the shared container.
+	 * Otherwise, each deployment starts its own transport, with its own threads.
+	 * It is enabled by default.
+	 * 
+	 * @param enabled true if and only if the shared container must be used
+	 */
+	public static void setEnabled(boolean enabled) {
+		SharedClientContainer.enabled = enabled;
+	}
+
+	/**
+	 * Sets the given properties of a client, so that it uses the shared container, if enabled.
+	 * 
+	 * @param properties the properties of the client
+	 */
+	static void applyTo(Map<String, Object> properties) {
+		int incomingBufferSize = SharedClientContainer.incomingBufferSize;
+		if (incomingBufferSize > 0)
+			properties.put(ClientProperties.INCOMING_BUFFER_SIZE, incomingBufferSize);
+
+		if (!enabled)
+			return;
+
+		properties.put(ClientProperties.SHARED_CONTAINER, true);
+		properties.put(ClientProperties.SHARED_CONTAINER_IDLE_TIMEOUT, idleTimeout);
+
+		int workerThreads = SharedClientContainer.workerThreads;
+		if (workerThreads > 0)
+			properties.put(ClientProperties.WORKER_THREAD_POOL_CONFIG, ThreadPoolConfig.defaultConfig()
+				.setCorePoolSize(workerThreads).setMaxPoolSize(workerThreads).setDaemon(true).setPoolName("websockets-client-worker"));
+
+		int selectorThreads = SharedClientContainer.selectorThreads;
+		if (selectorThreads > 0) {
+			var selectorConfig = mkSelectorConfig(selectorThreads);
+			if (selectorConfig != null)
+				properties.put(SELECTOR_THREAD_POOL_CONFIG, selectorConfig);
+		}
+	}
+
+	/**
+	 * Yields the configuration of the selector threads of the transport. This belongs to the
+	 * Grizzly transport, that is only available at run time, hence it is built reflectively.
+	 * 
+	 * @param selectorThreads the number of selector threads
+	 * @return the configuration, or {@code null} if it cannot be built
+	 */
+	private static Object mkSelectorConfig(int selectorThreads) {
+		try {
+			var clazz = Class.forName("org.glassfish.grizzly.threadpool.ThreadPoolConfig");
+			var config = clazz.getMethod("defaultConfig").invoke(null);
+			clazz.getMethod("setCorePoolSize", int.class).invoke(config, selectorThreads);
+			clazz.getMethod("setMaxPoolSize", int.class).invoke(config, selectorThreads);
+			clazz.getMethod("setDaemon", boolean.class).invoke(config, true);
+			clazz.getMethod("setPoolName", String.class).invoke(config, "websockets-client-selector");
+			return config;
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			LOGGER.log(Level.WARNING, "cannot configure the selector threads of the shared client container", e);
+			return null;
+		}
+	}
+}
@@ -17,195 +17,1514 @@ limitations under the License.
 package io.hotmoka.websockets.client.internal;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import io.hotmoka.annotations.ThreadSafe;
 import io.hotmoka.closeables.OnCloseHandlersManagers;
 import io.hotmoka.closeables.api.OnCloseHandler;
 import io.hotmoka.closeables.api.OnCloseHandlersManager;
 import io.hotmoka.exceptions.ExceptionSupplier;
 import io.hotmoka.websockets.api.FailedDeploymentException;
+import io.hotmoka.websockets.beans.CancelMessages;
+import io.hotmoka.websockets.beans.StreamDemandMessages;
+import io.hotmoka.websockets.beans.TimedMessages;
 import io.hotmoka.websockets.beans.api.ExceptionMessage;
 import io.hotmoka.websockets.beans.api.ResultMessage;
 import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.beans.api.TimedMessage;
 import io.hotmoka.websockets.client.AbstractClientEndpoint;
 import io.hotmoka.websockets.client.AbstractRemote;
 import io.hotmoka.websockets.client.AbstractWebSocketClient;
+import io.hotmoka.websockets.client.RequestIdGenerators;
+import io.hotmoka.websockets.client.api.DisconnectedException;
+import io.hotmoka.websockets.client.api.InFlightPolicy;
+import io.hotmoka.websockets.client.api.NotificationOverflowPolicy;
+import io.hotmoka.websockets.client.api.NotificationSubscription;
 import io.hotmoka.websockets.client.api.Remote;
+import io.hotmoka.websockets.client.api.RequestIdGenerator;
+import io.hotmoka.websockets.client.api.ResponseCache;
+import io.hotmoka.websockets.client.api.RpcStatistics;
+import io.hotmoka.websockets.client.api.SessionPoolPolicy;
 import jakarta.websocket.CloseReason;
 import jakarta.websocket.CloseReason.CloseCodes;
+import jakarta.websocket.EncodeException;
 import jakarta.websocket.EndpointConfig;
 import jakarta.websocket.Session;
 
-/**
- * A partial implementation of a remote object that presents a programmatic interface
- * to a service for the API of another object with the same interface,
- */
-@ThreadSafe
-public abstract class AbstractRemoteImpl extends AbstractWebSocketClient implements Remote {
+/**
+ * A partial implementation of a remote object that presents a programmatic interface
+ * to a service for the API of another object with the same interface,
+ */
+@ThreadSafe
+public abstract class AbstractRemoteImpl extends AbstractWebSocketClient implements Remote {
+
+	/**
+	 * A map from path into the pool of sessions listening to that path.
+	 */
+	private final ConcurrentMap<String, SessionPool> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * A map from path into the description of the pool of sessions that gets deployed
+	 * at that path on its first use, if deployment is lazy.
+	 */
+	private final ConcurrentMap<String, LazyPool> lazyPools = new ConcurrentHashMap<>();
+
+	/**
+	 * A map from path into the deployment in progress of its lazy pool of sessions.
+	 */
+	private final ConcurrentMap<String, CompletableFuture<SessionPool>> pendingDeployments = new ConcurrentHashMap<>();
+
+	/**
+	 * True if and only if the sessions added from now on get deployed on their first use.
+	 */
+	private volatile boolean lazyDeployment;
+
+	/**
+	 * True if and only if the lazy sessions start being deployed in background as soon as they are added.
+	 */
+	private volatile boolean warmUp;
+
+	/**
+	 * The members of all pools of sessions, indexed by their tag.
+	 */
+	private final List<SessionPool.Member> members = new CopyOnWriteArrayList<>();
+
+	/**
+	 * A map from each session into its member in the pools of sessions.
+	 */
+	private final ConcurrentMap<Session, SessionPool.Member> memberOf = new ConcurrentHashMap<>();
+
+	/**
+	 * The policy used to spread the requests over the sessions of the same pool.
+	 */
+	private volatile SessionPoolPolicy sessionPoolPolicy = SessionPoolPolicy.ROUND_ROBIN;
+
+	/**
+	 * The maximal number of attempts at reconnecting a closed session; 0 means that closed sessions are not reconnected.
+	 */
+	private volatile int reconnectionAttempts;
+
+	/**
+	 * The maximal delay (in milliseconds) before the first attempt at reconnecting a closed session.
+	 */
+	private volatile long initialBackoff;
+
+	/**
+	 * The maximal delay (in milliseconds) between two attempts at reconnecting a closed session.
+	 */
+	private volatile long maxBackoff;
+
+	/**
+	 * The types of requests that can be sent again after the reconnection of their session.
+	 */
+	private final Set<Class<?>> idempotentTypes = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The number of requests that have been sent again after the reconnection of their session.
+	 */
+	private final LongAdder replayed = new LongAdder();
+
+	/**
+	 * The time between two pings of the sessions of this remote; {@code null} if sessions are not pinged.
+	 */
+	private volatile Duration keepaliveInterval;
+
+	/**
+	 * The number of consecutive pings without pong after which a server is considered dead.
+	 */
+	private volatile int maxMissedPongs;
+
+	/**
+	 * The number of sessions closed since their server did not answer to pings.
+	 */
+	private final LongAdder deadSessions = new LongAdder();
+
+	/**
+	 * True while the replayable requests of some session are being pruned.
+	 */
+	private final AtomicBoolean pruning = new AtomicBoolean();
+
+	/**
+	 * The number of replayable requests of a session beyond which those not waiting
+	 * for their reply anymore get removed.
+	 */
+	private final static int MAX_REPLAYABLE = 1024;
+
+	/**
+	 * The manager of the close handlers.
+	 */
+	private final OnCloseHandlersManager manager = OnCloseHandlersManagers.create();
+
+	/**
+	 * The time (in milliseconds) allowed for the connection to the server;
+	 * beyond that threshold, a timeout exception is thrown.
+	 */
+	private final int timeout;
+
+	/**
+	 * Queues of messages received from the external world.
+	 */
+	private final RPCMessageQueuesContainer queues;
+
+	/**
+	 * True if and only if this node has been closed already.
+	 */
+	private final AtomicBoolean isClosed = new AtomicBoolean();
+
+	/**
+	 * Used to wait until the remote gets closed.
+	 */
+	private final CountDownLatch latch = new CountDownLatch(1);
+
+	/**
+	 * A description of the reason why the service has been disconnected.
+	 */
+	private volatile String closeReason;
+
+	/**
+	 * The batchers of the requests sent through each session, if batching is enabled.
+	 */
+	private final ConcurrentMap<Session, RequestBatcher> batchers = new ConcurrentHashMap<>();
+
+	/**
+	 * The maximal number of requests in a batch; batching is disabled if this is 0.
+	 */
+	private volatile int maxBatchSize;
+
+	/**
+	 * The time window (in nanoseconds) after which a batch of requests is sent, even if not full.
+	 */
+	private volatile long batchWindow;
+
+	/**
+	 * The executor used to send the batches of requests at the end of their time window,
+	 * if batching is enabled.
+	 */
+	private volatile ScheduledExecutorService batchScheduler;
+
+	/**
+	 * The functions that compute the coalescing key of the messages, for each type of messages.
+	 */
+	private final ConcurrentMap<Class<?>, Function<RpcMessage, ?>> coalescingKeys = new ConcurrentHashMap<>();
+
+	/**
+	 * The futures of the replies to the messages that are waiting for their reply,
+	 * for each message type and coalescing key.
+	 */
+	private final ConcurrentMap<MessageKey, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of messages that have not been sent, since they have been coalesced with an identical message.
+	 */
+	private final LongAdder coalesced = new LongAdder();
+
+	/**
+	 * The statistics of the requests sent by this remote, for each type of requests.
+	 */
+	private final RemoteStatistics statistics;
+
+	/**
+	 * The name under which {@link #statistics} have been registered in the platform MBean server, if any.
+	 */
+	private volatile ObjectName statisticsName;
+
+	/**
+	 * The cache of the replied values, if any.
+	 */
+	private volatile ResponseCache responseCache;
+
+	/**
+	 * The caching policy of the replies, for each type of messages.
+	 */
+	private final ConcurrentMap<Class<?>, Caching> cachings = new ConcurrentHashMap<>();
+
+	/**
+	 * How the replies to the messages of a given type get cached.
+	 * 
+	 * @param key the function that computes the caching key of the messages
+	 * @param ttl the time to live of the cached replies, in milliseconds
+	 */
+	private record Caching(Function<RpcMessage, ?> key, long ttl) {}
+
+	/**
+	 * The key of a message, used for identifying identical messages.
+	 * 
+	 * @param type the type of the message
+	 * @param key the key of the message, inside its type
+	 */
+	private record MessageKey(Class<?> type, Object key) {}
+
+	/**
+	 * True if and only if the server is informed of the requests abandoned by this remote.
+	 */
+	private volatile boolean cancellationPropagation;
+
+	/**
+	 * The number of cancellation messages sent for the requests abandoned by this remote.
+	 */
+	private final LongAdder cancellations = new LongAdder();
+
+	/**
+	 * True if and only if the requests sent by this remote carry the time within which a reply is expected.
+	 */
+	private volatile boolean deadlinePropagation;
+
+	/**
+	 * The subscriptions to the notifications pushed by the server.
+	 */
+	private final List<NotificationSubscriptionImpl<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The executor of the tasks that deliver the notifications to their listeners,
+	 * or {@code null} if it has not been created yet.
+	 */
+	private volatile Executor notificationExecutor;
+
+	/**
+	 * True if and only if {@link #notificationExecutor} has been created by this remote,
+	 * hence it must be shut down when this remote gets closed.
+	 */
+	private volatile boolean ownsNotificationExecutor;
+
+	/**
+	 * The number of notifications received but not subscribed by any listener.
+	 */
+	private final LongAdder unhandledNotifications = new LongAdder();
+
+	/**
+	 * The subscription passed to the subscribers that cannot be subscribed.
+	 */
+	private final static Flow.Subscription NO_SUBSCRIPTION = new Flow.Subscription() {
+
+		@Override
+		public void request(long n) {}
+
+		@Override
+		public void cancel() {}
+	};
+
+	private final static Logger LOGGER = Logger.getLogger(AbstractRemoteImpl.class.getName());
+
+	/**
+	 * Creates and opens a new remote application for the API of another application
+	 * whose web service is already published.
+	 * 
+	 * @param timeout the time (in milliseconds) allowed for a call to the network service;
+	 *                beyond that threshold, a timeout exception is thrown
+	 */
+	protected AbstractRemoteImpl(int timeout) {
+		this(timeout, RequestIdGenerators.striped());
+	}
+
+	/**
+	 * Creates and opens a new remote application for the API of another application
+	 * whose web service is already published.
+	 * 
+	 * @param timeout the time (in milliseconds) allowed for a call to the network service;
+	 *                beyond that threshold, a timeout exception is thrown
+	 * @param idGenerator the generator of the identifiers of the requests of this remote
+	 */
+	protected AbstractRemoteImpl(int timeout, RequestIdGenerator idGenerator) {
+		this.timeout = timeout;
+		this.queues = new RPCMessageQueuesContainer(timeout, Objects.requireNonNull(idGenerator, "idGenerator cannot be null"));
+		this.statistics = new RemoteStatistics(TimeUnit.MILLISECONDS.toNanos(timeout));
+		this.queues.setOnTaggedRemoval(tag -> members.get(tag).outstanding.decrementAndGet());
+		this.queues.setOnAbandoned(this::onAbandoned);
+	}
+
+	@Override
+	public final void close() {
+		close(new CloseReason(CloseCodes.NORMAL_CLOSURE, "Closed normally."));
+	}
+
+	@Override
+	public final void addOnCloseHandler(OnCloseHandler what) {
+		manager.addOnCloseHandler(what);
+	}
+
+	@Override
+	public final void removeOnCloseHandler(OnCloseHandler what) {
+		manager.removeOnCloseHandler(what);
+	}
+
+	@Override
+	public final String waitUntilClosed() throws InterruptedException {
+		latch.await();
+		return closeReason;
+	}
+
+	/**
+	 * Closes this remote. Subclasses should close their own resources
+	 * and then call this method at the end. This method is never called twice,
+	 * but only the first time the remote gets closed.
+	 * 
+	 * @param reason the reason why the remote is getting closed
+	 */
+	protected void closeResources(CloseReason reason) {
+		closeReason = reason.getReasonPhrase();
+
+		try {
+			// the requests still waiting for their reply are aborted at once, rather than waiting for their timeout
+			queues.close("The remote has been closed: " + closeReason);
+			closeSessionsAndCallOnCloseHandlers();
+		}
+		finally {
+			var batchScheduler = this.batchScheduler;
+			if (batchScheduler != null)
+				batchScheduler.shutdownNow();
+
+			subscriptions.forEach(NotificationSubscription::close);
+			if (ownsNotificationExecutor && notificationExecutor instanceof ExecutorService es)
+				es.shutdownNow();
+
+			unregisterStatisticsMBean();
+
+			latch.countDown();
+		}
+	}
+
+	/**
+	 * Yields a snapshot of the statistics of the requests sent by this remote, for each type of requests:
+	 * number of requests, timeouts, exception replies and unexpected replies, as well as histograms of
+	 * the send latency, of the round-trip latency and of the delay for handing the replies off to their waiters.
+	 * 
+	 * @return the statistics, in alphabetical order of type of requests
+	 */
+	protected final List<RpcStatistics> getStatistics() {
+		return statistics.getStatistics();
+	}
+
+	/**
+	 * Registers the statistics of the requests sent by this remote (see {@link #getStatistics()}) in the
+	 * platform MBean server, with object name {@code io.hotmoka.websockets.client:type=RemoteStatistics,name=<name>}.
+	 * They get unregistered when this remote is closed. This should be called in the constructor of the subclasses.
+	 * If registration fails, it is reported in the logs, but this remote keeps working.
+	 * 
+	 * @param name the name used to identify this remote in the MBean server
+	 */
+	protected final void registerStatisticsMBean(String name) {
+		try {
+			var objectName = new ObjectName("io.hotmoka.websockets.client:type=RemoteStatistics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, objectName);
+			statisticsName = objectName;
+		}
+		catch (JMException e) {
+			LOGGER.log(Level.WARNING, "remote: cannot register the statistics MBean", e);
+		}
+	}
+
+	private void unregisterStatisticsMBean() {
+		var statisticsName = this.statisticsName;
+		if (statisticsName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(statisticsName);
+			}
+			catch (JMException e) {
+				LOGGER.log(Level.WARNING, "remote: cannot unregister the statistics MBean", e);
+			}
+		}
+	}
+
+	/**
+	 * Yields the number of requests of this remote that have been aborted with a
+	 * {@link DisconnectedException}, since their session or this remote got closed
+	 * while they were waiting for their reply.
+	 * 
+	 * @return the number of aborted requests
+	 */
+	protected final long getAbortedRequests() {
+		return queues.getAbortedRequests();
+	}
+
+	/**
+	 * Yields the number of replies that this remote received after their request had already
+	 * timed out or had already been completed.
+	 * 
+	 * @return the number of late replies
+	 */
+	protected final long getLateReplies() {
+		return queues.getLateReplies();
+	}
+
+	/**
+	 * Limits the number of messages that this remote can have in flight at the same time,
+	 * that is, of messages whose identifier has been yielded by {@link #nextId()} but that
+	 * have not received a reply nor timed out yet. This must be called in the constructor of the
+	 * subclasses, before any message is sent. By default, the number of messages in flight is not limited.
+	 * 
+	 * @param maxInFlight the maximal number of messages in flight
+	 * @param policy what {@link #nextId()} does when {@code maxInFlight} messages are already in flight
+	 */
+	protected final void setMaxInFlight(int maxInFlight, InFlightPolicy policy) {
+		if (maxInFlight < 1)
+			throw new IllegalArgumentException("maxInFlight must be positive");
+
+		queues.setMaxInFlight(maxInFlight, Objects.requireNonNull(policy, "policy cannot be null"));
+	}
+
+	/**
+	 * Sets the age, in number of timeouts, beyond which a message still waiting for its reply
+	 * is considered leaked. Leaked messages are reported in the logs and removed, as if they timed out.
+	 * This should never happen, since messages time out after one timeout, but guards against
+	 * bugs in the expiration of the messages. It defaults to 3.
+	 * 
+	 * @param timeouts the number of timeouts
+	 */
+	protected final void setLeakThreshold(int timeouts) {
+		if (timeouts < 2)
+			throw new IllegalArgumentException("timeouts must be at least 2");
+
+		queues.setLeakThreshold(timeouts);
+	}
+
+	/**
+	 * Enables the batching of the requests sent by this remote. Requests sent through the same session
+	 * within a short time window, or until a maximal number of requests, are coalesced and sent
+	 * together in a single websocket frame, as a {@link io.hotmoka.websockets.beans.api.Batch}.
+	 * The server unpacks the batch and processes its requests one by one, as if they were sent alone,
+	 * hence correlation by identifier is unaffected. This reduces the per-frame overhead for remotes
+	 * issuing many small requests, at the price of a slightly higher latency. With batching, sending
+	 * a request does not report input/output errors, that are reported instead when waiting for its result.
+	 * This must be called in the constructor of the subclasses, before deploying any session,
+	 * since only sessions deployed afterwards accept batched replies from the server.
+	 * By default, batching is disabled.
+	 * 
+	 * @param maxBatchSize the maximal number of requests in a batch
+	 * @param window the time window after which a batch is sent, even if not full
+	 */
+	protected final void setBatching(int maxBatchSize, Duration window) {
+		if (maxBatchSize < 2)
+			throw new IllegalArgumentException("maxBatchSize must be at least 2");
+
+		if (window.isNegative() || window.isZero())
+			throw new IllegalArgumentException("window must be positive");
+
+		if (batchScheduler == null)
+			batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				var thread = new Thread(runnable, "remote-batcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+		this.batchWindow = window.toNanos();
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Sends the given object, synchronously, with the given session. If batching is enabled
+	 * (see {@link #setBatching(int, Duration)}) and {@code object} is an {@link RpcMessage},
+	 * then it is added to the current batch instead, that will be sent later.
+	 */
+	@Override
+	protected <E extends Exception> void sendObject(Session session, Object object, Function<String, E> exceptionSupplier) throws E, EncodeException {
+		if (object instanceof RpcMessage message) {
+			var metrics = onSend(session, message, true);
+
+			if (maxBatchSize > 0) {
+				batcherFor(session).add(timed(message));
+				return;
+			}
+
+			long start = System.nanoTime();
+			super.sendObject(session, timed(message), exceptionSupplier);
+			metrics.sendLatency.record(System.nanoTime() - start);
+		}
+		else
+			super.sendObject(session, object, exceptionSupplier);
+	}
+
+	/**
+	 * Sends the given object, asynchronously, with the given session. If {@code object} is an {@link RpcMessage},
+	 * it is tracked exactly as if it were sent synchronously (see {@link #sendObject(Session, Object, Function)}):
+	 * it is added to the current batch, if batching is enabled, and it fails with an {@link IOException}
+	 * if it cannot be sent.
+	 */
+	@Override
+	protected <E extends Exception> Future<Void> sendObjectAsync(Session session, Object object, Function<String, E> exceptionSupplier) throws E {
+		if (object instanceof RpcMessage message)
+			return sendRequestAsync(session, message, exceptionSupplier);
+		else
+			return super.sendObjectAsync(session, object, exceptionSupplier);
+	}
+
+	/**
+	 * Sends the given request, asynchronously, with the given session, or adds it to the current batch,
+	 * if batching is enabled. If the request cannot be sent, it is failed with an {@link IOException}.
+	 * 
+	 * @param <E> the type of the exception thrown if the request cannot be sent at all
+	 * @param session the session
+	 * @param message the request
+	 * @param exceptionSupplier the supplier of the exception to throw if the request cannot be sent at all:
+	 *                          it receives the message of the exception
+	 * @return the future that can be used to wait for the request to be sent
+	 * @throws E if the request cannot be sent at all, for instance, because the connection is closed
+	 */
+	private <E extends Exception> CompletableFuture<Void> sendRequestAsync(Session session, RpcMessage message, Function<String, E> exceptionSupplier) throws E {
+		String id = message.getId();
+		var metrics = onSend(session, message, true);
+
+		if (maxBatchSize > 0) {
+			batcherFor(session).add(timed(message));
+			return CompletableFuture.completedFuture(null);
+		}
+
+		var sent = new CompletableFuture<Void>();
+
+		try {
+			long start = System.nanoTime();
+			session.getAsyncRemote().sendObject(timed(message), result -> {
+				if (result.isOK()) {
+					metrics.sendLatency.record(System.nanoTime() - start);
+					sent.complete(null);
+				}
+				else {
+					var e = new IOException(result.getException());
+					queues.fail(id, e);
+					sent.completeExceptionally(e);
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			queues.fail(id, new IOException(e.getMessage()));
+			throw exceptionSupplier.apply(e.getMessage());
+		}
+
+		return sent;
+	}
+
+	/**
+	 * Enables the coalescing of identical messages of the given type sent with
+	 * {@link #sendAndReceive(String, RpcMessage, Class, Class...)}. Two messages of that type are identical
+	 * if they have equal keys, as computed by the given function. If a message is sent while an identical
+	 * message is still waiting for its reply, then it is not sent and shares the reply of the latter,
+	 * be it a value or an exception. This is meant for messages asking for immutable data,
+	 * to avoid redundant requests when many threads ask for the same data at the same time.
+	 * It should be called in the constructor of the subclasses.
+	 * 
+	 * @param <M> the type of the messages
+	 * @param messageType the type of the messages; messages of its subclasses are not coalesced
+	 * @param key the function that computes the coalescing key of the messages; it is called
+	 *            for each message of type {@code messageType} and must not yield {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	protected final <M extends RpcMessage> void setCoalescingKey(Class<M> messageType, Function<? super M, ?> key) {
+		Objects.requireNonNull(key, "key cannot be null");
+		coalescingKeys.put(Objects.requireNonNull(messageType, "messageType cannot be null"), message -> Objects.requireNonNull(key.apply((M) message), "the coalescing key cannot be null"));
+	}
+
+	/**
+	 * Sets the cache of the values replied to the messages of this remote. The cache is used only for
+	 * the types of messages for which caching is enabled (see {@link #setCaching(Class, Function, Duration)}).
+	 * It should be called in the constructor of the subclasses.
+	 * 
+	 * @param responseCache the cache, as built for instance by {@link io.hotmoka.websockets.client.ResponseCaches}
+	 */
+	protected final void setResponseCache(ResponseCache responseCache) {
+		this.responseCache = Objects.requireNonNull(responseCache, "responseCache cannot be null");
+	}
+
+	/**
+	 * Enables the caching of the values replied to the messages of the given type sent with
+	 * {@link #sendAndReceive(String, RpcMessage, Class, Class...)}. Two messages of that type get the same
+	 * reply if they have equal keys, as computed by the given function. If a message is sent while the
+	 * cache holds a value for its key, then the message is not sent and the future of its reply is
+	 * immediately completed with that value. This is meant for messages asking for immutable data or data
+	 * that changes rarely: exceptions and {@code null} values are not cached. A response cache must have
+	 * been set before (see {@link #setResponseCache(ResponseCache)}). It should be called in the
+	 * constructor of the subclasses.
+	 * 
+	 * @param <M> the type of the messages
+	 * @param messageType the type of the messages; messages of its subclasses are not cached
+	 * @param key the function that computes the caching key of the messages; it is called
+	 *            for each message of type {@code messageType} and must not yield {@code null}
+	 * @param ttl the time to live of the cached values
+	 */
+	@SuppressWarnings("unchecked")
+	protected final <M extends RpcMessage> void setCaching(Class<M> messageType, Function<? super M, ?> key, Duration ttl) {
+		Objects.requireNonNull(key, "key cannot be null");
+		if (responseCache == null)
+			throw new IllegalStateException("No response cache has been set");
+
+		if (ttl.isNegative() || ttl.isZero())
+			throw new IllegalArgumentException("ttl must be positive");
+
+		cachings.put(Objects.requireNonNull(messageType, "messageType cannot be null"), new Caching(message -> Objects.requireNonNull(key.apply((M) message), "the caching key cannot be null"), ttl.toMillis()));
+	}
+
+	/**
+	 * Invalidates the cached value replied to the messages of the given type with the given key, if any.
+	 * 
+	 * @param messageType the type of the messages
+	 * @param key the caching key of the messages, as computed by the function passed to
+	 *            {@link #setCaching(Class, Function, Duration)}
+	 */
+	protected final void invalidateCachedResponse(Class<? extends RpcMessage> messageType, Object key) {
+		var responseCache = this.responseCache;
+		if (responseCache != null)
+			responseCache.invalidate(new MessageKey(messageType, key));
+	}
+
+	/**
+	 * Invalidates all cached values replied to the messages of the given type.
+	 * 
+	 * @param messageType the type of the messages
+	 */
+	protected final void invalidateCachedResponses(Class<? extends RpcMessage> messageType) {
+		var responseCache = this.responseCache;
+		if (responseCache != null)
+			responseCache.invalidateIf(key -> key instanceof MessageKey mk && mk.type == messageType);
+	}
+
+	/**
+	 * Yields the number of messages that have not been sent, since they have been coalesced with an
+	 * identical message that was still waiting for its reply (see {@link #setCoalescingKey(Class, Function)}).
+	 * 
+	 * @return the number of coalesced messages
+	 */
+	protected final long getCoalescedMessages() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * Determines if the server is informed, through a {@link io.hotmoka.websockets.beans.api.CancelMessage},
+	 * of the requests that this remote abandons while they might still be processed, since they timed out,
+	 * their waiting thread has been interrupted, their future has been cancelled or they have been shed to make
+	 * room for newer requests (see {@link #setMaxInFlight(int, InFlightPolicy)}). The server can then drop them,
+	 * if they are still queued, or stop them, if they are running, instead of wasting its workers on replies
+	 * that nobody is going to read. This should be called in the constructor of the subclasses and
+	 * enabled only for servers that understand cancellation messages. By default, it is disabled.
+	 * 
+	 * @param enabled true if and only if the server must be informed of the abandoned requests
+	 */
+	protected final void setCancellationPropagation(boolean enabled) {
+		this.cancellationPropagation = enabled;
+	}
+
+	/**
+	 * Yields the number of cancellation messages sent to the server for the requests
+	 * abandoned by this remote (see {@link #setCancellationPropagation(boolean)}).
+	 * 
+	 * @return the number of cancellation messages
+	 */
+	protected final long getCancelledRequests() {
+		return cancellations.sum();
+	}
+
+	/**
+	 * Called when a request is abandoned while the server might still be processing it.
+	 * 
+	 * @param id the identifier of the request
+	 * @param tag the tag of the member whose session has been used to send the request
+	 */
+	private void onAbandoned(String id, int tag) {
+		if (cancellationPropagation && !isClosed.get()) {
+			var session = members.get(tag).session;
+			if (session.isOpen()) {
+				sendControlMessage(session, CancelMessages.of(id));
+				cancellations.increment();
+			}
+		}
+	}
+
+	/**
+	 * Determines if the requests sent by this remote carry the time within which a reply is expected,
+	 * that is, the timeout of this remote, as a {@link io.hotmoka.websockets.beans.api.TimedMessage}.
+	 * Servers drop the requests whose deadline expires before they start processing them,
+	 * instead of computing replies that nobody is going to read, which keeps an overloaded server from
+	 * falling further and further behind. Streams of replies do not carry a deadline, since they
+	 * only time out when idle. This should be called in the constructor of the subclasses and
+	 * enabled only for servers that understand timed messages. By default, it is disabled.
+	 * 
+	 * @param enabled true if and only if the requests must carry their deadline
+	 */
+	protected final void setDeadlinePropagation(boolean enabled) {
+		this.deadlinePropagation = enabled;
+	}
+
+	/**
+	 * Yields the given request, with its deadline if deadline propagation is enabled
+	 * (see {@link #setDeadlinePropagation(boolean)}).
+	 * 
+	 * @param message the request
+	 * @return the request to send
+	 */
+	private RpcMessage timed(RpcMessage message) {
+		if (!deadlinePropagation || timeout <= 0 || message instanceof TimedMessage)
+			return message;
+
+		// the timeout of the request might have been derived from the latencies of its type
+		long millis = TimeUnit.NANOSECONDS.toMillis(queues.timeoutFor(statistics.of(message.getClass())));
+		return TimedMessages.of(message, Math.max(1L, millis));
+	}
+
+	/**
+	 * Derives the timeout of the requests of each type from the round-trip latencies observed for that type,
+	 * instead of using the timeout of this remote for all requests. Namely, the timeout becomes the given
+	 * multiple of the given percentile of the latencies, clamped between {@code floor} and {@code ceiling}.
+	 * Cheap requests get a short timeout, so that they fail early if their reply is lost, while expensive requests
+	 * get a long timeout, so that they are not aborted while still being served. The timeout of a type is updated
+	 * about every second; the timeout of this remote is used until enough replies of that type have been observed.
+	 * If the requests of a type time out more frequently than the percentile allows, their timeout is doubled, since
+	 * requests that time out do not contribute to the latencies. The current timeouts are reported in the statistics
+	 * of this remote (see {@link #getStatistics()}). This should be called in the constructor of the subclasses,
+	 * before any request is sent.
+	 * 
+	 * @param percentile the percentile of the latencies, between 0 (excluded) and 100 (included), such as 99
+	 * @param multiplier the multiplier applied to the percentile, at least 1
+	 * @param floor the minimal timeout
+	 * @param ceiling the maximal timeout
+	 */
+	protected final void setAdaptiveTimeouts(double percentile, double multiplier, Duration floor, Duration ceiling) {
+		queues.setAdaptiveTimeouts(new AdaptiveTimeouts(percentile, multiplier, floor.toNanos(), ceiling.toNanos()));
+	}
+
+	/**
+	 * Sets the executor of the tasks that deliver the notifications pushed by the server to their listeners
+	 * (see {@link #subscribe(Class, Consumer, int, NotificationOverflowPolicy)}). It is not shut down
+	 * when this remote gets closed. This must be called in the constructor of the subclasses, before any subscription.
+	 * By default, notifications are delivered in virtual threads, if the runtime supports them, or otherwise
+	 * in a pool of daemon threads, that is shut down when this remote gets closed.
+	 * 
+	 * @param executor the executor
+	 */
+	protected final void setNotificationExecutor(Executor executor) {
+		this.notificationExecutor = Objects.requireNonNull(executor, "executor cannot be null");
+		this.ownsNotificationExecutor = false;
+	}
+
+	/**
+	 * Subscribes the given listener to the notifications of the given type, that is, to the messages that the server
+	 * pushes without a corresponding request, such as the announcement of a new block or of a change of state.
+	 * Such messages must carry an identifier that has not been yielded by {@link #nextId()}.
+	 * Notifications are put in a bounded buffer and delivered to the listener, in arrival order, in a thread of the
+	 * notification executor (see {@link #setNotificationExecutor(Executor)}), never in the thread that receives them
+	 * from the network, so that a slow listener does not stall the reception of the replies.
+	 * 
+	 * @param <M> the type of the notifications
+	 * @param messageType the type of the notifications; notifications of its subclasses are delivered as well
+	 * @param listener the listener
+	 * @param bufferSize the maximal number of notifications buffered for the listener
+	 * @param policy what to do when a notification arrives while the buffer is full
+	 * @return the subscription, that can be closed to stop the delivery of the notifications
+	 */
+	protected final <M extends RpcMessage> NotificationSubscription subscribe(Class<M> messageType, Consumer<? super M> listener, int bufferSize, NotificationOverflowPolicy policy) {
+		return subscribe(messageType, listener, bufferSize, policy, null);
+	}
+
+	/**
+	 * Subscribes the given listener to the notifications of the given type, as
+	 * {@link #subscribe(Class, Consumer, int, NotificationOverflowPolicy)}, but coalescing the notifications
+	 * with equal keys, as computed by the given function: a notification that arrives while another with the same key
+	 * is still buffered replaces the latter, keeping its position in the buffer. Hence the listener only receives
+	 * the latest notification for each key, which is useful for notifications that describe a state.
+	 * 
+	 * @param <M> the type of the notifications
+	 * @param messageType the type of the notifications; notifications of its subclasses are delivered as well
+	 * @param listener the listener
+	 * @param bufferSize the maximal number of notifications buffered for the listener
+	 * @param policy what to do when a notification arrives while the buffer is full
+	 * @param coalescingKey the function that computes the coalescing key of the notifications;
+	 *                      it is called for each notification and must not yield {@code null}
+	 * @return the subscription, that can be closed to stop the delivery of the notifications
+	 */
+	protected final <M extends RpcMessage> NotificationSubscription subscribe(Class<M> messageType, Consumer<? super M> listener, int bufferSize, NotificationOverflowPolicy policy, Function<? super M, ?> coalescingKey) {
+		Objects.requireNonNull(messageType, "messageType cannot be null");
+		Objects.requireNonNull(listener, "listener cannot be null");
+		Objects.requireNonNull(policy, "policy cannot be null");
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("bufferSize must be positive");
+
+		Function<? super M, ?> key = coalescingKey == null ? null : message -> Objects.requireNonNull(coalescingKey.apply(message), "the coalescing key cannot be null");
+		var subscription = new NotificationSubscriptionImpl<>(messageType, listener, bufferSize, policy, key, getNotificationExecutor(), subscriptions::remove);
+		subscriptions.add(subscription);
+
+		if (isClosed.get())
+			subscription.close();
+
+		return subscription;
+	}
+
+	/**
+	 * Yields the number of notifications received by this remote that have not been
+	 * delivered to any listener, since no listener was subscribed to their type.
+	 * 
+	 * @return the number of unhandled notifications
+	 */
+	protected final long getUnhandledNotifications() {
+		return unhandledNotifications.sum();
+	}
+
+	private Executor getNotificationExecutor() {
+		var executor = notificationExecutor;
+		if (executor == null) {
+			synchronized (subscriptions) {
+				executor = notificationExecutor;
+				if (executor == null) {
+					notificationExecutor = executor = mkNotificationExecutor();
+					ownsNotificationExecutor = true;
+				}
+			}
+		}
+
+		return executor;
+	}
+
+	/**
+	 * Creates the default executor of the tasks that deliver the notifications: it uses
+	 * virtual threads, if the runtime supports them, since listeners might block.
+	 * 
+	 * @return the executor
+	 */
+	private static ExecutorService mkNotificationExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException | ClassCastException e) {
+			// virtual threads are not available in this runtime
+			return Executors.newCachedThreadPool(runnable -> {
+				var thread = new Thread(runnable, "remote-notifier");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Delivers the given message to the subscriptions to its type, if it is a notification.
+	 * 
+	 * @param message the message
+	 * @return true if and only if {@code message} is a notification
+	 */
+	private boolean dispatchNotification(RpcMessage message) {
+		if (queues.isOwnId(message.getId()))
+			return false;
+
+		boolean delivered = false;
+		for (var subscription: subscriptions)
+			delivered |= subscription.offer(message);
+
+		if (!delivered) {
+			unhandledNotifications.increment();
+			LOGGER.warning("remote: received a message of type " + message.getClass().getName() + " but its id \"" + message.getId() + "\" has no corresponding waiting request nor subscribed listener");
+		}
+
+		return true;
+	}
+
+	private RequestBatcher batcherFor(Session session) {
+		return batchers.computeIfAbsent(session, s -> new RequestBatcher(s, maxBatchSize, batchWindow, batchScheduler, queues::fail));
+	}
+
+	/**
+	 * Hook called when an exception is received as result for an RPC.
+	 * 
+	 * @param message the RPC message containing the exception
+	 */
+	protected void onException(ExceptionMessage message) {}
+
+	/**
+	 * Adds a session at the given path starting at the given URI, connected to the
+	 * endpoint resulting from the given supplier.
+	 * 
+	 * @param path the path
+	 * @param uri the URI
+	 * @param endpoint the supplier of the endpoint
+	 * @throws FailedDeploymentException if the session cannot be deployed
+	 * @throws InterruptedException if the connection attempt has been interrupted
+	 */
+	protected final void addSession(String path, URI uri, Supplier<AbstractRemote.Endpoint> endpoint) throws FailedDeploymentException, InterruptedException {
+		addSession(path, uri, endpoint, 1);
+	}
+
+	/**
+	 * Adds a pool of sessions at the given path starting at the given URI, each connected to an
+	 * endpoint resulting from the given supplier. Requests for that path get spread over the sessions
+	 * of the pool, according to the policy of this remote (see {@link #setSessionPoolPolicy(SessionPoolPolicy)}),
+	 * so that they do not all contend for the same socket.
+	 * 
+	 * @param path the path
+	 * @param uri the URI
+	 * @param endpoint the supplier of the endpoints
+	 * @param poolSize the number of sessions in the pool
+	 * @throws FailedDeploymentException if some session cannot be deployed
+	 * @throws InterruptedException if some connection attempt has been interrupted
+	 */
+	protected final void addSession(String path, URI uri, Supplier<AbstractRemote.Endpoint> endpoint, int poolSize) throws FailedDeploymentException, InterruptedException {
+		checkPoolSize(poolSize);
+		var resolved = uri.resolve(path);
+
+		if (lazyDeployment)
+			addLazyPool(path, new LazyPool(resolved, endpoint, poolSize));
+		else
+			sessions.put(path, deployPool(resolved, endpoint, poolSize));
+	}
+
+	/**
+	 * Adds sessions for the endpoints supplied by the given suppliers.
+	 * This is much faster than adding each single session individually, since it works in parallel.
+	 * 
+	 * @param uri the base URI where the endpoints will get published
+	 * @param endpoints the suppliers of the endpoints
+	 * @throws FailedDeploymentException if some session cannot be deployed
+	 * @throws InterruptedException if some connection attempt has been interrupted
+	 */
+	@SafeVarargs
+	protected final void addSessions(URI uri, Supplier<AbstractRemote.Endpoint>... endpoints) throws FailedDeploymentException, InterruptedException {
+		addSessions(uri, 1, endpoints);
+	}
+
+	/**
+	 * Adds pools of sessions for the endpoints supplied by the given suppliers, with the given number of
+	 * sessions for each endpoint. This is much faster than adding each single pool individually,
+	 * since it works in parallel. Requests for the path of each endpoint get spread over the sessions
+	 * of its pool, according to the policy of this remote (see {@link #setSessionPoolPolicy(SessionPoolPolicy)}).
+	 * 
+	 * @param uri the base URI where the endpoints will get published
+	 * @param poolSize the number of sessions in the pool of each endpoint
+	 * @param endpoints the suppliers of the endpoints
+	 * @throws FailedDeploymentException if some session cannot be deployed
+	 * @throws InterruptedException if some connection attempt has been interrupted
+	 */
+	@SafeVarargs
+	protected final void addSessions(URI uri, int poolSize, Supplier<AbstractRemote.Endpoint>... endpoints) throws FailedDeploymentException, InterruptedException {
+		checkPoolSize(poolSize);
+
+		if (lazyDeployment) {
+			for (var supplier: endpoints) {
+				String segment = supplier.get().segment();
+				addLazyPool(segment, new LazyPool(uri.resolve(segment), supplier, poolSize));
+			}
+
+			return;
+		}
+
+		var deployments = new HashMap<String, List<Deployment>>();
+
+		for (var supplier: endpoints) {
+			for (int counter = 0; counter < poolSize; counter++) {
+				var endpoint = supplier.get();
+				String segment = endpoint.segment();
+				var resolved = uri.resolve(segment);
+				deployments.computeIfAbsent(segment, __ -> new ArrayList<>()).add(new Deployment(endpoint.asyncDeployAt(resolved), resolved, supplier));
+			}
+		}
+
+		for (var entry: deployments.entrySet())
+			sessions.put(entry.getKey(), mkPool(entry.getValue()));
+	}
+
+	private static void checkPoolSize(int poolSize) {
+		if (poolSize < 1)
+			throw new IllegalArgumentException("poolSize must be positive");
+	}
+
+	/**
+	 * Determines if the sessions added from now on (see {@link #addSession(String, URI, Supplier, int)}
+	 * and {@link #addSessions(URI, int, Supplier...)}) get deployed immediately or on the first request
+	 * sent to their path. Lazy deployment makes the construction of the remote faster and avoids holding
+	 * idle sockets for the paths that are never used. Concurrent first requests to the same path wait
+	 * for the same deployment. If the deployment fails, the requests that waited for it fail and the
+	 * next request to the path tries again. It defaults to immediate deployment.
+	 * 
+	 * @param enabled true if and only if the sessions must be deployed on their first use
+	 * @param warmUp true if and only if lazy sessions must start being deployed in background
+	 *               as soon as they are added, so that their first use does not wait, or waits less,
+	 *               without slowing down the construction of the remote
+	 */
+	protected final void setLazyDeployment(boolean enabled, boolean warmUp) {
+		this.lazyDeployment = enabled;
+		this.warmUp = warmUp;
+	}
+
+	/**
+	 * The description of a pool of sessions deployed lazily.
+	 * 
+	 * @param uri the URI where the sessions of the pool must be deployed
+	 * @param endpoint the supplier of the endpoints of the sessions
+	 * @param poolSize the number of sessions in the pool
+	 */
+	private record LazyPool(URI uri, Supplier<AbstractRemote.Endpoint> endpoint, int poolSize) {}
+
+	private void addLazyPool(String path, LazyPool lazyPool) {
+		lazyPools.put(path, lazyPool);
+
+		if (warmUp)
+			deploy(path).exceptionally(e -> {
+				LOGGER.warning("remote: background deployment at " + lazyPool.uri + " failed: " + e.getMessage());
+				return null;
+			});
+	}
+
+	/**
+	 * Deploys a pool of sessions at the given URI, waiting for its deployment.
+	 * 
+	 * @param uri the URI
+	 * @param endpoint the supplier of the endpoints of the sessions
+	 * @param poolSize the number of sessions in the pool
+	 * @return the pool
+	 * @throws FailedDeploymentException if some session cannot be deployed
+	 * @throws InterruptedException if some connection attempt has been interrupted
+	 */
+	private SessionPool deployPool(URI uri, Supplier<AbstractRemote.Endpoint> endpoint, int poolSize) throws FailedDeploymentException, InterruptedException {
+		var deployments = new ArrayList<Deployment>();
+		for (int counter = 0; counter < poolSize; counter++)
+			deployments.add(new Deployment(endpoint.get().asyncDeployAt(uri), uri, endpoint));
+
+		return mkPool(deployments);
+	}
+
+	/**
+	 * Yields the future of the pool of sessions at the given path. If the pool is lazy and not yet deployed,
+	 * its deployment gets started in background, unless it is already in progress.
+	 * 
+	 * @param path the path
+	 * @return the future of the pool, or {@code null} if there is no session at {@code path}
+	 */
+	private CompletableFuture<SessionPool> deploy(String path) {
+		var pool = sessions.get(path);
+		if (pool != null)
+			return CompletableFuture.completedFuture(pool);
+
+		var lazyPool = lazyPools.get(path);
+		if (lazyPool == null)
+			return null;
+
+		var future = new CompletableFuture<SessionPool>();
+		var pending = pendingDeployments.putIfAbsent(path, future);
+		if (pending != null)
+			return pending;
+
+		// the pool might have been deployed after the check above, before its deployment got removed from the pending ones
+		pool = sessions.get(path);
+		if (pool != null) {
+			pendingDeployments.remove(path, future);
+			future.complete(pool);
+			return future;
+		}
+
+		// the deployment waits for the connection of the sessions, hence it runs in its own thread
+		var deployer = new Thread(() -> {
+			try {
+				if (isClosed.get())
+					throw new FailedDeploymentException("The remote is closed");
+
+				var deployed = deployPool(lazyPool.uri, lazyPool.endpoint, lazyPool.poolSize);
+				sessions.put(path, deployed);
+
+				// the remote might have been closed while deploying the pool, without closing its sessions
+				if (isClosed.get()) {
+					for (var member: deployed.getMembers()) {
+						try {
+							member.session.close();
+						}
+						catch (IOException e) {
+							LOGGER.warning("remote: cannot close session: " + e.getMessage());
+						}
+					}
+
+					throw new FailedDeploymentException("The remote is closed");
+				}
+
+				future.complete(deployed);
+			}
+			catch (FailedDeploymentException | InterruptedException | RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+			finally {
+				pendingDeployments.remove(path, future);
+			}
+		}, "remote-deployer");
+
+		deployer.setDaemon(true);
+		deployer.start();
+
+		return future;
+	}
 
 	/**
-	 * A map from path into the session listening to that path.
+	 * A session being deployed.
+	 * 
+	 * @param future the future of the session
+	 * @param uri the URI where the session is being deployed
+	 * @param endpoint the supplier of the endpoint of the session
 	 */
-	private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+	private record Deployment(Future<Session> future, URI uri, Supplier<AbstractRemote.Endpoint> endpoint) {}
 
 	/**
-	 * The manager of the close handlers.
+	 * Builds a pool from the sessions being deployed. If some session cannot be deployed,
+	 * the others get closed.
+	 * 
+	 * @param deployments the sessions being deployed
+	 * @return the pool
+	 * @throws FailedDeploymentException if some session cannot be deployed
+	 * @throws InterruptedException if the current thread gets interrupted while waiting for the deployment
 	 */
-	private final OnCloseHandlersManager manager = OnCloseHandlersManagers.create();
+	private SessionPool mkPool(List<Deployment> deployments) throws FailedDeploymentException, InterruptedException {
+		var deployed = new ArrayList<Session>();
+
+		try {
+			for (var deployment: deployments)
+				deployed.add(deployment.future.get());
+		}
+		catch (ExecutionException | InterruptedException e) {
+			for (var session: deployed) {
+				try {
+					session.close();
+				}
+				catch (IOException ee) {
+					LOGGER.warning("remote: cannot close session: " + ee.getMessage());
+				}
+			}
+
+			if (e instanceof InterruptedException ie)
+				throw ie;
+
+			var cause = e.getCause();
+			if (cause instanceof FailedDeploymentException fde)
+				throw fde;
+			else
+				throw new FailedDeploymentException(cause);
+		}
+
+		var poolMembers = new SessionPool.Member[deployed.size()];
+		synchronized (members) {
+			for (int pos = 0; pos < poolMembers.length; pos++) {
+				var deployment = deployments.get(pos);
+				var member = poolMembers[pos] = new SessionPool.Member(deployed.get(pos), members.size(), deployment.uri, deployment.endpoint);
+				members.add(member);
+				memberOf.put(member.session, member);
+			}
+		}
+
+		return new SessionPool(poolMembers);
+	}
 
 	/**
-	 * The time (in milliseconds) allowed for the connection to the server;
-	 * beyond that threshold, a timeout exception is thrown.
+	 * Sets the policy used to spread the requests over the sessions of the same pool.
+	 * It defaults to {@link SessionPoolPolicy#ROUND_ROBIN}.
+	 * 
+	 * @param policy the policy
 	 */
-	private final int timeout;
+	protected final void setSessionPoolPolicy(SessionPoolPolicy policy) {
+		this.sessionPoolPolicy = Objects.requireNonNull(policy, "policy cannot be null");
+	}
 
 	/**
-	 * Queues of messages received from the external world.
+	 * Requires the sessions deployed from now on to ping their server periodically. The round-trip
+	 * times of the pongs are measured (see {@link #getRoundTripTime(String)}). If {@code maxMissedPongs}
+	 * consecutive pings remain without pong, the server is considered dead and the session gets closed,
+	 * so that its requests fail immediately, or get replayed after a reconnection
+	 * (see {@link #setReconnection(int, Duration, Duration)}), instead of waiting for their timeout.
+	 * By default, sessions are not pinged.
+	 * 
+	 * @param interval the time between two pings
+	 * @param maxMissedPongs the number of consecutive pings without pong after which the server is considered dead
 	 */
-	private final RPCMessageQueuesContainer queues;
+	protected final void setKeepalive(Duration interval, int maxMissedPongs) {
+		if (interval.toMillis() <= 0)
+			throw new IllegalArgumentException("interval must be positive");
+
+		if (maxMissedPongs < 1)
+			throw new IllegalArgumentException("maxMissedPongs must be positive");
+
+		this.maxMissedPongs = maxMissedPongs;
+		this.keepaliveInterval = interval;
+	}
 
 	/**
-	 * True if and only if this node has been closed already.
+	 * Yields the moving estimate of the round-trip time of the pings to the server at the given path
+	 * (see {@link #setKeepalive(Duration, int)}). If there is a pool of sessions at that path, this is
+	 * the average of the estimates of its sessions.
+	 * 
+	 * @param path the path
+	 * @return the estimate; this is empty if there is no deployed session at {@code path},
+	 *         its sessions are not pinged or no pong has arrived yet
 	 */
-	private final AtomicBoolean isClosed = new AtomicBoolean();
+	protected final Optional<Duration> getRoundTripTime(String path) {
+		var pool = sessions.get(path);
+		if (pool == null)
+			return Optional.empty();
+
+		long total = 0L;
+		int count = 0;
+		for (var member: pool.getMembers()) {
+			var roundTripTime = Endpoint.roundTripTimeOf(member.session);
+			if (roundTripTime.isPresent()) {
+				total += roundTripTime.get().toNanos();
+				count++;
+			}
+		}
+
+		return count == 0 ? Optional.empty() : Optional.of(Duration.ofNanos(total / count));
+	}
 
 	/**
-	 * Used to wait until the remote gets closed.
+	 * Yields the number of sessions closed since their server did not answer to pings
+	 * (see {@link #setKeepalive(Duration, int)}).
+	 * 
+	 * @return the number of sessions
 	 */
-	private final CountDownLatch latch = new CountDownLatch(1);
+	protected final long getDeadSessions() {
+		return deadSessions.longValue();
+	}
 
 	/**
-	 * A description of the reason why the service has been disconnected.
+	 * Yields the session at the given path. If there is a pool of sessions at that path,
+	 * one of them is chosen, according to the policy of this remote
+	 * (see {@link #setSessionPoolPolicy(SessionPoolPolicy)}).
+	 * 
+	 * If the sessions at that path are deployed lazily (see {@link #setLazyDeployment(boolean, boolean)})
+	 * and are not deployed yet, this method waits for their deployment.
+	 * 
+	 * @param path the path
+	 * @return the session, or {@code null} if there is no session at {@code path}
+	 * @throws IllegalStateException if the sessions at {@code path} are deployed lazily and their
+	 *                               deployment fails or the current thread is interrupted while waiting for it
 	 */
-	private volatile String closeReason;
+	protected final Session getSession(String path) {
+		var pool = sessions.get(path);
+		if (pool == null) {
+			var deployment = deploy(path);
+			if (deployment == null)
+				return null;
 
-	private final static Logger LOGGER = Logger.getLogger(AbstractRemoteImpl.class.getName());
+			try {
+				pool = deployment.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while deploying the sessions at " + path, e);
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("Cannot deploy the sessions at " + path, e.getCause());
+			}
+		}
+
+		return pool.next(sessionPoolPolicy);
+	}
 
 	/**
-	 * Creates and opens a new remote application for the API of another application
-	 * whose web service is already published.
+	 * Records that the given request is being sent through the given session,
+	 * so that it can be aborted, or replayed, if the session gets closed, and
+	 * so that its round-trip latency can be measured.
 	 * 
-	 * @param timeout the time (in milliseconds) allowed for a call to the network service;
-	 *                beyond that threshold, a timeout exception is thrown
+	 * @param session the session
+	 * @param message the request
+	 * @param replayable true if the request can be replayed, if its type is idempotent
+	 * @return the statistics of the type of the request
 	 */
-	protected AbstractRemoteImpl(int timeout) {
-		this.timeout = timeout;
-		this.queues = new RPCMessageQueuesContainer(timeout);
-	}
+	private RpcMetrics onSend(Session session, RpcMessage message, boolean replayable) {
+		var metrics = statistics.of(message.getClass());
+		metrics.requests.increment();
 
-	@Override
-	public final void close() {
-		close(new CloseReason(CloseCodes.NORMAL_CLOSURE, "Closed normally."));
-	}
+		var member = memberOf.get(session);
+		if (member == null)
+			queues.sent(message.getId(), -1, metrics);
+		else {
+			member.outstanding.incrementAndGet();
+			// the tag is used to decrement the counter when the request is removed
+			// and to abort the request if its session gets closed
+			if (!queues.sent(message.getId(), member.tag, metrics))
+				member.outstanding.decrementAndGet();
+			else if (replayable && reconnectionAttempts > 0 && idempotentTypes.contains(message.getClass()))
+				remember(member, message);
+		}
 
-	@Override
-	public final void addOnCloseHandler(OnCloseHandler what) {
-		manager.addOnCloseHandler(what);
+		return metrics;
 	}
 
-	@Override
-	public final void removeOnCloseHandler(OnCloseHandler what) {
-		manager.removeOnCloseHandler(what);
-	}
+	/**
+	 * Remembers the given request, so that it can be replayed if the session of the given member
+	 * gets reconnected while the request is still waiting for its reply.
+	 * 
+	 * @param member the member
+	 * @param message the request
+	 */
+	private void remember(SessionPool.Member member, RpcMessage message) {
+		var replayable = member.replayable;
+		replayable.put(message.getId(), message);
 
-	@Override
-	public final String waitUntilClosed() throws InterruptedException {
-		latch.await();
-		return closeReason;
+		// the requests that are not waiting for their reply anymore are removed from time to time
+		if (replayable.size() > MAX_REPLAYABLE && pruning.compareAndSet(false, true)) {
+			try {
+				replayable.keySet().removeIf(id -> !queues.isPending(id));
+			}
+			finally {
+				pruning.set(false);
+			}
+		}
 	}
 
 	/**
-	 * Closes this remote. Subclasses should close their own resources
-	 * and then call this method at the end. This method is never called twice,
-	 * but only the first time the remote gets closed.
+	 * Sets the policy used to reconnect the sessions of this remote that get closed by the server or by a network
+	 * failure. Without this policy, the remote gets closed as soon as one of its sessions gets closed. With this policy,
+	 * the remote tries to reconnect the closed session, with exponential backoff and random jitter, so that many remotes
+	 * do not reconnect all at the same time. Requests of idempotent type (see {@link #setIdempotent(Class)}),
+	 * that were sent through the session and are still waiting for their reply, are sent again after reconnection.
+	 * Other requests sent through the session are aborted at once with a {@link DisconnectedException},
+	 * since their reply is lost. The remote gets closed,
+	 * and its on-close handlers called, only if all reconnection attempts fail.
+	 * This should be called in the constructor of the subclasses.
 	 * 
-	 * @param reason the reason why the remote is getting closed
+	 * @param attempts the maximal number of reconnection attempts; 0 disables reconnection
+	 * @param initialBackoff the maximal delay before the first attempt; it doubles at each subsequent attempt
+	 * @param maxBackoff the maximal delay between two attempts
 	 */
-	protected void closeResources(CloseReason reason) {
-		closeReason = reason.getReasonPhrase();
+	protected final void setReconnection(int attempts, Duration initialBackoff, Duration maxBackoff) {
+		if (attempts < 0)
+			throw new IllegalArgumentException("attempts cannot be negative");
 
-		try {
-			closeSessionsAndCallOnCloseHandlers();
-		}
-		finally {
-			latch.countDown();
-		}
+		if (initialBackoff.isNegative() || initialBackoff.isZero())
+			throw new IllegalArgumentException("initialBackoff must be positive");
+
+		if (maxBackoff.compareTo(initialBackoff) < 0)
+			throw new IllegalArgumentException("maxBackoff cannot be smaller than initialBackoff");
+
+		this.initialBackoff = initialBackoff.toMillis();
+		this.maxBackoff = maxBackoff.toMillis();
+		this.reconnectionAttempts = attempts;
 	}
 
 	/**
-	 * Hook called when an exception is received as result for an RPC.
+	 * Declares that the requests of the given type are idempotent, hence they can be sent again
+	 * after the reconnection of their session (see {@link #setReconnection(int, Duration, Duration)}).
+	 * This should be called in the constructor of the subclasses.
 	 * 
-	 * @param message the RPC message containing the exception
+	 * @param messageType the type of the requests; requests of its subclasses are not considered idempotent
 	 */
-	protected void onException(ExceptionMessage message) {}
+	protected final void setIdempotent(Class<? extends RpcMessage> messageType) {
+		idempotentTypes.add(Objects.requireNonNull(messageType, "messageType cannot be null"));
+	}
 
 	/**
-	 * Adds a session at the given path starting at the given URI, connected to the
-	 * endpoint resulting from the given supplier.
+	 * Yields the number of requests that have been sent again after the reconnection of their session.
 	 * 
-	 * @param path the path
-	 * @param uri the URI
-	 * @param endpoint the supplier of the endpoint
-	 * @throws FailedDeploymentException if the session cannot be deployed
-	 * @throws InterruptedException if the connection attempt has been interrupted
+	 * @return the number of replayed requests
 	 */
-	protected final void addSession(String path, URI uri, Supplier<AbstractRemote.Endpoint> endpoint) throws FailedDeploymentException, InterruptedException {
-		sessions.put(path, endpoint.get().deployAt(uri.resolve(path)));
+	protected final long getReplayedRequests() {
+		return replayed.sum();
 	}
 
 	/**
-	 * Adds sessions for the endpoints supplied by the given suppliers.
-	 * This is much faster than adding each single session individually, since it works in parallel.
+	 * Reconnects the session of the given member, that has been closed. If all attempts fail,
+	 * this remote gets closed.
 	 * 
-	 * @param uri the base URI where the endpoints will get published
-	 * @param endpoints the suppliers of the endpoints
-	 * @throws FailedDeploymentException if some session cannot be deployed
-	 * @throws InterruptedException if some connection attempt has been interrupted
+	 * @param member the member
+	 * @param reason the reason why the session has been closed
 	 */
-	@SafeVarargs
-	protected final void addSessions(URI uri, Supplier<AbstractRemote.Endpoint>... endpoints) throws FailedDeploymentException, InterruptedException {
-		var futures = new HashMap<String, Future<Session>>();
-
-		for (var supplier: endpoints) {
-			var endpoint = supplier.get();
-			String segment = endpoint.segment();
-			futures.put(segment, endpoint.asyncDeployAt(uri.resolve(segment)));
-		}
+	private void reconnect(SessionPool.Member member, CloseReason reason) {
+		LOGGER.warning("remote: session at " + member.uri + " closed (" + reason.getReasonPhrase() + "): trying to reconnect");
+		var random = ThreadLocalRandom.current();
+		long backoff = initialBackoff;
 
-		for (var entry: futures.entrySet()) {
+		for (int attempt = 1; attempt <= reconnectionAttempts && !isClosed.get(); attempt++) {
 			try {
-				sessions.put(entry.getKey(), entry.getValue().get());
+				// jitter: the delay is uniformly distributed between half the backoff and the full backoff
+				Thread.sleep(backoff / 2 + random.nextLong(backoff / 2 + 1));
+				if (isClosed.get())
+					return;
+
+				var old = member.session;
+				var session = member.endpoint.get().deployAt(member.uri);
+				member.session = session;
+				memberOf.put(session, member);
+				memberOf.remove(old);
+				batchers.remove(old);
+
+				// if this remote has been closed meanwhile, the new session might have escaped its closure
+				if (isClosed.get()) {
+					closeReconnected(session);
+					return;
+				}
+
+				member.reconnecting.set(false);
+				LOGGER.info("remote: reconnected to " + member.uri + " after " + attempt + " attempts");
+				replay(member, session);
+				return;
 			}
-			catch (ExecutionException e) {
-				var cause = e.getCause();
-				if (cause instanceof FailedDeploymentException fde)
-					throw fde;
-				else
-					throw new FailedDeploymentException(cause);
+			catch (FailedDeploymentException | RuntimeException e) {
+				LOGGER.warning("remote: reconnection attempt " + attempt + " to " + member.uri + " failed: " + e.getMessage());
+				backoff = Math.min(maxBackoff, backoff * 2);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
 			}
 		}
+
+		close(reason);
 	}
 
 	/**
-	 * Yields the session at the given path.
+	 * Closes a session reconnected while this remote was being closed.
 	 * 
-	 * @param path the path
-	 * @return the session
+	 * @param session the session
 	 */
-	protected final Session getSession(String path) {
-		return sessions.get(path);
+	private void closeReconnected(Session session) {
+		try {
+			session.close();
+		}
+		catch (IOException e) {
+			LOGGER.warning("remote: cannot close a reconnected session: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Sends again the idempotent requests sent through the session of the given member,
+	 * that are still waiting for their reply.
+	 * 
+	 * @param member the member
+	 * @param session the new session of the member
+	 */
+	private void replay(SessionPool.Member member, Session session) {
+		for (var entry: member.replayable.entrySet()) {
+			if (queues.isPending(entry.getKey())) {
+				try {
+					session.getAsyncRemote().sendObject(timed(entry.getValue()));
+					replayed.increment();
+				}
+				catch (RuntimeException e) {
+					LOGGER.warning("remote: cannot replay a request: " + e.getMessage());
+				}
+			}
+			else
+				member.replayable.remove(entry.getKey());
+		}
 	}
 
 	/**
@@ -221,7 +1540,9 @@ public abstract class AbstractRemoteImpl extends AbstractWebSocketClient impleme
 	}
 
 	/**
-	 * Notifies the given message to the waiting queue for its identifier.
+	 * Notifies the given message to the waiting queue for its identifier. If the message is a notification,
+	 * whose identifier has not been yielded by {@link #nextId()}, it is delivered instead to the listeners
+	 * subscribed to its type (see {@link #subscribe(Class, Consumer, int, NotificationOverflowPolicy)}).
 	 * 
 	 * @param message the message to notify
 	 */
@@ -232,19 +1553,294 @@ public abstract class AbstractRemoteImpl extends AbstractWebSocketClient impleme
 			LOGGER.log(Level.SEVERE, "unexpected null message");
 			return;
 		}
+		else if (dispatchNotification(message))
+			return;
 
 		queues.notifyResult(message);
 	}
 
 	/**
-	 * Yields the identifier for the next message.
+	 * Yields the identifier for the next message. The message is considered in flight from now on,
+	 * until its reply arrives or it times out. If the number of messages in flight is limited
+	 * (see {@link #setMaxInFlight(int, InFlightPolicy)}), this method might block or abort
+	 * the oldest message in flight, whose waiter will receive a {@link RejectedExecutionException}.
 	 * 
 	 * @return the identifier
+	 * @throws RejectedExecutionException if no more messages can be put in flight
 	 */
 	protected final String nextId() {
 		return queues.nextId();
 	}
 
+	/**
+	 * Sends the given message to the session at the given path and yields a future for its reply,
+	 * without blocking the current thread. The identifier of the message must have been
+	 * yielded by {@link #nextId()}. The future is completed directly by {@link #notifyResult(RpcMessage)},
+	 * with the value of the reply or with the exception in the reply, if it is an instance of one
+	 * of the given {@code exceptionClasses}; other exceptions are ignored, as in
+	 * {@link #waitForResult(String, Class, Class)}. The future is completed with an {@link IOException}
+	 * if the message cannot be sent, with a {@link TimeoutException} if no reply arrives before timeout and
+	 * with a {@link RejectedExecutionException} if the message is aborted to make room for newer messages.
+	 * If a coalescing key has been set for the type of {@code message} (see {@link #setCoalescingKey(Class, Function)})
+	 * and another message of the same type and with the same key is still waiting for its reply,
+	 * then {@code message} is not sent and the future is completed with the reply of the other message.
+	 * If caching is enabled for the type of {@code message} (see {@link #setCaching(Class, Function, Duration)})
+	 * and a reply to an identical message is cached, then {@code message} is not sent and the future
+	 * is completed with that reply.
+	 * 
+	 * @param <T> the type of the replied value
+	 * @param path the path of the session to use for sending the message
+	 * @param message the message to send
+	 * @param messageClass the class of the expected reply message
+	 * @param exceptionClasses the classes of the exceptions that could be received
+	 * @return the future of the replied value
+	 */
+	@SafeVarargs
+	protected final <T> CompletableFuture<T> sendAndReceive(String path, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, Class<? extends Exception>... exceptionClasses) {
+		// the classes of the exceptions are used after this call returns, hence they are copied,
+		// element by element since the varargs array must not escape this method
+		var exceptions = new ArrayList<Class<? extends Exception>>(exceptionClasses.length);
+		for (var exceptionClass: exceptionClasses)
+			exceptions.add(exceptionClass);
+
+		var pool = sessions.get(path);
+		if (pool != null)
+			return sendAndReceiveAt(pool.next(sessionPoolPolicy), message, messageClass, exceptions);
+
+		// the sessions at path are deployed lazily: the message is sent once they are deployed
+		var deployment = deploy(path);
+		if (deployment == null)
+			throw new IllegalArgumentException("Unknown path " + path);
+
+		return deployment.whenComplete((deployed, e) -> {
+			// the identifier of the message is not going to be used if the sessions cannot be deployed
+			if (e != null)
+				queues.discard(message.getId());
+		})
+		.thenCompose(deployed -> sendAndReceiveAt(deployed.next(sessionPoolPolicy), message, messageClass, exceptions));
+	}
+
+	private <T> CompletableFuture<T> sendAndReceiveAt(Session session, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses) {
+		if (!cachings.isEmpty()) {
+			var caching = cachings.get(message.getClass());
+			if (caching != null)
+				return sendAndReceiveCached(caching, session, message, messageClass, exceptionClasses);
+		}
+
+		return sendAndReceive(session, message, messageClass, exceptionClasses);
+	}
+
+	/**
+	 * Yields a publisher of the stream of replies to the given message, for requests whose replies
+	 * might not fit in a single message. The server must reply with a stream of messages
+	 * (see {@code AbstractRPCWebSocketServer.openStream()}). The message is sent when the publisher
+	 * gets subscribed and only a single subscriber is allowed. The demand of the subscriber is
+	 * forwarded to the server, that never sends more replies than requested, so that the memory used
+	 * for the stream remains bounded. The values of the replies are passed to the subscriber in the thread
+	 * that receives them from the network, hence the subscriber should be fast or hand them off to
+	 * another thread. The stream terminates normally at its end and exceptionally if the server replies
+	 * with an exception, instance of one of the given {@code exceptionClasses}, if the message cannot be sent
+	 * ({@link IOException}) or if no reply arrives and no further reply is requested for longer than the
+	 * timeout ({@link TimeoutException}). If the subscriber cancels its subscription, the server is informed
+	 * that it can stop sending replies. The identifier of the message must have been yielded by {@link #nextId()}.
+	 * 
+	 * @param <T> the type of the values of the replies
+	 * @param path the path of the session to use for sending the message
+	 * @param message the message to send
+	 * @param messageClass the class of the expected reply messages
+	 * @param exceptionClasses the classes of the exceptions that could be received
+	 * @return the publisher of the values of the replies
+	 */
+	@SafeVarargs
+	protected final <T> Flow.Publisher<T> stream(String path, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, Class<? extends Exception>... exceptionClasses) {
+		// the publisher outlives this call, hence it keeps its own copy of the classes of the exceptions,
+		// made element by element since the varargs array must not escape this method
+		var exceptions = new ArrayList<Class<? extends Exception>>(exceptionClasses.length);
+		for (var exceptionClass: exceptionClasses)
+			exceptions.add(exceptionClass);
+
+		var pool = sessions.get(path);
+		var session = pool == null ? null : pool.next(sessionPoolPolicy);
+		// if the sessions at path are deployed lazily, the message is sent once they are deployed
+		var deployment = pool == null ? deploy(path) : null;
+		if (pool == null && deployment == null)
+			throw new IllegalArgumentException("Unknown path " + path);
+
+		var subscribed = new AtomicBoolean();
+
+		return subscriber -> {
+			Objects.requireNonNull(subscriber, "subscriber cannot be null");
+
+			if (subscribed.getAndSet(true)) {
+				subscriber.onSubscribe(NO_SUBSCRIPTION);
+				subscriber.onError(new IllegalStateException("This publisher allows a single subscriber"));
+			}
+			else if (session != null)
+				startStream(session, message, messageClass, exceptions, subscriber);
+			else
+				deployment.whenComplete((deployed, e) -> {
+					if (e != null) {
+						subscriber.onSubscribe(NO_SUBSCRIPTION);
+						subscriber.onError(e instanceof CompletionException ce && ce.getCause() != null ? ce.getCause() : e);
+					}
+					else
+						startStream(deployed.next(sessionPoolPolicy), message, messageClass, exceptions, subscriber);
+				});
+		};
+	}
+
+	private <T> void startStream(Session session, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses, Flow.Subscriber<? super T> subscriber) {
+		String id = message.getId();
+		var call = new StreamCall<>(messageClass, exceptionClasses, subscriber,
+			credit -> sendControlMessage(session, StreamDemandMessages.of(credit, id)),
+			() -> {
+				queues.discard(id);
+				sendControlMessage(session, CancelMessages.of(id));
+			});
+
+		try {
+			queues.registerStream(id, call);
+		}
+		catch (IllegalArgumentException e) {
+			subscriber.onSubscribe(NO_SUBSCRIPTION);
+			subscriber.onError(e);
+			return;
+		}
+
+		subscriber.onSubscribe(call);
+
+		// the subscriber might have cancelled its subscription already
+		if (!queues.isPending(id))
+			return;
+
+		// replaying a stream after a reconnection would duplicate its replies
+		var metrics = onSend(session, message, false);
+
+		try {
+			long start = System.nanoTime();
+			session.getAsyncRemote().sendObject(message, result -> {
+				if (result.isOK())
+					metrics.sendLatency.record(System.nanoTime() - start);
+				else
+					queues.fail(id, new IOException(result.getException()));
+			});
+		}
+		catch (RuntimeException e) {
+			queues.fail(id, new IOException(e.getMessage()));
+		}
+	}
+
+	/**
+	 * Sends a control message, that concerns the replies to a request, without waiting for its delivery.
+	 * 
+	 * @param session the session to use for sending the message
+	 * @param message the message
+	 */
+	private void sendControlMessage(Session session, RpcMessage message) {
+		try {
+			session.getAsyncRemote().sendObject(message, result -> {
+				if (!result.isOK())
+					LOGGER.warning("remote: cannot send a control message: " + result.getException().getMessage());
+			});
+		}
+		catch (RuntimeException e) {
+			LOGGER.warning("remote: cannot send a control message: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Yields the cached reply to the given message, if any; otherwise it sends the message
+	 * and caches its reply, if it is not {@code null}.
+	 * 
+	 * @param <T> the type of the replied value
+	 * @param caching the caching policy for the type of {@code message}
+	 * @param session the session to use for sending the message
+	 * @param message the message to send
+	 * @param messageClass the class of the expected reply message
+	 * @param exceptionClasses the classes of the exceptions that could be received
+	 * @return the future of the replied value
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> CompletableFuture<T> sendAndReceiveCached(Caching caching, Session session, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses) {
+		var responseCache = this.responseCache;
+		var key = new MessageKey(message.getClass(), caching.key.apply(message));
+		var cached = responseCache.get(key);
+		if (cached != null) {
+			// the identifier of the message is not going to be used
+			queues.discard(message.getId());
+			return CompletableFuture.completedFuture((T) cached);
+		}
+
+		var future = sendAndReceive(session, message, messageClass, exceptionClasses);
+		future.thenAccept(result -> {
+			if (result != null)
+				responseCache.put(key, result, caching.ttl);
+		});
+
+		return future;
+	}
+
+	private <T> CompletableFuture<T> sendAndReceive(Session session, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses) {
+		if (!coalescingKeys.isEmpty()) {
+			var coalescingKey = coalescingKeys.get(message.getClass());
+			if (coalescingKey != null)
+				return coalesce(new MessageKey(message.getClass(), coalescingKey.apply(message)), session, message, messageClass, exceptionClasses);
+		}
+
+		return send(session, message, messageClass, exceptionClasses);
+	}
+
+	/**
+	 * Sends the given message and yields the future of its reply, unless an identical message
+	 * is already waiting for its reply, in which case that reply is shared.
+	 * 
+	 * @param <T> the type of the replied value
+	 * @param key the key that identifies identical messages
+	 * @param session the session to use for sending the message
+	 * @param message the message to send
+	 * @param messageClass the class of the expected reply message
+	 * @param exceptionClasses the classes of the exceptions that could be received
+	 * @return the future of the replied value
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> CompletableFuture<T> coalesce(MessageKey key, Session session, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses) {
+		var shared = new CompletableFuture<T>();
+		var existing = inFlight.putIfAbsent(key, shared);
+		if (existing != null) {
+			// the identifier of the message is not going to be used
+			queues.discard(message.getId());
+			coalesced.increment();
+			// each caller gets its own copy, so that cancelling it does not affect the others
+			return ((CompletableFuture<T>) existing).copy();
+		}
+
+		send(session, message, messageClass, exceptionClasses).whenComplete((result, exception) -> {
+			// the key is removed first, so that later messages do not get attached to a completed future
+			inFlight.remove(key, shared);
+
+			if (exception != null)
+				shared.completeExceptionally(exception);
+			else
+				shared.complete(result);
+		});
+
+		return shared.copy();
+	}
+
+	private <T> CompletableFuture<T> send(Session session, RpcMessage message, Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses) {
+		String id = message.getId();
+		var future = queues.registerFuture(id, messageClass, exceptionClasses);
+
+		try {
+			sendRequestAsync(session, message, IOException::new);
+		}
+		catch (IOException e) {
+			// the request has been failed already, hence its future is completed
+		}
+
+		return future;
+	}
+
 	/**
 	 * Waits until a reply arrives for the message with the given identifier.
 	 * 
@@ -496,6 +2092,19 @@ public abstract class AbstractRemoteImpl extends AbstractWebSocketClient impleme
 		@Override
 		public void onOpen(Session session, EndpointConfig config) {
 			addMessageHandler(session, AbstractRemoteImpl.this::notifyResult);
+
+			var keepaliveInterval = AbstractRemoteImpl.this.keepaliveInterval;
+			if (keepaliveInterval != null)
+				startKeepalive(session, keepaliveInterval, maxMissedPongs, deadSessions::increment);
+		}
+
+		@Override
+		protected boolean acceptsBatches() {
+			return maxBatchSize > 0;
+		}
+
+		private static Optional<Duration> roundTripTimeOf(Session session) {
+			return getRoundTripTime(session);
 		}
 
 		@Override
@@ -504,12 +2113,21 @@ public abstract class AbstractRemoteImpl extends AbstractWebSocketClient impleme
 				super.onClose(session, reason);
 			}
 			finally {
-				try {
-					// we close the remote since it is bound to a service that seems to be getting closed
-					close(reason);
+				var member = memberOf.get(session);
+				if (reconnectionAttempts > 0 && !isClosed.get() && member != null && member.session == session && member.reconnecting.compareAndSet(false, true)) {
+					queues.abort(member.tag, "The session has been closed: " + reason.getReasonPhrase(), member.replayable::containsKey);
+					var reconnector = new Thread(() -> reconnect(member, reason), "remote-reconnector");
+					reconnector.setDaemon(true);
+					reconnector.start();
 				}
-				catch (Exception e) {
-					LOGGER.warning("remote: cannot close " + getClass().getName() + ": " + e.getMessage());
+				else {
+					try {
+						// we close the remote since it is bound to a service that seems to be getting closed
+						close(reason);
+					}
+					catch (Exception e) {
+						LOGGER.warning("remote: cannot close " + getClass().getName() + ": " + e.getMessage());
+					}
 				}
 			}
 		}
@@ -553,9 +2171,9 @@ public abstract class AbstractRemoteImpl extends AbstractWebSocketClient impleme
 
 	private void closeSessionsAndCallOnCloseHandlers() {
 		try {
-			for (var session: sessions.values()) {
+			for (var member: members) {
 				try {
-					session.close();
+					member.session.close();
 				}
 				catch (IOException e) {
 					LOGGER.warning("remote: cannot close session: " + e.getMessage());
@@ -0,0 +1,70 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hotmoka.annotations.Immutable;
+
+/**
+ * A policy that derives the timeout of the requests of each type from the round-trip
+ * latencies observed for that type: the timeout is a multiple of a high percentile
+ * of the latencies, clamped between a floor and a ceiling.
+ * 
+ * @param percentile the percentile of the round-trip latencies, between 0 (excluded) and 100 (included)
+ * @param multiplier the multiplier applied to the percentile, at least 1
+ * @param floor the minimal timeout, in nanoseconds
+ * @param ceiling the maximal timeout, in nanoseconds
+ */
+@Immutable
+record AdaptiveTimeouts(double percentile, double multiplier, long floor, long ceiling) {
+
+	/**
+	 * The number of replies that must have been observed for a type of requests,
+	 * before its timeout gets derived from their latencies.
+	 */
+	final static long MIN_SAMPLES = 50L;
+
+	/**
+	 * The time between two updates of the timeout of a type of requests, in nanoseconds.
+	 */
+	final static long REFRESH = TimeUnit.SECONDS.toNanos(1);
+
+	AdaptiveTimeouts {
+		if (!(percentile > 0.0 && percentile <= 100.0))
+			throw new IllegalArgumentException("percentile must be in (0, 100]");
+
+		if (!(multiplier >= 1.0))
+			throw new IllegalArgumentException("multiplier must be at least 1");
+
+		if (floor <= 0L)
+			throw new IllegalArgumentException("floor must be positive");
+
+		if (ceiling < floor)
+			throw new IllegalArgumentException("ceiling cannot be smaller than floor");
+	}
+
+	/**
+	 * Clamps the given timeout between the floor and the ceiling of this policy.
+	 * 
+	 * @param timeout the timeout, in nanoseconds
+	 * @return the clamped timeout, in nanoseconds
+	 */
+	long clamp(long timeout) {
+		return Math.max(floor, Math.min(ceiling, timeout));
+	}
+}
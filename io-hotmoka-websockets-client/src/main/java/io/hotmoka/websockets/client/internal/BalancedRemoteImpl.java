@@ -0,0 +1,449 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.api.FailedDeploymentException;
+import io.hotmoka.websockets.client.api.BalancedRemote;
+import io.hotmoka.websockets.client.api.BalancingPolicy;
+import io.hotmoka.websockets.client.api.DisconnectedException;
+import io.hotmoka.websockets.client.api.Remote;
+import io.hotmoka.websockets.client.api.RemoteSupplier;
+
+/**
+ * Implementation of a client that balances the requests over a set of backends.
+ * A backend is ejected after a given number of consecutive failures due to the network
+ * (timeouts, disconnections and I/O errors; exceptions thrown by the service do not count)
+ * or as soon as its remote gets closed. A periodic task probes the ejected backends:
+ * it recreates their remote if it has been closed and, if a probe request is provided,
+ * it readmits them only if the probe request succeeds.
+ *
+ * @param <R> the type of the remotes
+ */
+@ThreadSafe
+public class BalancedRemoteImpl<R extends Remote> implements BalancedRemote<R> {
+
+	/**
+	 * The time after which the moving average of the latency of a backend that receives
+	 * no replies is halved, in nanoseconds.
+	 */
+	private final static double LATENCY_HALF_LIFE = TimeUnit.SECONDS.toNanos(10);
+
+	private final RemoteSupplier<? extends R> supplier;
+
+	/**
+	 * The threshold, in milliseconds, after which the requests of the remotes time out.
+	 */
+	private final int timeout;
+
+	private final BalancingPolicy policy;
+
+	/**
+	 * The number of consecutive failures after which a backend is ejected.
+	 */
+	private final int maxFailures;
+
+	/**
+	 * The request used to check if an ejected backend is healthy again, if any.
+	 */
+	private final Optional<Function<? super R, ? extends CompletionStage<?>>> probe;
+
+	private final List<Backend> backends;
+
+	/**
+	 * A counter used to rotate the start of the scan of the backends, so that ties get spread.
+	 */
+	private final AtomicInteger cursor = new AtomicInteger();
+
+	/**
+	 * The scheduler of the probes of the ejected backends.
+	 */
+	private final ScheduledExecutorService prober;
+
+	private final LongAdder ejections = new LongAdder();
+
+	private final AtomicBoolean isClosed = new AtomicBoolean();
+
+	private final static Logger LOGGER = Logger.getLogger(BalancedRemoteImpl.class.getName());
+
+	/**
+	 * Creates the client, with a backend for each of the given URIs. Backends that cannot be
+	 * connected at creation time start ejected, so that they get probed later.
+	 * 
+	 * @param supplier the supplier of the remotes
+	 * @param uris the URIs where the replicas of the service are published; there must be at least one
+	 * @param timeout the threshold, in milliseconds, after which the requests of the remotes time out
+	 * @param policy the policy used to choose the backend of each request
+	 * @param maxFailures the number of consecutive failures after which a backend is ejected
+	 * @param probeInterval the time between two probes of the ejected backends
+	 * @param probe the request used to check if an ejected backend is healthy again, if any;
+	 *              otherwise, ejected backends are readmitted at the next probe, if their remote is open
+	 * @throws FailedDeploymentException if no remote could be created
+	 * @throws TimeoutException if the creation of every remote timed out
+	 * @throws InterruptedException if the current thread has been interrupted
+	 */
+	public BalancedRemoteImpl(RemoteSupplier<? extends R> supplier, List<URI> uris, int timeout, BalancingPolicy policy, int maxFailures,
+			Duration probeInterval, Optional<Function<? super R, ? extends CompletionStage<?>>> probe) throws FailedDeploymentException, TimeoutException, InterruptedException {
+
+		if (uris.isEmpty())
+			throw new IllegalArgumentException("At least one URI is required");
+
+		if (maxFailures < 1)
+			throw new IllegalArgumentException("maxFailures must be positive");
+
+		long probeMillis = probeInterval.toMillis();
+		if (probeMillis <= 0L)
+			throw new IllegalArgumentException("probeInterval must be positive");
+
+		this.supplier = supplier;
+		this.timeout = timeout;
+		this.policy = policy;
+		this.maxFailures = maxFailures;
+		this.probe = probe;
+
+		var backends = new ArrayList<Backend>();
+		Exception failure = null;
+
+		for (var uri: uris) {
+			var backend = new Backend(uri);
+			backends.add(backend);
+
+			try {
+				backend.connect();
+			}
+			catch (FailedDeploymentException | TimeoutException e) {
+				LOGGER.warning("balanced remote: cannot connect to " + uri + ": " + e.getMessage());
+				failure = e;
+			}
+			catch (InterruptedException | RuntimeException e) {
+				backends.forEach(Backend::close);
+				throw e;
+			}
+		}
+
+		this.backends = List.copyOf(backends);
+
+		if (backends.stream().allMatch(backend -> backend.ejected)) {
+			if (failure instanceof TimeoutException te)
+				throw te;
+			else
+				throw (FailedDeploymentException) failure;
+		}
+
+		this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			var thread = new Thread(runnable, "remote-prober");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		prober.scheduleWithFixedDelay(this::probe, probeMillis, probeMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> call(Function<? super R, ? extends CompletionStage<T>> request) {
+		if (isClosed.get())
+			return CompletableFuture.failedFuture(new IllegalStateException("The balanced remote is closed"));
+
+		var backend = choose();
+		if (backend == null)
+			return CompletableFuture.failedFuture(new DisconnectedException("No backend is currently healthy"));
+
+		return backend.call(request);
+	}
+
+	@Override
+	public List<R> getRemotes() {
+		var result = new ArrayList<R>();
+
+		for (var backend: backends) {
+			var remote = backend.remote;
+			if (remote != null && !backend.ejected)
+				result.add(remote);
+		}
+
+		return result;
+	}
+
+	@Override
+	public long getEjections() {
+		return ejections.sum();
+	}
+
+	@Override
+	public void close() {
+		if (!isClosed.getAndSet(true)) {
+			prober.shutdownNow();
+			backends.forEach(Backend::close);
+		}
+	}
+
+	/**
+	 * Chooses the backend for the next request, according to the policy of this client.
+	 * 
+	 * @return the backend, or {@code null} if no backend is healthy
+	 */
+	private Backend choose() {
+		int size = backends.size();
+		// the cursor might overflow and become negative, hence its sign bit is removed
+		int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % size;
+		Backend best = null;
+		double min = Double.MAX_VALUE;
+
+		for (int offset = 0; offset < size; offset++) {
+			var backend = backends.get((start + offset) % size);
+			if (!backend.ejected && backend.remote != null) {
+				double cost = backend.cost();
+				if (cost < min) {
+					best = backend;
+					min = cost;
+				}
+			}
+		}
+
+		return best;
+	}
+
+	private void probe() {
+		for (var backend: backends) {
+			if (isClosed.get())
+				return;
+
+			if (backend.ejected) {
+				try {
+					backend.probe();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				catch (RuntimeException e) {
+					LOGGER.warning("balanced remote: the probe of " + backend.uri + " failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines if the given failure of a request is due to the network rather than to the service.
+	 * 
+	 * @param failure the failure
+	 * @return true if and only if that condition holds
+	 */
+	private static boolean isNetworkFailure(Throwable failure) {
+		if (failure instanceof CompletionException && failure.getCause() != null)
+			failure = failure.getCause();
+
+		return failure instanceof TimeoutException || failure instanceof DisconnectedException || failure instanceof IOException;
+	}
+
+	/**
+	 * A backend, with its remote and its health.
+	 */
+	private final class Backend {
+		private final URI uri;
+
+		/**
+		 * The remote of this backend; {@code null} if it is not connected.
+		 */
+		private volatile R remote;
+
+		/**
+		 * True if this backend does not receive requests, until it is probed successfully.
+		 */
+		private volatile boolean ejected = true;
+
+		/**
+		 * The number of requests of this backend still waiting for their reply.
+		 */
+		private final AtomicInteger outstanding = new AtomicInteger();
+
+		/**
+		 * The number of consecutive requests of this backend that failed because of the network.
+		 */
+		private final AtomicInteger failures = new AtomicInteger();
+
+		/**
+		 * The moving average of the latency of the replies, in nanoseconds; 0 if no reply arrived yet
+		 * since the last time this backend was admitted.
+		 */
+		private volatile long latency;
+
+		/**
+		 * The time of the last update of {@link #latency}, as given by {@link System#nanoTime()}.
+		 */
+		private volatile long lastReply;
+
+		private Backend(URI uri) {
+			this.uri = uri;
+		}
+
+		private double cost() {
+			int outstanding = this.outstanding.get();
+			if (policy == BalancingPolicy.LEAST_OUTSTANDING)
+				return outstanding;
+
+			// backends without replies yet are preferred, so that their latency gets measured
+			return latency(System.nanoTime()) * (outstanding + 1);
+		}
+
+		/**
+		 * Yields the moving average of the latency of the replies at the given time. It fades with
+		 * the time since the last reply, since it is only updated by the replies, that a slow backend
+		 * would otherwise never receive again, even after it has become fast.
+		 *
+		 * @param now the time, as given by {@link System#nanoTime()}
+		 * @return the average, in nanoseconds
+		 */
+		private double latency(long now) {
+			return latency * Math.pow(0.5, (now - lastReply) / LATENCY_HALF_LIFE);
+		}
+
+		private void connect() throws FailedDeploymentException, TimeoutException, InterruptedException {
+			var remote = supplier.get(uri, timeout);
+			this.remote = remote;
+			remote.addOnCloseHandler(() -> onClosed(remote));
+			admit();
+
+			// the client might have been closed while connecting
+			if (isClosed.get())
+				close();
+		}
+
+		private void onClosed(R closed) {
+			if (remote == closed) {
+				remote = null;
+				eject("its remote has been closed");
+			}
+		}
+
+		private void eject(String reason) {
+			if (!ejected && !isClosed.get()) {
+				ejected = true;
+				ejections.increment();
+				LOGGER.warning("balanced remote: ejecting " + uri + " since " + reason);
+			}
+		}
+
+		private void probe() throws InterruptedException {
+			if (remote == null) {
+				try {
+					connect();
+					LOGGER.info("balanced remote: reconnected to " + uri);
+				}
+				catch (FailedDeploymentException | TimeoutException e) {
+					LOGGER.fine(() -> "balanced remote: " + uri + " is still unreachable: " + e.getMessage());
+				}
+
+				return;
+			}
+
+			if (probe.isPresent()) {
+				try {
+					probe.get().apply(remote).toCompletableFuture().get(timeout, TimeUnit.MILLISECONDS);
+				}
+				catch (ExecutionException | TimeoutException e) {
+					LOGGER.fine(() -> "balanced remote: " + uri + " is still unhealthy: " + e.getMessage());
+					return;
+				}
+			}
+
+			admit();
+			LOGGER.info("balanced remote: readmitted " + uri);
+		}
+
+		/**
+		 * Lets this backend receive requests again. Its latency is measured anew, since
+		 * it might have changed while the backend was ejected.
+		 */
+		private void admit() {
+			failures.set(0);
+			latency = 0L;
+			ejected = false;
+		}
+
+		private <T> CompletableFuture<T> call(Function<? super R, ? extends CompletionStage<T>> request) {
+			var remote = this.remote;
+			if (remote == null)
+				return CompletableFuture.failedFuture(new DisconnectedException("The backend at " + uri + " is not connected"));
+
+			outstanding.incrementAndGet();
+			long start = System.nanoTime();
+			CompletableFuture<T> future;
+
+			try {
+				future = request.apply(remote).toCompletableFuture();
+			}
+			catch (RuntimeException e) {
+				future = CompletableFuture.failedFuture(e);
+			}
+
+			future.whenComplete((value, failure) -> {
+				outstanding.decrementAndGet();
+
+				if (failure instanceof CancellationException)
+					return;
+
+				if (failure == null || !isNetworkFailure(failure)) {
+					failures.set(0);
+					long now = System.nanoTime();
+					long sample = now - start;
+					long previous = (long) latency(now);
+					// exponentially weighted moving average, reacting within a few replies
+					latency = previous == 0L ? sample : previous + (sample - previous) / 4;
+					lastReply = now;
+				}
+				else if (failures.incrementAndGet() >= maxFailures)
+					eject(maxFailures + " consecutive requests failed");
+			});
+
+			return future;
+		}
+
+		private void close() {
+			var remote = this.remote;
+			if (remote != null) {
+				try {
+					remote.close();
+				}
+				catch (RuntimeException e) {
+					LOGGER.warning("balanced remote: cannot close the remote of " + uri + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+}
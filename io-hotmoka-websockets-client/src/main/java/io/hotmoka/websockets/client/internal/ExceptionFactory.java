@@ -0,0 +1,93 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.beans.api.ExceptionMessage;
+
+/**
+ * A factory of the exceptions described by exception messages. The constructors
+ * of the exception classes are looked up only once per class and kept as method handles.
+ * Exceptions are built through their public {@code (String)} constructor, hence they
+ * get their stack trace filled in as usual: the constructors that avoid it are protected
+ * in {@link Exception} and {@link RuntimeException} and almost never public in their subclasses,
+ * so that skipping the stack trace would only discard it after having paid for it.
+ */
+@ThreadSafe
+final class ExceptionFactory {
+
+	/**
+	 * The type of the {@code (String)} constructors, adapted to return an {@link Exception}.
+	 */
+	private final static MethodType STRING_CONSTRUCTOR = MethodType.methodType(Exception.class, String.class);
+
+	/**
+	 * The {@code (String)} constructor of each exception class, if it is public.
+	 */
+	private final static ClassValue<Optional<MethodHandle>> STRING_CONSTRUCTORS = new ClassValue<>() {
+
+		@Override
+		protected Optional<MethodHandle> computeValue(Class<?> clazz) {
+			try {
+				return Optional.of(MethodHandles.publicLookup().findConstructor(clazz, STRING_CONSTRUCTOR.changeReturnType(void.class)).asType(STRING_CONSTRUCTOR));
+			}
+			catch (NoSuchMethodException | IllegalAccessException e) {
+				return Optional.empty();
+			}
+		}
+	};
+
+	private final static Logger LOGGER = Logger.getLogger(ExceptionFactory.class.getName());
+
+	private ExceptionFactory() {}
+
+	/**
+	 * Builds the exception described by the given message.
+	 * 
+	 * @param <E> the type of the exception
+	 * @param exception the class of the exception
+	 * @param em the message describing the exception
+	 * @return the exception
+	 */
+	static <E extends Exception> E mk(Class<E> exception, ExceptionMessage em) {
+		var constructor = STRING_CONSTRUCTORS.get(exception);
+		if (constructor.isEmpty()) {
+			var e = new NoSuchMethodException("The exception type " + exception.getName() + " has no public constructor with a single String parameter");
+			LOGGER.log(Level.SEVERE, "remote: cannot instantiate the exception type: " + exception.getName(), e);
+			throw new RuntimeException(e);
+		}
+
+		try {
+			return exception.cast((Exception) constructor.get().invokeExact(em.getMessage().orElse(null)));
+		}
+		catch (RuntimeException | Error e) {
+			throw e;
+		}
+		catch (Throwable t) {
+			// the constructor of the exception threw a checked exception
+			LOGGER.log(Level.SEVERE, "remote: cannot instantiate the exception type: " + exception.getName(), t);
+			throw new RuntimeException(t);
+		}
+	}
+}
@@ -0,0 +1,411 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.api.FailedDeploymentException;
+import io.hotmoka.websockets.client.api.HedgedRemote;
+import io.hotmoka.websockets.client.api.Remote;
+import io.hotmoka.websockets.client.api.RemoteSupplier;
+
+/**
+ * Implementation of a client that hedges the requests sent to a set of equivalent remotes.
+ * The primary request of each call goes to the remotes in round-robin; the hedge goes to the next remote.
+ * Hedges are paid with tokens: each call deposits {@code budget} tokens, up to a maximum, and each hedge
+ * withdraws a token, so that hedging never adds more than a fraction {@code budget} of extra requests,
+ * apart from short bursts. The hedging delay of a kind of request is a percentile of the latencies of
+ * its primary requests only: a primary request that loses against its hedge is not cancelled, so that
+ * its latency is observed as well, otherwise the slow requests, that get hedged, would never be measured.
+ *
+ * @param <R> the type of the remotes
+ */
+@ThreadSafe
+public class HedgedRemoteImpl<R extends Remote> implements HedgedRemote<R> {
+
+	/**
+	 * The number of replies that must have been observed for a kind of request, before its calls get hedged.
+	 */
+	private final static long MIN_SAMPLES = 50L;
+
+	/**
+	 * The time between two updates of the hedging delay of a kind of request, in nanoseconds.
+	 */
+	private final static long REFRESH = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * The value of a token, in the unit used for {@link #tokens}.
+	 */
+	private final static long TOKEN = 1000L;
+
+	/**
+	 * The maximal number of tokens that can be saved, that is, the maximal burst of hedges.
+	 */
+	private final static long MAX_TOKENS = 10L * TOKEN;
+
+	private final List<R> remotes;
+
+	/**
+	 * The percentile of the latencies of a kind of request, after which its calls get hedged.
+	 */
+	private final double percentile;
+
+	/**
+	 * The tokens deposited by each call, in the unit used for {@link #tokens}.
+	 */
+	private final long deposit;
+
+	/**
+	 * The tokens available for hedging, in thousandths of token.
+	 */
+	private final AtomicLong tokens = new AtomicLong();
+
+	/**
+	 * The statistics of each kind of request.
+	 */
+	private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+
+	/**
+	 * The scheduler of the hedges.
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * A counter used to choose the remote of the primary request of the next call.
+	 */
+	private final AtomicInteger cursor = new AtomicInteger();
+
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+	private final LongAdder suppressedHedges = new LongAdder();
+
+	private final AtomicBoolean isClosed = new AtomicBoolean();
+
+	private final static Logger LOGGER = Logger.getLogger(HedgedRemoteImpl.class.getName());
+
+	/**
+	 * Creates the client, with a remote for each of the given URIs.
+	 * 
+	 * @param supplier the supplier of the remotes
+	 * @param uris the URIs where the replicas of the service are published; there must be at least two
+	 * @param timeout the threshold, in milliseconds, after which the requests of the remotes time out
+	 * @param percentile the percentile of the latencies of a kind of request, after which its calls get hedged,
+	 *                   between 0 (excluded) and 100 (excluded), such as 95
+	 * @param budget the maximal fraction of calls that can be hedged, between 0 (excluded) and 1 (included), such as 0.05
+	 * @throws FailedDeploymentException if some remote could not be created
+	 * @throws TimeoutException if the creation of some remote timed out
+	 * @throws InterruptedException if the current thread has been interrupted
+	 */
+	public HedgedRemoteImpl(RemoteSupplier<? extends R> supplier, List<URI> uris, int timeout, double percentile, double budget) throws FailedDeploymentException, TimeoutException, InterruptedException {
+		if (uris.size() < 2)
+			throw new IllegalArgumentException("Hedging requires at least two remotes");
+
+		if (!(percentile > 0.0 && percentile < 100.0))
+			throw new IllegalArgumentException("percentile must be in (0, 100)");
+
+		if (!(budget > 0.0 && budget <= 1.0))
+			throw new IllegalArgumentException("budget must be in (0, 1]");
+
+		this.percentile = percentile;
+		this.deposit = Math.max(1L, Math.round(budget * TOKEN));
+
+		var remotes = new ArrayList<R>();
+
+		try {
+			for (var uri: uris)
+				remotes.add(supplier.get(uri, timeout));
+		}
+		catch (FailedDeploymentException | TimeoutException | InterruptedException | RuntimeException e) {
+			remotes.forEach(Remote::close);
+			throw e;
+		}
+
+		this.remotes = List.copyOf(remotes);
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			var thread = new Thread(runnable, "remote-hedger");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@Override
+	public <T> CompletableFuture<T> call(String operation, Function<? super R, ? extends CompletionStage<T>> request) {
+		if (isClosed.get())
+			return CompletableFuture.failedFuture(new IllegalStateException("The hedged remote is closed"));
+
+		calls.increment();
+		tokens.getAndUpdate(available -> Math.min(MAX_TOKENS, available + deposit));
+
+		var stats = operations.computeIfAbsent(operation, __ -> new Operation());
+		int size = remotes.size();
+		// the cursor might overflow and become negative, hence its sign bit is removed
+		int primary = (cursor.getAndIncrement() & Integer.MAX_VALUE) % size;
+		var call = new Call<T>(request, stats);
+		call.launch(remotes.get(primary), false);
+
+		long delay = stats.delay();
+		if (delay > 0L && !call.result.isDone()) {
+			try {
+				call.hedge = scheduler.schedule(() -> call.hedge(remotes.get((primary + 1) % size)), delay, TimeUnit.NANOSECONDS);
+			}
+			catch (RuntimeException e) {
+				// the scheduler has been shut down: the call is not hedged
+			}
+		}
+
+		return call.result;
+	}
+
+	@Override
+	public List<R> getRemotes() {
+		return remotes;
+	}
+
+	@Override
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	@Override
+	public long getHedges() {
+		return hedges.sum();
+	}
+
+	@Override
+	public long getHedgeWins() {
+		return hedgeWins.sum();
+	}
+
+	@Override
+	public long getSuppressedHedges() {
+		return suppressedHedges.sum();
+	}
+
+	@Override
+	public void close() {
+		if (!isClosed.getAndSet(true)) {
+			scheduler.shutdownNow();
+
+			for (var remote: remotes) {
+				try {
+					remote.close();
+				}
+				catch (RuntimeException e) {
+					LOGGER.warning("hedged remote: cannot close a remote: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Withdraws a token for a hedge, if available.
+	 * 
+	 * @return true if and only if the token has been withdrawn
+	 */
+	private boolean withdraw() {
+		long available;
+
+		do {
+			available = tokens.get();
+			if (available < TOKEN)
+				return false;
+		}
+		while (!tokens.compareAndSet(available, available - TOKEN));
+
+		return true;
+	}
+
+	/**
+	 * The latencies of the calls of a kind of request and the delay after which they get hedged.
+	 */
+	private final class Operation {
+		private final LatencyHistogram latencies = new LatencyHistogram();
+
+		/**
+		 * The delay after which the calls get hedged, in nanoseconds; 0 if they are not hedged yet.
+		 */
+		private volatile long delay;
+
+		/**
+		 * The time of the last update of {@link #delay}, as given by {@link System#nanoTime()}.
+		 */
+		private volatile long lastUpdate = System.nanoTime() - REFRESH;
+
+		private final AtomicBoolean updating = new AtomicBoolean();
+
+		private long delay() {
+			long now = System.nanoTime();
+			if (now - lastUpdate >= REFRESH && updating.compareAndSet(false, true)) {
+				try {
+					var snapshot = latencies.snapshot();
+					if (snapshot.getCount() >= MIN_SAMPLES)
+						delay = Math.max(1L, snapshot.getValueAtPercentile(percentile));
+
+					lastUpdate = now;
+				}
+				finally {
+					updating.set(false);
+				}
+			}
+
+			return delay;
+		}
+	}
+
+	/**
+	 * Determines if the given failure of a request means that it timed out.
+	 */
+	private static boolean isTimeout(Throwable failure) {
+		return failure instanceof TimeoutException || failure instanceof CompletionException ce && ce.getCause() instanceof TimeoutException;
+	}
+
+	/**
+	 * A call, with its primary request and its hedge, if any.
+	 *
+	 * @param <T> the type of the result of the call
+	 */
+	private final class Call<T> {
+		private final Function<? super R, ? extends CompletionStage<T>> request;
+		private final Operation operation;
+		private final long start = System.nanoTime();
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+
+		/**
+		 * The futures of the requests sent for this call.
+		 */
+		@GuardedBy("this")
+		private final List<CompletableFuture<T>> attempts = new ArrayList<>(2);
+
+		/**
+		 * The number of requests sent for this call, whose outcome is not known yet.
+		 */
+		@GuardedBy("this")
+		private int outstanding;
+
+		/**
+		 * The primary request of this call.
+		 */
+		@GuardedBy("this")
+		private CompletableFuture<T> primary;
+
+		/**
+		 * The scheduled hedge of this call, if any.
+		 */
+		private volatile ScheduledFuture<?> hedge;
+
+		private Call(Function<? super R, ? extends CompletionStage<T>> request, Operation operation) {
+			this.request = request;
+			this.operation = operation;
+
+			// once the result is known, or if the caller cancels it, the pending requests are cancelled;
+			// if the hedge won, the primary request is left running, so that its latency gets measured
+			result.whenComplete((value, failure) -> {
+				var hedge = this.hedge;
+				if (hedge != null)
+					hedge.cancel(false);
+
+				List<CompletableFuture<T>> attempts;
+				synchronized (this) {
+					attempts = List.copyOf(this.attempts);
+					if (failure == null)
+						attempts.remove(primary);
+				}
+
+				attempts.forEach(attempt -> attempt.cancel(true));
+			});
+		}
+
+		private void hedge(R remote) {
+			if (result.isDone())
+				return;
+
+			if (withdraw()) {
+				hedges.increment();
+				launch(remote, true);
+			}
+			else
+				suppressedHedges.increment();
+		}
+
+		private void launch(R remote, boolean isHedge) {
+			CompletableFuture<T> attempt;
+
+			try {
+				attempt = request.apply(remote).toCompletableFuture();
+			}
+			catch (RuntimeException e) {
+				attempt = CompletableFuture.failedFuture(e);
+			}
+
+			synchronized (this) {
+				attempts.add(attempt);
+				outstanding++;
+				if (!isHedge)
+					primary = attempt;
+			}
+
+			// the result might have been completed before the attempt got registered
+			if (result.isDone())
+				attempt.cancel(true);
+
+			// only the primary request is measured, whether it wins or not; a timeout is a latency as well,
+			// while the other failures are not, since they might be much faster than a reply
+			if (!isHedge)
+				attempt.whenComplete((value, failure) -> {
+					if (failure == null || isTimeout(failure))
+						operation.latencies.record(System.nanoTime() - start);
+				});
+
+			attempt.whenComplete((value, failure) -> {
+				if (failure == null) {
+					if (result.complete(value) && isHedge)
+						hedgeWins.increment();
+				}
+				else {
+					boolean last;
+					synchronized (this) {
+						last = --outstanding == 0;
+					}
+
+					if (last)
+						result.completeExceptionally(failure instanceof CompletionException ce && ce.getCause() != null ? ce.getCause() : failure);
+				}
+			});
+		}
+	}
+}
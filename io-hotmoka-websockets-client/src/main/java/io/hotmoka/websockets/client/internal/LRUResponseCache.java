@@ -0,0 +1,153 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.client.api.ResponseCache;
+
+/**
+ * A response cache with a maximal size, that evicts its least recently used value when full.
+ */
+@ThreadSafe
+public class LRUResponseCache implements ResponseCache {
+
+	/**
+	 * The maximal number of values in the cache.
+	 */
+	private final int maxSize;
+
+	/**
+	 * The cached values, in access order.
+	 */
+	@GuardedBy("itself")
+	private final LinkedHashMap<Object, Entry> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates the cache.
+	 * 
+	 * @param maxSize the maximal number of values in the cache
+	 */
+	public LRUResponseCache(int maxSize) {
+		if (maxSize < 1)
+			throw new IllegalArgumentException("maxSize must be positive");
+
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+				if (size() > LRUResponseCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				else
+					return false;
+			}
+		};
+	}
+
+	@Override
+	public Object get(Object key) {
+		Entry entry;
+
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry != null && entry.expiration - System.nanoTime() <= 0L) {
+				entries.remove(key);
+				entry = null;
+			}
+		}
+
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		else {
+			hits.increment();
+			return entry.value;
+		}
+	}
+
+	@Override
+	public void put(Object key, Object value, long ttl) {
+		var entry = new Entry(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl));
+
+		synchronized (entries) {
+			entries.put(key, entry);
+		}
+	}
+
+	@Override
+	public void invalidate(Object key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	@Override
+	public void invalidateIf(Predicate<Object> condition) {
+		synchronized (entries) {
+			entries.keySet().removeIf(condition);
+		}
+	}
+
+	@Override
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * A cached value, with its expiration time, as given by {@link System#nanoTime()}.
+	 */
+	private record Entry(Object value, long expiration) {}
+}
@@ -0,0 +1,195 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.client.api.LatencySnapshot;
+
+/**
+ * A histogram of latencies, in nanoseconds, with log-linear buckets, in the style of HDR histograms.
+ * Values below {@code 2^SUB_BITS} have a bucket each; larger values are split into ranges
+ * between consecutive powers of two, each split into {@code 2^SUB_BITS} buckets of equal width.
+ * Hence the relative error of the reported values is below {@code 2^-SUB_BITS}.
+ * Recording a value does not allocate and does not lock.
+ */
+@ThreadSafe
+class LatencyHistogram {
+
+	/**
+	 * The number of bits of precision of the buckets.
+	 */
+	private final static int SUB_BITS = 6;
+
+	/**
+	 * The number of buckets between two consecutive powers of two.
+	 */
+	private final static int SUB_BUCKETS = 1 << SUB_BITS;
+
+	/**
+	 * The largest value that can be recorded: larger values are recorded as this one.
+	 * It is more than half an hour.
+	 */
+	private final static long MAX_VALUE = (1L << 41) - 1;
+
+	/**
+	 * The number of recorded values in each bucket.
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+
+	private final LongAdder sum = new LongAdder();
+
+	private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+	private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+	/**
+	 * Records a value.
+	 * 
+	 * @param value the value; negative values are recorded as 0
+	 */
+	void record(long value) {
+		value = Math.max(0L, Math.min(value, MAX_VALUE));
+		counts.incrementAndGet(indexOf(value));
+		sum.add(value);
+		min.accumulate(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Yields a snapshot of this histogram. Values recorded while the snapshot is taken
+	 * might be only partially reflected in it.
+	 * 
+	 * @return the snapshot
+	 */
+	LatencySnapshot snapshot() {
+		var copy = new long[counts.length()];
+		long count = 0L;
+		for (int pos = 0; pos < copy.length; pos++)
+			count += copy[pos] = counts.get(pos);
+
+		return new Snapshot(copy, count, sum.sum(), min.get(), max.get());
+	}
+
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+
+		// the shift keeps the SUB_BITS + 1 most significant bits of the value
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return (shift << SUB_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * Yields the largest value recorded in the bucket with the given index.
+	 * 
+	 * @param index the index
+	 * @return the largest value
+	 */
+	private static long highestValueOf(int index) {
+		if (index < 2 * SUB_BUCKETS)
+			return index;
+
+		int shift = (index >>> SUB_BITS) - 1;
+		long mantissa = index - (shift << SUB_BITS);
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * An immutable snapshot of a histogram.
+	 */
+	private static class Snapshot implements LatencySnapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long min;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long min, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.min = count == 0L ? 0L : min;
+			this.max = count == 0L ? 0L : max;
+		}
+
+		@Override
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public long getMin() {
+			return min;
+		}
+
+		@Override
+		public long getMax() {
+			return max;
+		}
+
+		@Override
+		public double getMean() {
+			return count == 0L ? 0.0 : (double) sum / count;
+		}
+
+		@Override
+		public long getP50() {
+			return getValueAtPercentile(50.0);
+		}
+
+		@Override
+		public long getP90() {
+			return getValueAtPercentile(90.0);
+		}
+
+		@Override
+		public long getP99() {
+			return getValueAtPercentile(99.0);
+		}
+
+		@Override
+		public long getP999() {
+			return getValueAtPercentile(99.9);
+		}
+
+		@Override
+		public long getValueAtPercentile(double percentile) {
+			if (percentile < 0.0 || percentile > 100.0)
+				throw new IllegalArgumentException("percentile must be between 0 and 100");
+
+			if (count == 0L)
+				return 0L;
+
+			long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+			long seen = 0L;
+			for (int pos = 0; pos < counts.length; pos++)
+				if ((seen += counts[pos]) >= target)
+					return Math.max(min, Math.min(max, highestValueOf(pos)));
+
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + count + ", mean=" + (long) getMean() + "ns, p50=" + getP50() + "ns, p99=" + getP99() + "ns, max=" + max + "ns";
+		}
+	}
+}
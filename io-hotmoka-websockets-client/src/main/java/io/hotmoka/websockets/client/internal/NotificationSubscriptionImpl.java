@@ -0,0 +1,232 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.client.api.NotificationOverflowPolicy;
+import io.hotmoka.websockets.client.api.NotificationSubscription;
+
+/**
+ * A subscription of a listener to the notifications of a given type. Notifications are put
+ * in a bounded buffer and delivered to the listener, in order, by a task running in an executor,
+ * so that the thread that receives them from the network is never blocked by a slow listener.
+ * 
+ * @param <M> the type of the notifications
+ */
+@ThreadSafe
+class NotificationSubscriptionImpl<M extends RpcMessage> implements NotificationSubscription {
+
+	/**
+	 * The type of the notifications.
+	 */
+	private final Class<M> messageType;
+
+	/**
+	 * The listener of the notifications.
+	 */
+	private final Consumer<? super M> listener;
+
+	/**
+	 * The maximal number of notifications in the buffer.
+	 */
+	private final int bufferSize;
+
+	/**
+	 * What to do when a notification arrives while the buffer is full.
+	 */
+	private final NotificationOverflowPolicy policy;
+
+	/**
+	 * The function that computes the coalescing key of the notifications, or {@code null} if they are not coalesced.
+	 */
+	private final Function<? super M, ?> coalescingKey;
+
+	/**
+	 * The executor of the tasks that deliver the notifications to the listener.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Called when this subscription gets closed.
+	 */
+	private final Consumer<NotificationSubscriptionImpl<?>> onClose;
+
+	/**
+	 * The notifications not yet delivered, in arrival order, indexed by their coalescing key
+	 * or by a fresh object if they are not coalesced.
+	 */
+	@GuardedBy("this")
+	private final LinkedHashMap<Object, M> buffer = new LinkedHashMap<>();
+
+	/**
+	 * True if and only if a task that delivers the notifications is scheduled or running.
+	 */
+	@GuardedBy("this")
+	private boolean draining;
+
+	/**
+	 * True if and only if this subscription has been closed.
+	 */
+	private volatile boolean isClosed;
+
+	private final LongAdder dropped = new LongAdder();
+
+	private final LongAdder coalesced = new LongAdder();
+
+	private final static Logger LOGGER = Logger.getLogger(NotificationSubscriptionImpl.class.getName());
+
+	/**
+	 * Creates the subscription.
+	 * 
+	 * @param messageType the type of the notifications; notifications of its subclasses are delivered as well
+	 * @param listener the listener of the notifications
+	 * @param bufferSize the maximal number of notifications in the buffer
+	 * @param policy what to do when a notification arrives while the buffer is full
+	 * @param coalescingKey the function that computes the coalescing key of the notifications,
+	 *                      or {@code null} if they are not coalesced
+	 * @param executor the executor of the tasks that deliver the notifications to the listener
+	 * @param onClose called when the subscription gets closed
+	 */
+	NotificationSubscriptionImpl(Class<M> messageType, Consumer<? super M> listener, int bufferSize, NotificationOverflowPolicy policy,
+			Function<? super M, ?> coalescingKey, Executor executor, Consumer<NotificationSubscriptionImpl<?>> onClose) {
+
+		this.messageType = messageType;
+		this.listener = listener;
+		this.bufferSize = bufferSize;
+		this.policy = policy;
+		this.coalescingKey = coalescingKey;
+		this.executor = executor;
+		this.onClose = onClose;
+	}
+
+	@Override
+	public long getDroppedNotifications() {
+		return dropped.sum();
+	}
+
+	@Override
+	public long getCoalescedNotifications() {
+		return coalesced.sum();
+	}
+
+	@Override
+	public void close() {
+		if (!isClosed) {
+			isClosed = true;
+
+			synchronized (this) {
+				buffer.clear();
+			}
+
+			onClose.accept(this);
+		}
+	}
+
+	/**
+	 * Offers the given notification to this subscription, if it is of its type.
+	 * 
+	 * @param message the notification
+	 * @return true if and only if the notification is of the type of this subscription
+	 */
+	boolean offer(RpcMessage message) {
+		if (!messageType.isInstance(message))
+			return false;
+
+		if (isClosed)
+			return true;
+
+		var notification = messageType.cast(message);
+		Object key = coalescingKey == null ? new Object() : coalescingKey.apply(notification);
+		boolean startDraining;
+
+		synchronized (this) {
+			if (buffer.containsKey(key)) {
+				// the buffered notification is replaced but keeps its position
+				buffer.put(key, notification);
+				coalesced.increment();
+				return true;
+			}
+
+			if (buffer.size() >= bufferSize) {
+				dropped.increment();
+
+				if (policy == NotificationOverflowPolicy.DROP_NEWEST)
+					return true;
+
+				var oldest = buffer.keySet().iterator();
+				oldest.next();
+				oldest.remove();
+			}
+
+			buffer.put(key, notification);
+			startDraining = !draining;
+			draining = true;
+		}
+
+		if (startDraining) {
+			try {
+				executor.execute(this::drain);
+			}
+			catch (RejectedExecutionException e) {
+				// the remote is being closed
+				synchronized (this) {
+					draining = false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Delivers the buffered notifications to the listener, until the buffer is empty.
+	 */
+	private void drain() {
+		while (true) {
+			M next;
+
+			synchronized (this) {
+				var it = buffer.values().iterator();
+				if (isClosed || !it.hasNext()) {
+					draining = false;
+					return;
+				}
+
+				next = it.next();
+				it.remove();
+			}
+
+			try {
+				listener.accept(next);
+			}
+			catch (RuntimeException e) {
+				LOGGER.log(Level.WARNING, "remote: a notification listener threw an exception", e);
+			}
+		}
+	}
+}
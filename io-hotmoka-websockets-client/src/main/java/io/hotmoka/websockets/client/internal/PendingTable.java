@@ -0,0 +1,747 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.beans.api.ExceptionMessage;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.client.internal.RPCMessageQueuesContainer.AsyncCall;
+
+/**
+ * A table of the requests still waiting for their reply, keyed by the numeric key of their identifier.
+ * Each request holds a single-slot hand-off, where its reply gets delivered.
+ * The table is split into stripes, each being an open-addressing hash table with linear probing,
+ * guarded by its own lock. Slots are recycled when their request is removed, so that
+ * registering and completing a request does not allocate, in the steady state.
+ */
+@ThreadSafe
+class PendingTable {
+
+	/**
+	 * The number of stripes. It must be a power of two.
+	 */
+	private final static int STRIPES = 16;
+
+	/**
+	 * The maximal number of free slots kept for reuse in each stripe.
+	 */
+	private final static int MAX_FREE_SLOTS = 256;
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	/**
+	 * Called whenever a request gets removed from this table, with the tag of the request.
+	 */
+	private final IntConsumer onRemoval;
+
+	/**
+	 * The result of the delivery of a message to a synchronous request.
+	 */
+	enum Delivery {
+
+		/**
+		 * The message has been delivered into the slot of the request.
+		 */
+		DELIVERED,
+
+		/**
+		 * The slot of the request already contains a message not yet consumed.
+		 */
+		FULL,
+
+		/**
+		 * The request is asynchronous, hence the message must be used to complete its future.
+		 */
+		ASYNC,
+
+		/**
+		 * There is no request for the given key.
+		 */
+		MISSING
+	}
+
+	/**
+	 * Creates an empty table.
+	 *
+	 * @param onRemoval the callback called whenever a request gets removed from the table,
+	 *                  exactly once for each request, with the tag of the request (see {@link #sent(long, int, RpcMetrics, long)}),
+	 *                  or -1 if the request has no tag; it gets called while holding a lock, hence it must be fast
+	 */
+	PendingTable(IntConsumer onRemoval) {
+		this.onRemoval = onRemoval;
+
+		for (int pos = 0; pos < STRIPES; pos++)
+			stripes[pos] = new Stripe();
+	}
+
+	/**
+	 * Registers a new request for the given key.
+	 *
+	 * @param key the key of the request; it must be different from 0 and not yet registered
+	 */
+	void register(long key) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			stripe.put(key);
+		}
+	}
+
+	/**
+	 * Binds the request with the given key to the given asynchronous call.
+	 * From now on, messages for that request are not delivered into its slot anymore,
+	 * but must be used to complete the call.
+	 *
+	 * @param key the key of the request
+	 * @param call the asynchronous call
+	 * @return false if there is no request for the given key
+	 */
+	boolean bind(long key, AsyncCall call) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			if (slot == null || slot.failed)
+				return false;
+
+			slot.call = call;
+			return true;
+		}
+	}
+
+	/**
+	 * Records that the request with the given key is being sent. Its tag is passed to the
+	 * removal callback when the request is removed. Its statistics get updated when its reply
+	 * arrives or when it times out.
+	 *
+	 * @param key the key of the request
+	 * @param tag the tag; if negative, the request remains untagged
+	 * @param metrics the statistics of the type of the request
+	 * @param timeout the time, in nanoseconds, after which the request expires, starting from now (see {@link #deadlineOf(long)});
+	 *                if this is not positive, the request has no deadline of its own
+	 * @return false if there is no request for the given key
+	 */
+	boolean sent(long key, int tag, RpcMetrics metrics, long timeout) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			if (slot == null || slot.failed)
+				return false;
+
+			if (tag >= 0)
+				slot.tag = tag;
+
+			slot.metrics = metrics;
+			slot.sent = System.nanoTime();
+			slot.deadline = timeout > 0L ? slot.sent + timeout : 0L;
+			if (slot.call != null)
+				slot.call.metrics = metrics;
+
+			return true;
+		}
+	}
+
+	/**
+	 * Yields the statistics of the type of the request with the given key.
+	 *
+	 * @param key the key of the request
+	 * @return the statistics, or {@code null} if there is no request for the given key or it has not been sent yet
+	 */
+	RpcMetrics getMetrics(long key) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			return slot == null ? null : slot.metrics;
+		}
+	}
+
+	/**
+	 * Yields the deadline of the request with the given key, if it has one of its own
+	 * (see {@link #sent(long, int, RpcMetrics, long)}).
+	 *
+	 * @param key the key of the request
+	 * @return the deadline, as given by {@link System#nanoTime()}, or 0 if there is no request
+	 *         for the given key or it has no deadline of its own
+	 */
+	long deadlineOf(long key) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			return slot == null ? 0L : slot.deadline;
+		}
+	}
+
+	/**
+	 * Yields the tag of the request with the given key.
+	 *
+	 * @param key the key of the request
+	 * @return the tag, or -1 if there is no request for the given key or it has no tag
+	 */
+	int tagOf(long key) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			return slot == null || slot.failed ? -1 : slot.tag;
+		}
+	}
+
+	/**
+	 * Yields the asynchronous call bound to the request with the given key.
+	 *
+	 * @param key the key of the request
+	 * @return the call, or {@code null} if there is no request for the given key or if it is synchronous
+	 */
+	AsyncCall getCall(long key) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			return slot == null ? null : slot.call;
+		}
+	}
+
+	/**
+	 * Delivers the given message into the slot of the request with the given key,
+	 * waking up its waiting thread, if any.
+	 *
+	 * @param key the key of the request
+	 * @param message the message
+	 * @return the outcome of the delivery
+	 */
+	Delivery offer(long key, RpcMessage message) {
+		var stripe = stripeFor(key);
+		long now = System.nanoTime();
+		RpcMetrics metrics;
+		long sent;
+		Delivery result;
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			if (slot == null || slot.failed)
+				return Delivery.MISSING;
+			else if (slot.call != null)
+				result = Delivery.ASYNC;
+			else if (slot.message != null)
+				return Delivery.FULL;
+			else {
+				slot.message = message;
+				slot.delivered = now;
+				var waiter = slot.waiter;
+				if (waiter != null)
+					LockSupport.unpark(waiter);
+
+				result = Delivery.DELIVERED;
+			}
+
+			metrics = slot.metrics;
+			sent = slot.sent;
+		}
+
+		if (metrics != null) {
+			metrics.roundTripLatency.record(now - sent);
+			if (message instanceof ExceptionMessage)
+				metrics.exceptionReplies.increment();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Takes the message delivered into the slot of the request with the given key,
+	 * waiting for it if the slot is empty. There is no timeout here: the request
+	 * is expired through {@link #fail(long, RuntimeException)} instead.
+	 *
+	 * @param key the key of the request
+	 * @return the message, or {@code null} if there is no request for the given key,
+	 *         or if it has been expired while waiting
+	 * @throws InterruptedException if the current thread gets interrupted while waiting
+	 * @throws RuntimeException if the request has been failed with this exception while waiting
+	 */
+	RpcMessage take(long key) throws InterruptedException {
+		var stripe = stripeFor(key);
+		Slot slot;
+
+		synchronized (stripe) {
+			slot = stripe.get(key);
+			if (slot == null)
+				return null;
+
+			slot.waiter = Thread.currentThread();
+		}
+
+		// a failed request is removed from the table, if not already removed, and its slot is recycled by its waiter only
+		try {
+			while (true) {
+				synchronized (stripe) {
+					// the slot might have been recycled if the request has been removed meanwhile
+					if (slot.key != key)
+						return null;
+
+					if (slot.failed) {
+						var failure = slot.failure;
+						if (stripe.get(key) == slot)
+							stripe.detach(key);
+
+						stripe.release(slot);
+						if (failure != null)
+							throw failure;
+
+						return null;
+					}
+
+					var message = slot.message;
+					if (message != null) {
+						slot.message = null;
+						var metrics = slot.metrics;
+						if (metrics != null)
+							metrics.handOffDelay.record(System.nanoTime() - slot.delivered);
+
+						return message;
+					}
+				}
+
+				LockSupport.park(this);
+				if (Thread.interrupted())
+					throw new InterruptedException();
+			}
+		}
+		finally {
+			synchronized (stripe) {
+				if (slot.key == key && !slot.failed)
+					slot.waiter = null;
+			}
+		}
+	}
+
+	/**
+	 * Fails the request with the given key, if any: it gets removed and its waiting thread, if any,
+	 * is woken up and receives the given failure. If the request is asynchronous, its future is
+	 * completed exceptionally with the given failure. If the request is synchronous but nobody is waiting
+	 * for it yet, it is kept in the table, as failed, until its waiter arrives and receives the failure.
+	 *
+	 * @param key the key of the request
+	 * @param failure the failure; if this is {@code null}, the request is expired as if it timed out
+	 * @return true if and only if the request was present
+	 */
+	boolean fail(long key, RuntimeException failure) {
+		var stripe = stripeFor(key);
+		AsyncCall call;
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			if (slot == null)
+				return false;
+			else if (slot.failed) {
+				// the request has been failed before its waiter arrived: if it is failed again and the waiter
+				// has still not arrived, it is not going to arrive anymore and the slot gets recycled;
+				// otherwise the waiter is receiving the failure and recycles the slot itself
+				if (slot.waiter == null) {
+					stripe.detach(key);
+					stripe.release(slot);
+				}
+
+				return false;
+			}
+
+			call = slot.call;
+			int tag = slot.tag;
+			var waiter = slot.waiter;
+			if (failure == null && slot.metrics != null)
+				slot.metrics.timeouts.increment();
+
+			if (call == null && waiter != null) {
+				stripe.detach(key);
+				slot.failed = true;
+				slot.failure = failure;
+				LockSupport.unpark(waiter);
+			}
+			else if (call == null && failure != null) {
+				// the slot is kept until its waiter arrives, so that it receives the failure rather than a timeout
+				slot.failed = true;
+				slot.failure = failure;
+			}
+			else {
+				stripe.detach(key);
+				stripe.release(slot);
+			}
+
+			onRemoval.accept(tag);
+		}
+
+		// the future is completed outside the lock, since it might run arbitrary code
+		if (call != null)
+			call.fail(failure != null ? failure : new TimeoutException());
+
+		return true;
+	}
+
+	/**
+	 * Yields the keys of the requests registered before the given time.
+	 *
+	 * @param time the time, as given by {@link System#nanoTime()}
+	 * @return the keys
+	 */
+	long[] registeredBefore(long time) {
+		var result = new long[0];
+
+		for (var stripe: stripes) {
+			synchronized (stripe) {
+				result = stripe.registeredBefore(time, result);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields the keys of the requests with the given tag, that have not been failed yet.
+	 *
+	 * @param tag the tag
+	 * @return the keys
+	 */
+	long[] taggedWith(int tag) {
+		var result = new long[0];
+
+		for (var stripe: stripes) {
+			synchronized (stripe) {
+				result = stripe.taggedWith(tag, result);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Yields the keys of all requests in this table, that have not been failed yet.
+	 *
+	 * @return the keys
+	 */
+	long[] keys() {
+		var result = new long[0];
+
+		for (var stripe: stripes) {
+			synchronized (stripe) {
+				result = stripe.keys(result);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determines if there is a request with the given key.
+	 *
+	 * @param key the key
+	 * @return true if and only if that condition holds
+	 */
+	boolean contains(long key) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.get(key);
+			return slot != null && !slot.failed;
+		}
+	}
+
+	/**
+	 * Removes the request with the given key, if any, and recycles its slot.
+	 *
+	 * @param key the key of the request
+	 * @return true if and only if the request was present
+	 */
+	boolean remove(long key) {
+		var stripe = stripeFor(key);
+
+		synchronized (stripe) {
+			var slot = stripe.detach(key);
+			if (slot == null)
+				return false;
+
+			// a failed request has already been notified to the removal callback
+			boolean failed = slot.failed;
+			int tag = slot.tag;
+			stripe.release(slot);
+			if (!failed)
+				onRemoval.accept(tag);
+
+			return !failed;
+		}
+	}
+
+	private Stripe stripeFor(long key) {
+		return stripes[(int) (mix(key) >>> 60) & (STRIPES - 1)];
+	}
+
+	/**
+	 * Spreads the bits of the given key, so that both the choice of the stripe
+	 * and the position inside the stripe are uniformly distributed.
+	 *
+	 * @param key the key
+	 * @return the mixed key
+	 */
+	private static long mix(long key) {
+		return key * 0x9E3779B97F4A7C15L;
+	}
+
+	/**
+	 * The single-slot hand-off of a request.
+	 */
+	private final static class Slot {
+
+		/**
+		 * The key of the request using this slot, or 0 if the slot is free.
+		 */
+		private long key;
+
+		/**
+		 * The time when the request has been registered, as given by {@link System#nanoTime()}.
+		 */
+		private long registered;
+
+		/**
+		 * True if the request has been failed while its waiter was waiting.
+		 */
+		private boolean failed;
+
+		/**
+		 * The tag of the request, or -1 if it has no tag.
+		 */
+		private int tag = -1;
+
+		/**
+		 * The failure of the request, if {@link #failed}; {@code null} means that the request timed out.
+		 */
+		private RuntimeException failure;
+
+		/**
+		 * The statistics of the type of the request, if it has been sent.
+		 */
+		private RpcMetrics metrics;
+
+		/**
+		 * The time when the request has been sent, as given by {@link System#nanoTime()}.
+		 */
+		private long sent;
+
+		/**
+		 * The time when the request expires, as given by {@link System#nanoTime()}, or 0 if it has no deadline of its own.
+		 */
+		private long deadline;
+
+		/**
+		 * The time when {@link #message} has been delivered, as given by {@link System#nanoTime()}.
+		 */
+		private long delivered;
+
+		private RpcMessage message;
+		private AsyncCall call;
+		private volatile Thread waiter;
+
+		/**
+		 * The next free slot, if this slot is in the free list of its stripe.
+		 */
+		private Slot next;
+	}
+
+	/**
+	 * A stripe of the table: an open-addressing hash table with linear probing, from keys to slots.
+	 * Empty positions are marked with the key 0. Deletions shift back the following entries,
+	 * so that no tombstone is needed.
+	 */
+	private final static class Stripe {
+
+		@GuardedBy("this")
+		private long[] keys = new long[16];
+
+		@GuardedBy("this")
+		private Slot[] slots = new Slot[16];
+
+		@GuardedBy("this")
+		private int size;
+
+		@GuardedBy("this")
+		private Slot free;
+
+		@GuardedBy("this")
+		private int freeCount;
+
+		private Slot get(long key) {
+			int mask = keys.length - 1;
+			for (int pos = indexOf(key, mask); keys[pos] != 0L; pos = (pos + 1) & mask)
+				if (keys[pos] == key)
+					return slots[pos];
+
+			return null;
+		}
+
+		private void put(long key) {
+			if (2 * (size + 1) > keys.length)
+				resize();
+
+			int mask = keys.length - 1;
+			int pos = indexOf(key, mask);
+			while (keys[pos] != 0L)
+				pos = (pos + 1) & mask;
+
+			keys[pos] = key;
+			var slot = acquire();
+			slot.key = key;
+			slot.registered = System.nanoTime();
+			slots[pos] = slot;
+			size++;
+		}
+
+		/**
+		 * Removes the request with the given key, without recycling its slot.
+		 * 
+		 * @param key the key of the request
+		 * @return the slot of the request, or {@code null} if there is no request for {@code key}
+		 */
+		private Slot detach(long key) {
+			int mask = keys.length - 1;
+			int pos = indexOf(key, mask);
+
+			while (keys[pos] != key) {
+				if (keys[pos] == 0L)
+					return null;
+
+				pos = (pos + 1) & mask;
+			}
+
+			var slot = slots[pos];
+
+			// shifts back the following entries of the cluster, if their home position allows it
+			for (int next = (pos + 1) & mask; keys[next] != 0L; next = (next + 1) & mask) {
+				int home = indexOf(keys[next], mask);
+				if (pos <= next ? (pos < home && home <= next) : (pos < home || home <= next))
+					continue;
+
+				keys[pos] = keys[next];
+				slots[pos] = slots[next];
+				pos = next;
+			}
+
+			keys[pos] = 0L;
+			slots[pos] = null;
+			size--;
+
+			return slot;
+		}
+
+		private long[] registeredBefore(long time, long[] result) {
+			int count = result.length;
+			for (int pos = 0; pos < keys.length; pos++) {
+				if (keys[pos] != 0L && slots[pos].registered - time < 0L) {
+					if (count == result.length)
+						result = Arrays.copyOf(result, count * 2 + 4);
+
+					result[count++] = keys[pos];
+				}
+			}
+
+			return Arrays.copyOf(result, count);
+		}
+
+		private long[] taggedWith(int tag, long[] result) {
+			int count = result.length;
+			for (int pos = 0; pos < keys.length; pos++) {
+				if (keys[pos] != 0L && slots[pos].tag == tag && !slots[pos].failed) {
+					if (count == result.length)
+						result = Arrays.copyOf(result, count * 2 + 4);
+
+					result[count++] = keys[pos];
+				}
+			}
+
+			return Arrays.copyOf(result, count);
+		}
+
+		private long[] keys(long[] result) {
+			int count = result.length;
+			result = Arrays.copyOf(result, count + size);
+			for (int pos = 0; pos < keys.length; pos++)
+				if (keys[pos] != 0L && !slots[pos].failed)
+					result[count++] = keys[pos];
+
+			return Arrays.copyOf(result, count);
+		}
+
+		private void resize() {
+			var oldKeys = keys;
+			var oldSlots = slots;
+			keys = new long[oldKeys.length * 2];
+			slots = new Slot[oldSlots.length * 2];
+			int mask = keys.length - 1;
+
+			for (int oldPos = 0; oldPos < oldKeys.length; oldPos++) {
+				long key = oldKeys[oldPos];
+				if (key != 0L) {
+					int pos = indexOf(key, mask);
+					while (keys[pos] != 0L)
+						pos = (pos + 1) & mask;
+
+					keys[pos] = key;
+					slots[pos] = oldSlots[oldPos];
+				}
+			}
+		}
+
+		private Slot acquire() {
+			var slot = free;
+			if (slot == null)
+				return new Slot();
+
+			free = slot.next;
+			slot.next = null;
+			freeCount--;
+
+			return slot;
+		}
+
+		private void release(Slot slot) {
+			slot.key = 0L;
+			slot.tag = -1;
+			slot.failed = false;
+			slot.failure = null;
+			slot.message = null;
+			slot.metrics = null;
+			slot.deadline = 0L;
+			slot.call = null;
+			slot.waiter = null;
+
+			if (freeCount < MAX_FREE_SLOTS) {
+				slot.next = free;
+				free = slot;
+				freeCount++;
+			}
+		}
+
+		private static int indexOf(long key, int mask) {
+			return (int) (mix(key) >>> 32) & mask;
+		}
+	}
+}
@@ -16,30 +16,119 @@ limitations under the License.
 
 package io.hotmoka.websockets.client.internal;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.logging.Level;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
+import java.util.stream.LongStream;
 
+import io.hotmoka.annotations.GuardedBy;
 import io.hotmoka.annotations.ThreadSafe;
 import io.hotmoka.websockets.beans.api.ExceptionMessage;
 import io.hotmoka.websockets.beans.api.ResultMessage;
 import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.client.api.DisconnectedException;
+import io.hotmoka.websockets.client.api.InFlightPolicy;
+import io.hotmoka.websockets.client.api.RequestIdGenerator;
 
 /**
- * Implementation of a container of a queue of messages for each message id. When a message for that id arrives,
- * it gets dispatched to the waiting threads for that id.
+ * Implementation of a container of a single-slot hand-off for each message id. When a message for that id arrives,
+ * it gets dispatched to the waiting thread for that id, or used to complete the future for that id,
+ * if the call has been performed asynchronously. Message ids are yielded by a {@link RequestIdGenerator},
+ * that maps them into the numeric keys used to index the table of the pending requests.
  */
 @ThreadSafe
 class RPCMessageQueuesContainer {
+	/**
+	 * The time (in nanoseconds) allowed for a call to the network service.
+	 */
 	private final long timeout;
-	private final ConcurrentMap<String, BlockingQueue<RpcMessage>> queues = new ConcurrentHashMap<>();
+
+	/**
+	 * The requests still waiting for their reply.
+	 */
+	private final PendingTable pending = new PendingTable(this::onRemoval);
+
+	/**
+	 * The generator of the identifiers of the requests.
+	 */
+	private final RequestIdGenerator idGenerator;
+
+	/**
+	 * The timer that expires the requests that do not receive their reply in time.
+	 */
+	private final TimingWheel timer;
+
+	/**
+	 * The number of replies received after their request had already expired or completed.
+	 */
+	private final LongAdder lateReplies = new LongAdder();
+
+	/**
+	 * The number of requests aborted since their session or this container got closed.
+	 */
+	private final LongAdder aborted = new LongAdder();
+
+	/**
+	 * The permits for new requests, one for each request that can still be put in flight,
+	 * or {@code null} if the number of requests in flight is not limited.
+	 */
+	private volatile Semaphore permits;
+
+	/**
+	 * The maximal number of requests in flight, if {@link #permits} is not {@code null}.
+	 */
+	private volatile int maxInFlight;
+
+	/**
+	 * What to do if a new request is issued but no permit is available.
+	 */
+	private volatile InFlightPolicy policy = InFlightPolicy.BLOCK;
+
+	/**
+	 * The keys of the requests in the order they have been issued, if {@link #policy} is
+	 * {@link InFlightPolicy#SHED}. It might contain keys of requests that are not pending anymore.
+	 */
+	@GuardedBy("itself")
+	private final KeyQueue issued = new KeyQueue();
+
+	/**
+	 * The age (in nanoseconds) beyond which a pending request is considered leaked.
+	 */
+	private volatile long leakAge;
+
+	/**
+	 * The age, in number of timeouts, beyond which a pending request is considered leaked.
+	 */
+	private volatile int leakTimeouts = 3;
+
+	/**
+	 * The policy that derives the timeouts of the requests from their observed latencies;
+	 * if this is {@code null}, all requests use {@link #timeout}.
+	 */
+	private volatile AdaptiveTimeouts adaptiveTimeouts;
+
+	/**
+	 * Called with the tag of each tagged request, when it gets removed.
+	 */
+	private volatile IntConsumer onTaggedRemoval = tag -> {};
+
+	/**
+	 * Called with the identifier and the tag of each tagged request that is abandoned
+	 * while the server might still be processing it.
+	 */
+	private volatile ObjIntConsumer<String> onAbandoned = (id, tag) -> {};
 
 	private final static Logger LOGGER = Logger.getLogger(RPCMessageQueuesContainer.class.getName());
 
@@ -48,9 +137,114 @@ class RPCMessageQueuesContainer {
 	 * 
 	 * @param timeout the time (in milliseconds) allowed for a call to the network service;
 	 *                beyond that threshold, a timeout exception is thrown
+	 * @param idGenerator the generator of the identifiers of the requests
+	 */
+	RPCMessageQueuesContainer(long timeout, RequestIdGenerator idGenerator) {
+		this.timeout = TimeUnit.MILLISECONDS.toNanos(timeout);
+		this.idGenerator = idGenerator;
+		this.leakAge = leakTimeouts * this.timeout;
+		this.timer = new TimingWheel("remote-timer", this::expire, this::detectLeaks);
+	}
+
+	/**
+	 * Limits the number of requests that can be in flight at the same time.
+	 * This must be called before any request is issued.
+	 * 
+	 * @param maxInFlight the maximal number of requests in flight
+	 * @param policy what to do when a new request is issued while {@code maxInFlight} requests are in flight
+	 */
+	void setMaxInFlight(int maxInFlight, InFlightPolicy policy) {
+		this.policy = policy;
+		this.maxInFlight = maxInFlight;
+		this.permits = new Semaphore(maxInFlight);
+	}
+
+	/**
+	 * Sets the age, in number of timeouts, beyond which a pending request is considered leaked.
+	 * Leaked requests are reported in the logs and removed.
+	 * 
+	 * @param timeouts the number of timeouts
 	 */
-	RPCMessageQueuesContainer(long timeout) {
-		this.timeout = timeout;
+	void setLeakThreshold(int timeouts) {
+		this.leakTimeouts = timeouts;
+		updateLeakAge();
+	}
+
+	/**
+	 * Derives the timeout of the requests of each type from the latencies observed for that type,
+	 * according to the given policy, rather than using the same timeout for all requests.
+	 * 
+	 * @param adaptiveTimeouts the policy
+	 */
+	void setAdaptiveTimeouts(AdaptiveTimeouts adaptiveTimeouts) {
+		this.adaptiveTimeouts = adaptiveTimeouts;
+		updateLeakAge();
+	}
+
+	private void updateLeakAge() {
+		// requests allowed to wait beyond the timeout must not be considered leaked
+		var adaptiveTimeouts = this.adaptiveTimeouts;
+		long longest = adaptiveTimeouts == null ? timeout : Math.max(timeout, adaptiveTimeouts.ceiling());
+		this.leakAge = leakTimeouts * longest;
+	}
+
+	/**
+	 * Yields the timeout for the next request whose type has the given statistics.
+	 * 
+	 * @param metrics the statistics of the type of the request
+	 * @return the timeout, in nanoseconds
+	 */
+	long timeoutFor(RpcMetrics metrics) {
+		var adaptiveTimeouts = this.adaptiveTimeouts;
+		return adaptiveTimeouts == null ? timeout : metrics.timeout(adaptiveTimeouts);
+	}
+
+	/**
+	 * Closes this container, by stopping its timer. The requests still waiting
+	 * for their reply are aborted with a {@link DisconnectedException}.
+	 * 
+	 * @param reason the reason of the closure, reported in the exceptions
+	 */
+	void close(String reason) {
+		timer.stop();
+		abort(pending.keys(), reason, id -> false);
+	}
+
+	/**
+	 * Aborts the requests with the given tag that are still waiting for their reply,
+	 * since the session they have been sent through has been closed.
+	 * They are failed with a {@link DisconnectedException}.
+	 * 
+	 * @param tag the tag of the requests
+	 * @param reason the reason of the closure, reported in the exceptions
+	 * @param spared the identifiers of the requests that must not be aborted
+	 */
+	void abort(int tag, String reason, Predicate<String> spared) {
+		abort(pending.taggedWith(tag), reason, spared);
+	}
+
+	private void abort(long[] keys, String reason, Predicate<String> spared) {
+		for (long key: keys)
+			if (!spared.test(idGenerator.toId(key)) && pending.fail(key, new DisconnectedException(reason)))
+				aborted.increment();
+	}
+
+	/**
+	 * Yields the number of requests aborted since their session or this container got closed.
+	 * 
+	 * @return the number of aborted requests
+	 */
+	long getAbortedRequests() {
+		return aborted.sum();
+	}
+
+	/**
+	 * Yields the number of replies received after their request had already expired or completed.
+	 * 
+	 * @return the number of late replies
+	 */
+	long getLateReplies() {
+		return lateReplies.sum();
 	}
 
 	/**
@@ -59,21 +253,123 @@ class RPCMessageQueuesContainer {
 	 * @return the identifier
 	 */
 	final String nextId() {
-		String id = UUID.randomUUID().toString();
-		queues.put(id, new ArrayBlockingQueue<>(10));
-		return id;
+		var permits = this.permits;
+		if (permits != null)
+			acquire(permits);
+
+		long key = idGenerator.nextKey();
+		pending.register(key);
+		timer.schedule(key, System.nanoTime() + timeout);
+
+		if (permits != null && policy == InFlightPolicy.SHED) {
+			synchronized (issued) {
+				issued.add(key);
+				// we compact the queue of issued keys if it contains too many keys of completed requests
+				if (issued.size() > 4 * maxInFlight + 64)
+					issued.retainIf(pending::contains);
+			}
+		}
+
+		return idGenerator.toId(key);
+	}
+
+	/**
+	 * Acquires a permit for a new request, according to the policy of this container.
+	 * 
+	 * @param permits the permits
+	 * @throws RejectedExecutionException if no permit could be acquired
+	 */
+	private void acquire(Semaphore permits) {
+		switch (policy) {
+		case FAIL_FAST:
+			if (!permits.tryAcquire())
+				throw new RejectedExecutionException("Too many requests in flight");
+
+			break;
+		case SHED:
+			while (!permits.tryAcquire())
+				if (!shedOldest())
+					// nothing to shed: all permits are held by requests that are being issued right now
+					await(permits);
+
+			break;
+		case BLOCK:
+			await(permits);
+		}
+	}
+
+	private void await(Semaphore permits) {
+		try {
+			if (!permits.tryAcquire(timeout, TimeUnit.NANOSECONDS))
+				throw new RejectedExecutionException("Too many requests in flight: no request completed within the timeout");
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for a request to complete");
+		}
+	}
+
+	/**
+	 * Aborts the oldest pending request, if any.
+	 * 
+	 * @return true if and only if a request has been aborted
+	 */
+	private boolean shedOldest() {
+		while (true) {
+			long key;
+
+			synchronized (issued) {
+				if (issued.size() == 0)
+					return false;
+
+				key = issued.remove();
+			}
+
+			if (abandon(key, new RejectedExecutionException("The request has been shed to make room for newer requests")))
+				return true;
+		}
+	}
+
+	/**
+	 * Called whenever a request is removed from the table of the pending requests.
+	 * 
+	 * @param tag the tag of the request, or -1 if it has no tag
+	 */
+	private void onRemoval(int tag) {
+		var permits = this.permits;
+		if (permits != null)
+			permits.release();
+
+		if (tag >= 0)
+			onTaggedRemoval.accept(tag);
+	}
+
+	/**
+	 * Reports and removes the pending requests older than the leak threshold.
+	 */
+	private void detectLeaks() {
+		// long-lived streams are not leaked, since they expire when idle
+		var leaked = LongStream.of(pending.registeredBefore(System.nanoTime() - leakAge))
+			.filter(key -> !(pending.getCall(key) instanceof StreamCall<?>))
+			.toArray();
+
+		if (leaked.length > 0) {
+			LOGGER.warning("remote: found " + leaked.length + " pending requests older than " + leakAge / timeout + " timeouts: they are removed since they have probably leaked");
+			for (long key: leaked)
+				pending.fail(key, null);
+		}
 	}
 
 	final <T> T waitForResult(String id, Class<? extends ResultMessage<T>> messageClass) throws TimeoutException, InterruptedException {
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em)
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				unexpectedException(key, em);
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -84,17 +380,17 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1)
 			throws TimeoutException, InterruptedException, E1 {
 	
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -105,18 +401,18 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1, Class<E2> exceptionClass2)
 			throws TimeoutException, InterruptedException, E1, E2 {
 	
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				throwException(id, exceptionClass2, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				throwException(key, exceptionClass2, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -127,19 +423,19 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1, Class<E2> exceptionClass2, Class<E3> exceptionClass3)
 			throws TimeoutException, InterruptedException, E1, E2, E3 {
 	
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				throwException(id, exceptionClass2, em);
-				throwException(id, exceptionClass3, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				throwException(key, exceptionClass2, em);
+				throwException(key, exceptionClass3, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -150,20 +446,20 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1, Class<E2> exceptionClass2, Class<E3> exceptionClass3, Class<E4> exceptionClass4)
 			throws TimeoutException, InterruptedException, E1, E2, E3, E4 {
 
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				throwException(id, exceptionClass2, em);
-				throwException(id, exceptionClass3, em);
-				throwException(id, exceptionClass4, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				throwException(key, exceptionClass2, em);
+				throwException(key, exceptionClass3, em);
+				throwException(key, exceptionClass4, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -174,21 +470,21 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1, Class<E2> exceptionClass2, Class<E3> exceptionClass3, Class<E4> exceptionClass4, Class<E5> exceptionClass5)
 		throws TimeoutException, InterruptedException, E1, E2, E3, E4, E5 {
 
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				throwException(id, exceptionClass2, em);
-				throwException(id, exceptionClass3, em);
-				throwException(id, exceptionClass4, em);
-				throwException(id, exceptionClass5, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				throwException(key, exceptionClass2, em);
+				throwException(key, exceptionClass3, em);
+				throwException(key, exceptionClass4, em);
+				throwException(key, exceptionClass5, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -199,22 +495,22 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1, Class<E2> exceptionClass2, Class<E3> exceptionClass3, Class<E4> exceptionClass4, Class<E5> exceptionClass5, Class<E6> exceptionClass6)
 		throws TimeoutException, InterruptedException, E1, E2, E3, E4, E5, E6 {
 	
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				throwException(id, exceptionClass2, em);
-				throwException(id, exceptionClass3, em);
-				throwException(id, exceptionClass4, em);
-				throwException(id, exceptionClass5, em);
-				throwException(id, exceptionClass6, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				throwException(key, exceptionClass2, em);
+				throwException(key, exceptionClass3, em);
+				throwException(key, exceptionClass4, em);
+				throwException(key, exceptionClass5, em);
+				throwException(key, exceptionClass6, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -225,23 +521,23 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1, Class<E2> exceptionClass2, Class<E3> exceptionClass3, Class<E4> exceptionClass4, Class<E5> exceptionClass5, Class<E6> exceptionClass6,  Class<E7> exceptionClass7)
 		throws TimeoutException, InterruptedException, E1, E2, E3, E4, E5, E6, E7 {
 	
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				throwException(id, exceptionClass2, em);
-				throwException(id, exceptionClass3, em);
-				throwException(id, exceptionClass4, em);
-				throwException(id, exceptionClass5, em);
-				throwException(id, exceptionClass6, em);
-				throwException(id, exceptionClass7, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				throwException(key, exceptionClass2, em);
+				throwException(key, exceptionClass3, em);
+				throwException(key, exceptionClass4, em);
+				throwException(key, exceptionClass5, em);
+				throwException(key, exceptionClass6, em);
+				throwException(key, exceptionClass7, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
@@ -252,30 +548,166 @@ class RPCMessageQueuesContainer {
 		(String id, Class<? extends ResultMessage<T>> messageClass, Class<E1> exceptionClass1, Class<E2> exceptionClass2, Class<E3> exceptionClass3, Class<E4> exceptionClass4, Class<E5> exceptionClass5, Class<E6> exceptionClass6,  Class<E7> exceptionClass7, Class<E8> exceptionClass8)
 		throws TimeoutException, InterruptedException, E1, E2, E3, E4, E5, E6, E7, E8 {
 	
-		long startTime = System.currentTimeMillis();
+		long key = keyOf(id);
 	
 		while (true) {
-			RpcMessage message = poll(id, startTime);
+			RpcMessage message = poll(key);
 	
 			if (message instanceof ExceptionMessage em) {
-				throwException(id, exceptionClass1, em);
-				throwException(id, exceptionClass2, em);
-				throwException(id, exceptionClass3, em);
-				throwException(id, exceptionClass4, em);
-				throwException(id, exceptionClass5, em);
-				throwException(id, exceptionClass6, em);
-				throwException(id, exceptionClass7, em);
-				throwException(id, exceptionClass8, em);
-				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				throwException(key, exceptionClass1, em);
+				throwException(key, exceptionClass2, em);
+				throwException(key, exceptionClass3, em);
+				throwException(key, exceptionClass4, em);
+				throwException(key, exceptionClass5, em);
+				throwException(key, exceptionClass6, em);
+				throwException(key, exceptionClass7, em);
+				throwException(key, exceptionClass8, em);
+				unexpectedException(key, em);
 			}
 			else {
-				var maybeResult = processMessage(id, messageClass, message);
+				var maybeResult = processMessage(key, messageClass, message);
 				if (maybeResult.isPresent())
 					return maybeResult.get().orElse(null);
 			}
 		}
 	}
 
+	/**
+	 * Registers an asynchronous call for the given identifier, previously yielded by {@link #nextId()}.
+	 * From now on, the messages for that identifier will be used to complete the resulting future,
+	 * instead of being enqueued for a waiting thread.
+	 * 
+	 * @param <T> the type of the replied value
+	 * @param id the identifier
+	 * @param messageClass the class of the expected message
+	 * @param exceptionClasses the classes of the exceptions that could be received; any other exception is ignored
+	 * @return the future that will be completed with the replied value or with the received exception;
+	 *         it is completed with a {@link TimeoutException} if the request expires before a message arrives
+	 */
+	final <T> CompletableFuture<T> registerFuture(String id, Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses) {
+		long key = keyOf(id);
+		var call = new FutureCall<>(messageClass, exceptionClasses);
+		if (!pending.bind(key, call))
+			throw new IllegalArgumentException("Unknown message id " + id);
+
+		call.future.whenComplete((_result, _exception) -> {
+			if (call.future.isCancelled())
+				abandon(key);
+			else
+				pending.remove(key);
+		});
+
+		return call.future;
+	}
+
+	/**
+	 * Registers a streaming call for the given identifier, previously yielded by {@link #nextId()}.
+	 * From now on, the messages for that identifier will be delivered to the given call,
+	 * until the end of the stream. A streaming call times out if it receives no message and
+	 * its subscriber requests no more messages for longer than the timeout.
+	 * 
+	 * @param id the identifier
+	 * @param call the call
+	 */
+	final void registerStream(String id, StreamCall<?> call) {
+		if (!pending.bind(keyOf(id), call))
+			throw new IllegalArgumentException("Unknown message id " + id);
+	}
+
+	/**
+	 * Sets the callback called with the tag of each tagged request, when it gets removed
+	 * because it has been replied, it timed out or it has been aborted.
+	 * 
+	 * @param onTaggedRemoval the callback; it must be fast, since it is called while holding a lock
+	 */
+	void setOnTaggedRemoval(IntConsumer onTaggedRemoval) {
+		this.onTaggedRemoval = onTaggedRemoval;
+	}
+
+	/**
+	 * Sets the callback called with the identifier and the tag of each tagged request that is abandoned
+	 * while the server might still be processing it, since it timed out, its waiting thread has been
+	 * interrupted, its future has been cancelled or it has been shed to make room for newer requests.
+	 * Streaming calls are not reported, since they let the server know by themselves.
+	 * 
+	 * @param onAbandoned the callback
+	 */
+	void setOnAbandoned(ObjIntConsumer<String> onAbandoned) {
+		this.onAbandoned = onAbandoned;
+	}
+
+	/**
+	 * Records that the request with the given identifier is being sent, if it is still waiting for its result.
+	 * 
+	 * @param id the identifier
+	 * @param tag the tag of the request; if negative, the request remains untagged
+	 * @param metrics the statistics of the type of the request, that get updated when its reply arrives or when it times out
+	 * @return true if and only if the request is still waiting for its result
+	 */
+	final boolean sent(String id, int tag, RpcMetrics metrics) {
+		long key = keyOf(id);
+		var adaptiveTimeouts = this.adaptiveTimeouts;
+		if (adaptiveTimeouts == null)
+			return pending.sent(key, tag, metrics, 0L);
+
+		long timeout = metrics.timeout(adaptiveTimeouts);
+		if (!pending.sent(key, tag, metrics, timeout))
+			return false;
+
+		// a deadline later than the timeout gets enforced when the timeout expires (see expire())
+		if (timeout < this.timeout)
+			timer.schedule(key, System.nanoTime() + timeout);
+
+		return true;
+	}
+
+	/**
+	 * Determines if the request with the given identifier is still waiting for its result.
+	 * 
+	 * @param id the identifier
+	 * @return true if and only if that condition holds
+	 */
+	final boolean isPending(String id) {
+		return pending.contains(keyOf(id));
+	}
+
+	/**
+	 * Determines if the given identifier has been generated for a request of this container,
+	 * regardless of whether that request is still waiting for its result.
+	 * 
+	 * @param id the identifier
+	 * @return true if and only if that condition holds
+	 */
+	final boolean isOwnId(String id) {
+		return keyOf(id) != 0L;
+	}
+
+	/**
+	 * Discards the request with the given identifier, that is not going to be sent.
+	 * 
+	 * @param id the identifier
+	 */
+	final void discard(String id) {
+		pending.remove(keyOf(id));
+	}
+
+	/**
+	 * Fails the request with the given identifier, if it is still waiting for its result,
+	 * since it could not be sent. An asynchronous call is completed with the given exception;
+	 * a synchronous waiter receives it wrapped into an {@link UncheckedIOException}.
+	 * 
+	 * @param id the identifier
+	 * @param exception the exception
+	 */
+	final void fail(String id, IOException exception) {
+		long key = keyOf(id);
+		var call = pending.getCall(key);
+		if (call != null)
+			call.fail(exception);
+		else
+			pending.fail(key, new UncheckedIOException(exception));
+	}
+
 	/**
 	 * Notifies the given message to the waiting queue for its identifier.
 	 * 
@@ -283,31 +715,112 @@ class RPCMessageQueuesContainer {
 	 */
 	void notifyResult(RpcMessage message) {
 		if (message != null) {
-			var queue = queues.get(message.getId());
-			if (queue != null) {
-				if (!queue.offer(message))
-					LOGGER.warning("remote: could not enqueue a message since the queue is full");
+			long key = keyOf(message.getId());
+
+			switch (pending.offer(key, message)) {
+			case DELIVERED:
+				break;
+			case FULL:
+				LOGGER.warning("remote: could not deliver a message since the previous one has not been consumed yet");
+				break;
+			case ASYNC:
+				long start = System.nanoTime();
+				var call = pending.getCall(key);
+				if (call != null && call.complete(message)) {
+					pending.remove(key);
+					var metrics = call.metrics;
+					if (metrics != null)
+						metrics.handOffDelay.record(System.nanoTime() - start);
+				}
+
+				break;
+			case MISSING:
+				if (key != 0L)
+					lateReplies.increment();
+
+				LOGGER.warning("remote: received a message of type " + message.getClass().getName() + " but its id \"" + message.getId() + "\" has no corresponding waiting request");
 			}
-			else
-				LOGGER.warning("remote: received a message of type " + message.getClass().getName() + " but its id \"" + message.getId() + "\" has no corresponding waiting queue");
 		}
 	}
 
-	private RpcMessage poll(String id, long startTime) throws TimeoutException, InterruptedException {
+	/**
+	 * Expires the request with the given key, if it is still pending.
+	 * 
+	 * @param key the key of the request
+	 */
+	private void expire(long key) {
+		// a stream expires only if it has been idle for the whole timeout
+		if (pending.getCall(key) instanceof StreamCall<?> stream) {
+			long deadline = stream.getLastActivity() + timeout;
+			if (deadline - System.nanoTime() > 0L) {
+				timer.schedule(key, deadline);
+				return;
+			}
+		}
+
+		// a request with a deadline of its own expires at that deadline
+		long deadline = pending.deadlineOf(key);
+		if (deadline != 0L && deadline - System.nanoTime() > 0L) {
+			timer.schedule(key, deadline);
+			return;
+		}
+
+		abandon(key, null);
+	}
+
+	/**
+	 * Fails the request with the given key, reporting it to the callback of the abandoned requests.
+	 * 
+	 * @param key the key of the request
+	 * @param failure the failure; if this is {@code null}, the request is expired as if it timed out
+	 * @return true if and only if the request was present
+	 */
+	private boolean abandon(long key, RuntimeException failure) {
+		var call = pending.getCall(key);
+		int tag = pending.tagOf(key);
+		if (!pending.fail(key, failure))
+			return false;
+
+		if (tag >= 0 && !(call instanceof StreamCall<?>))
+			onAbandoned.accept(idGenerator.toId(key), tag);
+
+		return true;
+	}
+
+	/**
+	 * Removes the request with the given key, reporting it to the callback of the abandoned requests.
+	 * 
+	 * @param key the key of the request
+	 */
+	private void abandon(long key) {
+		int tag = pending.tagOf(key);
+		if (pending.remove(key) && tag >= 0)
+			onAbandoned.accept(idGenerator.toId(key), tag);
+	}
+
+	/**
+	 * Yields the key of the pending request with the given identifier.
+	 * 
+	 * @param id the identifier
+	 * @return the key, or 0 if {@code id} has not been generated by this container
+	 */
+	private long keyOf(String id) {
+		return idGenerator.toKey(id);
+	}
+
+	private RpcMessage poll(long key) throws TimeoutException, InterruptedException {
 		RpcMessage message;
 	
 		try {
-			message = queues.get(id).poll(timeout - (System.currentTimeMillis() - startTime), TimeUnit.MILLISECONDS);
+			message = pending.take(key);
 		}
 		catch (InterruptedException e) {
-			queues.remove(id);
+			abandon(key);
 			throw e;
 		}
 	
-		if (message == null) { // time-out
-			queues.remove(id);
+		if (message == null) // the request has been expired
 			throw new TimeoutException();
-		}
 	
 		return message;
 	}
@@ -316,13 +829,13 @@ class RPCMessageQueuesContainer {
 	 * Processes the given message.
 	 * 
 	 * @param <T> the type of the result carried by the message
-	 * @param id the identifier of the RPC call
+	 * @param key the key of the RPC call
 	 * @param messageClass the expected class of the message
 	 * @param message the message
 	 * @return empty if the message is not of the expected class; otherwise it carries the result of the message,
 	 *         which is itself optional since methods might return null
 	 */
-	private <T> Optional<Optional<T>> processMessage(String id, Class<? extends ResultMessage<T>> messageClass, RpcMessage message) {
+	private <T> Optional<Optional<T>> processMessage(long key, Class<? extends ResultMessage<T>> messageClass, RpcMessage message) {
 		ResultMessage<T> messageAsM;
 
 		try {
@@ -330,29 +843,197 @@ class RPCMessageQueuesContainer {
 		}
 		catch (ClassCastException e) {
 			LOGGER.warning("remote: expected message of class " + messageClass.getName() + " but received a " + message.getClass().getName());
+			var metrics = pending.getMetrics(key);
+			if (metrics != null)
+				metrics.unexpectedReplies.increment();
+
 			return Optional.empty();
 		}
 
-		queues.remove(id);
+		pending.remove(key);
 
 		return Optional.of(Optional.ofNullable(messageAsM.get()));
 	}
 
-	private <E extends Exception> void throwException(String id, Class<E> exception, ExceptionMessage em) throws E {
+	private void unexpectedException(long key, ExceptionMessage em) {
+		if (RejectedExecutionException.class.isAssignableFrom(em.getExceptionClass())) {
+			// the server was overloaded: there is no point in waiting for a reply until the timeout
+			pending.remove(key);
+			throw rejected(em);
+		}
+
+		LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+		var metrics = pending.getMetrics(key);
+		if (metrics != null)
+			metrics.unexpectedReplies.increment();
+	}
+
+	private <E extends Exception> void throwException(long key, Class<E> exception, ExceptionMessage em) throws E {
 		if (exception.isAssignableFrom(em.getExceptionClass())) {
-			queues.remove(id);
+			pending.remove(key);
+			throw ExceptionFactory.mk(exception, em);
+		}
+	}
+
+	/**
+	 * Yields the exception thrown for a request that the server rejected since it was overloaded.
+	 * 
+	 * @param em the exception message sent by the server
+	 * @return the exception
+	 */
+	private static RejectedExecutionException rejected(ExceptionMessage em) {
+		return new RejectedExecutionException(em.getMessage().orElse("The request has been rejected by the server"));
+	}
+
+	/**
+	 * An asynchronous call, whose replies are delivered through callbacks rather than to a waiting thread.
+	 */
+	abstract static class AsyncCall {
+
+		/**
+		 * The statistics of the type of the request, once it has been sent.
+		 */
+		volatile RpcMetrics metrics;
+
+		/**
+		 * Fails this call with the given exception.
+		 * 
+		 * @param exception the exception
+		 */
+		abstract void fail(Exception exception);
+
+		/**
+		 * Delivers the given message to this call, if it is an expected message.
+		 * 
+		 * @param message the message
+		 * @return true if and only if this call is over and will not accept further messages
+		 */
+		abstract boolean complete(RpcMessage message);
 
-			try {
-				throw exception.getConstructor(String.class).newInstance(em.getMessage().orElse(null));
+		/**
+		 * Records that an unexpected message has been received for this call.
+		 */
+		protected final void unexpected() {
+			var metrics = this.metrics;
+			if (metrics != null)
+				metrics.unexpectedReplies.increment();
+		}
+	}
+
+	/**
+	 * An asynchronous call, whose result is delivered through a future.
+	 * 
+	 * @param <T> the type of the replied value
+	 */
+	private static class FutureCall<T> extends AsyncCall {
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+		private final Class<? extends ResultMessage<T>> messageClass;
+		private final List<Class<? extends Exception>> exceptionClasses;
+
+		private FutureCall(Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses) {
+			this.messageClass = messageClass;
+			this.exceptionClasses = exceptionClasses;
+		}
+
+		/**
+		 * Completes the future of this call exceptionally.
+		 * 
+		 * @param exception the exception
+		 */
+		@Override
+		void fail(Exception exception) {
+			future.completeExceptionally(exception);
+		}
+
+		/**
+		 * Completes the future of this call with the given message, if it is an expected message.
+		 * 
+		 * @param message the message
+		 * @return true if and only if the future has been completed
+		 */
+		@Override
+		boolean complete(RpcMessage message) {
+			if (message instanceof ExceptionMessage em) {
+				for (var exceptionClass: exceptionClasses) {
+					if (exceptionClass.isAssignableFrom(em.getExceptionClass())) {
+						try {
+							future.completeExceptionally(ExceptionFactory.mk(exceptionClass, em));
+						}
+						catch (RuntimeException e) {
+							future.completeExceptionally(e);
+						}
+
+						return true;
+					}
+				}
+
+				if (RejectedExecutionException.class.isAssignableFrom(em.getExceptionClass())) {
+					future.completeExceptionally(rejected(em));
+					return true;
+				}
+
+				LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+				unexpected();
+				return false;
+			}
+			else if (messageClass.isInstance(message)) {
+				future.complete(messageClass.cast(message).get());
+				return true;
 			}
-			catch (ReflectiveOperationException e) {
-				LOGGER.log(Level.SEVERE, "remote: cannot instantiate the exception type: " + exception.getName(), e);
-				throw new RuntimeException(e);
+			else {
+				LOGGER.warning("remote: expected message of class " + messageClass.getName() + " but received a " + message.getClass().getName());
+				unexpected();
+				return false;
 			}
-			catch (IllegalArgumentException | SecurityException e) {
-				LOGGER.log(Level.SEVERE, "remote: cannot instantiate the exception type: " + exception.getName(), e);
-				throw e;
+		}
+	}
+
+	/**
+	 * A first-in first-out queue of keys, implemented as a growable ring buffer.
+	 */
+	private static class KeyQueue {
+		private long[] keys = new long[64];
+		private int head;
+		private int size;
+
+		private int size() {
+			return size;
+		}
+
+		private void add(long key) {
+			if (size == keys.length) {
+				var larger = new long[size * 2];
+				for (int pos = 0; pos < size; pos++)
+					larger[pos] = keys[(head + pos) % keys.length];
+
+				keys = larger;
+				head = 0;
+			}
+
+			keys[(head + size++) % keys.length] = key;
+		}
+
+		private long remove() {
+			long key = keys[head];
+			head = (head + 1) % keys.length;
+			size--;
+			return key;
+		}
+
+		/**
+		 * Removes the keys that do not satisfy the given condition, preserving the order of the others.
+		 * 
+		 * @param condition the condition
+		 */
+		private void retainIf(LongPredicate condition) {
+			int kept = 0;
+			for (int pos = 0; pos < size; pos++) {
+				long key = keys[(head + pos) % keys.length];
+				if (condition.test(key))
+					keys[(head + kept++) % keys.length] = key;
 			}
+
+			size = kept;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.client.api.RemoteStatisticsMXBean;
+import io.hotmoka.websockets.client.api.RpcStatistics;
+
+/**
+ * The statistics of the requests of a remote, for each type of requests.
+ */
+@ThreadSafe
+class RemoteStatistics implements RemoteStatisticsMXBean {
+
+	private final ConcurrentMap<Class<?>, RpcMetrics> metrics = new ConcurrentHashMap<>();
+
+	/**
+	 * The timeout of the remote, in nanoseconds.
+	 */
+	private final long defaultTimeout;
+
+	/**
+	 * Creates the statistics of the requests of a remote.
+	 * 
+	 * @param defaultTimeout the timeout of the remote, in nanoseconds
+	 */
+	RemoteStatistics(long defaultTimeout) {
+		this.defaultTimeout = defaultTimeout;
+	}
+
+	/**
+	 * Yields the statistics of the requests of the given type, creating them if needed.
+	 * 
+	 * @param type the type of the requests
+	 * @return the statistics
+	 */
+	RpcMetrics of(Class<?> type) {
+		var result = metrics.get(type);
+		return result != null ? result : metrics.computeIfAbsent(type, __ -> new RpcMetrics(type, defaultTimeout));
+	}
+
+	@Override
+	public List<RpcStatistics> getStatistics() {
+		return metrics.values().stream()
+			.map(RpcMetrics::snapshot)
+			.sorted(Comparator.comparing(RpcStatistics::getMessageType))
+			.toList();
+	}
+}
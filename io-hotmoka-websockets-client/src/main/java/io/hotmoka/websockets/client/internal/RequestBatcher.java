@@ -0,0 +1,158 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.beans.Batches;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import jakarta.websocket.Session;
+
+/**
+ * A coalescer of the requests sent through a session into batches. A batch is sent
+ * when it reaches its maximal size or when a time window has elapsed since its first request,
+ * whichever comes first. A batch with a single request is sent as that request alone.
+ */
+@ThreadSafe
+class RequestBatcher {
+
+	/**
+	 * The session used to send the batches.
+	 */
+	private final Session session;
+
+	/**
+	 * The maximal number of requests in a batch.
+	 */
+	private final int maxSize;
+
+	/**
+	 * The time window (in nanoseconds) after which a batch is sent, even if not full.
+	 */
+	private final long window;
+
+	/**
+	 * The executor used to send the batches at the end of their time window.
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Called with the identifier of each request that could not be sent, and the reason.
+	 */
+	private final BiConsumer<String, IOException> onFailure;
+
+	/**
+	 * The batch being filled, if any.
+	 */
+	@GuardedBy("this")
+	private List<RpcMessage> batch;
+
+	/**
+	 * Creates a batcher.
+	 * 
+	 * @param session the session used to send the batches
+	 * @param maxSize the maximal number of requests in a batch
+	 * @param window the time window (in nanoseconds) after which a batch is sent, even if not full
+	 * @param scheduler the executor used to send the batches at the end of their time window
+	 * @param onFailure called with the identifier of each request that could not be sent, and the reason
+	 */
+	RequestBatcher(Session session, int maxSize, long window, ScheduledExecutorService scheduler, BiConsumer<String, IOException> onFailure) {
+		this.session = session;
+		this.maxSize = maxSize;
+		this.window = window;
+		this.scheduler = scheduler;
+		this.onFailure = onFailure;
+	}
+
+	/**
+	 * Adds the given request to the batch being filled, sending the latter if full.
+	 * 
+	 * @param request the request
+	 */
+	void add(RpcMessage request) {
+		List<RpcMessage> full = null, started = null;
+
+		synchronized (this) {
+			if (batch == null)
+				started = batch = new ArrayList<>(maxSize);
+
+			batch.add(request);
+
+			if (batch.size() >= maxSize) {
+				full = batch;
+				batch = null;
+			}
+		}
+
+		if (full != null)
+			send(full);
+		else if (started != null) {
+			var scheduled = started;
+
+			try {
+				scheduler.schedule(() -> flush(scheduled), window, TimeUnit.NANOSECONDS);
+			}
+			catch (RejectedExecutionException e) {
+				// the remote is being closed
+				flush(scheduled);
+			}
+		}
+	}
+
+	/**
+	 * Sends the given batch, if it is still being filled.
+	 * 
+	 * @param scheduled the batch
+	 */
+	private void flush(List<RpcMessage> scheduled) {
+		synchronized (this) {
+			if (batch != scheduled)
+				return; // it has been sent already, since it became full
+
+			batch = null;
+		}
+
+		send(scheduled);
+	}
+
+	private void send(List<RpcMessage> requests) {
+		Object toSend = requests.size() == 1 ? requests.get(0) : Batches.of(requests);
+
+		try {
+			session.getAsyncRemote().sendObject(toSend, result -> {
+				if (!result.isOK())
+					fail(requests, new IOException(result.getException()));
+			});
+		}
+		catch (RuntimeException e) {
+			fail(requests, new IOException(e.getMessage()));
+		}
+	}
+
+	private void fail(List<RpcMessage> requests, IOException e) {
+		for (var request: requests)
+			onFailure.accept(request.getId(), e);
+	}
+}
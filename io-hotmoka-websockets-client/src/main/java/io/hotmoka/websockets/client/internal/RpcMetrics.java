@@ -0,0 +1,224 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.client.api.LatencySnapshot;
+import io.hotmoka.websockets.client.api.RpcStatistics;
+
+/**
+ * The statistics of the requests of a given type, sent by a remote.
+ */
+@ThreadSafe
+class RpcMetrics {
+
+	/**
+	 * The type of the requests.
+	 */
+	private final Class<?> type;
+
+	final LatencyHistogram sendLatency = new LatencyHistogram();
+	final LatencyHistogram roundTripLatency = new LatencyHistogram();
+	final LatencyHistogram handOffDelay = new LatencyHistogram();
+	final LongAdder requests = new LongAdder();
+	final LongAdder timeouts = new LongAdder();
+	final LongAdder exceptionReplies = new LongAdder();
+	final LongAdder unexpectedReplies = new LongAdder();
+
+	/**
+	 * The timeout of the remote, in nanoseconds.
+	 */
+	private final long defaultTimeout;
+
+	/**
+	 * The timeout currently applied to the requests of this type, in nanoseconds.
+	 */
+	private volatile long timeout;
+
+	/**
+	 * The time of the last update of {@link #timeout}, as given by {@link System#nanoTime()}.
+	 */
+	private volatile long lastUpdate;
+
+	/**
+	 * True while {@link #timeout} is being updated.
+	 */
+	private final AtomicBoolean updating = new AtomicBoolean();
+
+	/**
+	 * The number of requests at the last update of {@link #timeout}.
+	 */
+	@GuardedBy("updating")
+	private long requestsAtLastUpdate;
+
+	/**
+	 * The number of timeouts at the last update of {@link #timeout}.
+	 */
+	@GuardedBy("updating")
+	private long timeoutsAtLastUpdate;
+
+	/**
+	 * Creates the statistics of the requests of the given type.
+	 * 
+	 * @param type the type of the requests
+	 * @param defaultTimeout the timeout of the remote, in nanoseconds
+	 */
+	RpcMetrics(Class<?> type, long defaultTimeout) {
+		this.type = type;
+		this.defaultTimeout = defaultTimeout;
+		this.timeout = defaultTimeout;
+		this.lastUpdate = System.nanoTime() - AdaptiveTimeouts.REFRESH;
+	}
+
+	/**
+	 * Yields the timeout for the next request of this type. The timeout of the remote is used
+	 * until enough replies have been observed. Then the timeout gets derived from the round-trip
+	 * latencies of the replies, according to the given policy, and updated periodically.
+	 * 
+	 * @param policy the policy
+	 * @return the timeout, in nanoseconds
+	 */
+	long timeout(AdaptiveTimeouts policy) {
+		long now = System.nanoTime();
+		if (now - lastUpdate >= AdaptiveTimeouts.REFRESH && updating.compareAndSet(false, true)) {
+			try {
+				update(policy, now);
+			}
+			finally {
+				updating.set(false);
+			}
+		}
+
+		return timeout;
+	}
+
+	@GuardedBy("updating")
+	private void update(AdaptiveTimeouts policy, long now) {
+		var latency = roundTripLatency.snapshot();
+		long requests = this.requests.sum(), timeouts = this.timeouts.sum();
+		long recentRequests = requests - requestsAtLastUpdate, recentTimeouts = timeouts - timeoutsAtLastUpdate;
+		requestsAtLastUpdate = requests;
+		timeoutsAtLastUpdate = timeouts;
+		lastUpdate = now;
+
+		if (latency.getCount() < AdaptiveTimeouts.MIN_SAMPLES)
+			return;
+
+		long candidate = (long) Math.min(Long.MAX_VALUE, latency.getValueAtPercentile(policy.percentile()) * policy.multiplier());
+
+		// requests that time out never contribute to the latencies: if they are more than the percentile
+		// allows, the timeout is too tight and its latencies underestimate the actual ones, hence it is doubled
+		if (recentTimeouts > 0L && recentTimeouts > recentRequests * (100.0 - policy.percentile()) / 100.0)
+			candidate = Math.max(candidate, 2 * timeout);
+
+		timeout = policy.clamp(candidate);
+	}
+
+	/**
+	 * Yields a snapshot of these statistics.
+	 * 
+	 * @return the snapshot
+	 */
+	RpcStatistics snapshot() {
+		return new Snapshot(type.getName(), requests.sum(), timeouts.sum(), exceptionReplies.sum(), unexpectedReplies.sum(),
+			timeout, sendLatency.snapshot(), roundTripLatency.snapshot(), handOffDelay.snapshot());
+	}
+
+	/**
+	 * An immutable snapshot of the statistics of the requests of a given type.
+	 */
+	private static class Snapshot implements RpcStatistics {
+		private final String messageType;
+		private final long requests;
+		private final long timeouts;
+		private final long exceptionReplies;
+		private final long unexpectedReplies;
+		private final long timeout;
+		private final LatencySnapshot sendLatency;
+		private final LatencySnapshot roundTripLatency;
+		private final LatencySnapshot handOffDelay;
+
+		private Snapshot(String messageType, long requests, long timeouts, long exceptionReplies, long unexpectedReplies, long timeout,
+				LatencySnapshot sendLatency, LatencySnapshot roundTripLatency, LatencySnapshot handOffDelay) {
+
+			this.messageType = messageType;
+			this.requests = requests;
+			this.timeouts = timeouts;
+			this.exceptionReplies = exceptionReplies;
+			this.unexpectedReplies = unexpectedReplies;
+			this.timeout = timeout;
+			this.sendLatency = sendLatency;
+			this.roundTripLatency = roundTripLatency;
+			this.handOffDelay = handOffDelay;
+		}
+
+		@Override
+		public String getMessageType() {
+			return messageType;
+		}
+
+		@Override
+		public long getRequests() {
+			return requests;
+		}
+
+		@Override
+		public long getTimeouts() {
+			return timeouts;
+		}
+
+		@Override
+		public long getExceptionReplies() {
+			return exceptionReplies;
+		}
+
+		@Override
+		public long getUnexpectedReplies() {
+			return unexpectedReplies;
+		}
+
+		@Override
+		public long getTimeout() {
+			return timeout;
+		}
+
+		@Override
+		public LatencySnapshot getSendLatency() {
+			return sendLatency;
+		}
+
+		@Override
+		public LatencySnapshot getRoundTripLatency() {
+			return roundTripLatency;
+		}
+
+		@Override
+		public LatencySnapshot getHandOffDelay() {
+			return handOffDelay;
+		}
+
+		@Override
+		public String toString() {
+			return messageType + ": requests=" + requests + ", timeouts=" + timeouts + ", exceptions=" + exceptionReplies
+				+ ", unexpected=" + unexpectedReplies + ", timeout=" + timeout + "ns, round-trip=[" + roundTripLatency + "]";
+		}
+	}
+}
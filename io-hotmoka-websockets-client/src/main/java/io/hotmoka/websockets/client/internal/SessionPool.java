@@ -0,0 +1,161 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.client.AbstractRemote;
+import io.hotmoka.websockets.client.api.SessionPoolPolicy;
+import jakarta.websocket.Session;
+
+/**
+ * A pool of sessions connected to the same path, over which requests get spread.
+ */
+@ThreadSafe
+class SessionPool {
+
+	/**
+	 * The members of the pool.
+	 */
+	private final Member[] members;
+
+	/**
+	 * A counter used to choose the next member of the pool.
+	 */
+	private final AtomicInteger cursor = new AtomicInteger();
+
+	/**
+	 * Creates a pool.
+	 * 
+	 * @param members the members of the pool; there must be at least one
+	 */
+	SessionPool(Member[] members) {
+		this.members = members;
+	}
+
+	/**
+	 * Yields the members of this pool.
+	 * 
+	 * @return the members
+	 */
+	Member[] getMembers() {
+		return members.clone();
+	}
+
+	/**
+	 * Yields the session that should be used for the next request.
+	 * 
+	 * @param policy the policy used to choose the session
+	 * @return the session
+	 */
+	Session next(SessionPoolPolicy policy) {
+		int length = members.length;
+		if (length == 1)
+			return members[0].session;
+
+		// the cursor might overflow and become negative, hence its sign bit is removed
+		int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % length;
+		if (policy == SessionPoolPolicy.ROUND_ROBIN) {
+			// members being reconnected are skipped, if possible
+			for (int offset = 0; offset < length; offset++) {
+				var member = members[(start + offset) % length];
+				if (!member.reconnecting.get())
+					return member.session;
+			}
+
+			return members[start].session;
+		}
+
+		// the scan starts at a rotating position, so that ties get spread over the pool
+		Member best = null;
+		int min = Integer.MAX_VALUE;
+		for (int offset = 0; offset < length && min > 0; offset++) {
+			var member = members[(start + offset) % length];
+			int outstanding = member.outstanding.get();
+			if (outstanding < min && !member.reconnecting.get()) {
+				best = member;
+				min = outstanding;
+			}
+		}
+
+		return best != null ? best.session : members[start].session;
+	}
+
+	/**
+	 * A session of a pool, with the number of its requests still waiting for their reply.
+	 */
+	static class Member {
+
+		/**
+		 * The session. It changes when the member gets reconnected.
+		 */
+		volatile Session session;
+
+		/**
+		 * The URI where the session is connected.
+		 */
+		final URI uri;
+
+		/**
+		 * The supplier of the endpoint of the session, used for reconnecting it.
+		 */
+		final Supplier<AbstractRemote.Endpoint> endpoint;
+
+		/**
+		 * True while the session is being reconnected.
+		 */
+		final AtomicBoolean reconnecting = new AtomicBoolean();
+
+		/**
+		 * The idempotent requests sent through the session, that can be replayed after a reconnection.
+		 * It might contain requests that are not waiting for their reply anymore.
+		 */
+		final ConcurrentMap<String, RpcMessage> replayable = new ConcurrentHashMap<>();
+
+		/**
+		 * The tag of the requests sent through the session, unique among all sessions of the remote.
+		 */
+		final int tag;
+
+		/**
+		 * The number of requests sent through the session that are still waiting for their reply.
+		 */
+		final AtomicInteger outstanding = new AtomicInteger();
+
+		/**
+		 * Creates a member of a pool.
+		 * 
+		 * @param session the session
+		 * @param tag the tag of the requests sent through the session
+		 * @param uri the URI where the session is connected
+		 * @param endpoint the supplier of the endpoint of the session
+		 */
+		Member(Session session, int tag, URI uri, Supplier<AbstractRemote.Endpoint> endpoint) {
+			this.session = session;
+			this.tag = tag;
+			this.uri = uri;
+			this.endpoint = endpoint;
+		}
+	}
+}
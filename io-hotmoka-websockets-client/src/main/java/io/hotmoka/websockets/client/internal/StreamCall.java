@@ -0,0 +1,255 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.beans.api.ExceptionMessage;
+import io.hotmoka.websockets.beans.api.ResultMessage;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.beans.api.StreamEndMessage;
+import io.hotmoka.websockets.client.internal.RPCMessageQueuesContainer.AsyncCall;
+
+/**
+ * An asynchronous call whose replies are a stream of messages, terminated by a {@link StreamEndMessage}
+ * or by an exception message. The replies are delivered to a subscriber, that signals
+ * its demand for further replies. The demand is forwarded to the server as credit, so that the server
+ * never sends more replies than requested and no reply needs to be buffered here.
+ * Signals to the subscriber are serialized.
+ * 
+ * @param <T> the type of the values carried by the replies
+ */
+@ThreadSafe
+class StreamCall<T> extends AsyncCall implements Flow.Subscription {
+	private final Class<? extends ResultMessage<T>> messageClass;
+	private final List<Class<? extends Exception>> exceptionClasses;
+	private final Flow.Subscriber<? super T> subscriber;
+
+	/**
+	 * Called with the demand of the subscriber, to forward it to the server.
+	 */
+	private final LongConsumer onDemand;
+
+	/**
+	 * Called when the subscriber cancels its subscription or the stream gets aborted locally,
+	 * to let the server know that it can stop sending replies.
+	 */
+	private final Runnable onCancel;
+
+	/**
+	 * The number of replies requested by the subscriber and not yet delivered.
+	 */
+	@GuardedBy("this")
+	private long demand;
+
+	/**
+	 * True if the subscriber has received a terminal signal or has cancelled its subscription.
+	 */
+	@GuardedBy("this")
+	private boolean done;
+
+	/**
+	 * The last time, as given by {@link System#nanoTime()}, when a reply arrived or the subscriber
+	 * requested more replies.
+	 */
+	private volatile long lastActivity = System.nanoTime();
+
+	private final static Logger LOGGER = Logger.getLogger(StreamCall.class.getName());
+
+	/**
+	 * Creates the call.
+	 * 
+	 * @param messageClass the class of the replies
+	 * @param exceptionClasses the classes of the exceptions that could be received; any other exception is ignored
+	 * @param subscriber the subscriber of the replies
+	 * @param onDemand called with the demand of the subscriber, to forward it to the server
+	 * @param onCancel called when the stream is cancelled locally, to let the server know that it can stop
+	 */
+	StreamCall(Class<? extends ResultMessage<T>> messageClass, List<Class<? extends Exception>> exceptionClasses,
+			Flow.Subscriber<? super T> subscriber, LongConsumer onDemand, Runnable onCancel) {
+
+		this.messageClass = messageClass;
+		this.exceptionClasses = exceptionClasses;
+		this.subscriber = subscriber;
+		this.onDemand = onDemand;
+		this.onCancel = onCancel;
+	}
+
+	/**
+	 * Yields the last time when a reply arrived or the subscriber requested more replies.
+	 * 
+	 * @return the time, as given by {@link System#nanoTime()}
+	 */
+	long getLastActivity() {
+		return lastActivity;
+	}
+
+	@Override
+	public void request(long n) {
+		if (n <= 0L) {
+			signalError(new IllegalArgumentException("The number of requested elements must be positive"));
+			onCancel.run();
+			return;
+		}
+
+		synchronized (this) {
+			if (done)
+				return;
+
+			// saturates instead of overflowing
+			demand = demand + n < 0L ? Long.MAX_VALUE : demand + n;
+		}
+
+		lastActivity = System.nanoTime();
+		onDemand.accept(n);
+	}
+
+	@Override
+	public void cancel() {
+		synchronized (this) {
+			if (done)
+				return;
+
+			done = true;
+		}
+
+		onCancel.run();
+	}
+
+	@Override
+	void fail(Exception exception) {
+		// the server is informed, since it might still be sending replies, for instance after a timeout
+		if (signalError(exception))
+			onCancel.run();
+	}
+
+	@Override
+	boolean complete(RpcMessage message) {
+		if (message instanceof StreamEndMessage) {
+			synchronized (this) {
+				if (done)
+					return true;
+
+				done = true;
+			}
+
+			subscriber.onComplete();
+			return true;
+		}
+		else if (message instanceof ExceptionMessage em) {
+			for (var exceptionClass: exceptionClasses) {
+				if (exceptionClass.isAssignableFrom(em.getExceptionClass())) {
+					Exception exception;
+
+					try {
+						exception = ExceptionFactory.mk(exceptionClass, em);
+					}
+					catch (RuntimeException e) {
+						exception = e;
+					}
+
+					signalError(exception);
+					return true;
+				}
+			}
+
+			if (RejectedExecutionException.class.isAssignableFrom(em.getExceptionClass())) {
+				// the server was overloaded
+				signalError(new RejectedExecutionException(em.getMessage().orElse("The request has been rejected by the server")));
+				return true;
+			}
+
+			LOGGER.warning("remote: received unexpected exception of type " + em.getExceptionClass().getName());
+			unexpected();
+			return false;
+		}
+		else if (messageClass.isInstance(message)) {
+			lastActivity = System.nanoTime();
+			return deliver(messageClass.cast(message).get());
+		}
+		else {
+			LOGGER.warning("remote: expected message of class " + messageClass.getName() + " but received a " + message.getClass().getName());
+			unexpected();
+			return false;
+		}
+	}
+
+	/**
+	 * Delivers the given value to the subscriber.
+	 * 
+	 * @param value the value
+	 * @return true if and only if the stream is over
+	 */
+	private boolean deliver(T value) {
+		RuntimeException violation = null;
+
+		synchronized (this) {
+			if (done)
+				return true;
+			else if (value == null)
+				violation = new NullPointerException("The stream contains a null element");
+			else if (demand == 0L)
+				violation = new IllegalStateException("The server sent more elements than requested");
+			else {
+				if (demand != Long.MAX_VALUE)
+					demand--;
+
+				try {
+					// called while holding the lock, so that onNext is serialized with the other signals
+					subscriber.onNext(value);
+					return false;
+				}
+				catch (RuntimeException e) {
+					// a subscriber that throws is considered as having cancelled its subscription
+					LOGGER.warning("remote: the subscriber of a stream threw an exception: " + e.getMessage());
+					done = true;
+				}
+			}
+		}
+
+		if (violation != null)
+			signalError(violation);
+
+		onCancel.run();
+		return true;
+	}
+
+	/**
+	 * Signals the given error to the subscriber, unless it already received a terminal signal
+	 * or cancelled its subscription.
+	 * 
+	 * @param throwable the error
+	 * @return true if and only if the error has been signalled
+	 */
+	private boolean signalError(Throwable throwable) {
+		synchronized (this) {
+			if (done)
+				return false;
+
+			done = true;
+		}
+
+		subscriber.onError(throwable);
+		return true;
+	}
+}
@@ -0,0 +1,115 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.hotmoka.annotations.ThreadSafe;
+import io.hotmoka.websockets.client.api.RequestIdGenerator;
+
+/**
+ * A generator of request identifiers that uses a counter for each stripe, so that
+ * threads of distinct stripes do not contend for the same counter. The identifiers
+ * consist of a random prefix, chosen once for each generator, followed by the base-36
+ * representation of the key.
+ */
+@ThreadSafe
+public class StripedRequestIdGenerator implements RequestIdGenerator {
+
+	/**
+	 * The logarithm in base 2 of the number of stripes.
+	 */
+	private final static int STRIPES_LOG = 3;
+
+	private final static int STRIPES = 1 << STRIPES_LOG;
+
+	/**
+	 * The distance between the counters of two consecutive stripes, so that they lie in distinct cache lines.
+	 */
+	private final static int PADDING = 16;
+
+	/**
+	 * The length of the prefix of the identifiers.
+	 */
+	private final static int PREFIX_LENGTH = 4;
+
+	private final AtomicLongArray counters = new AtomicLongArray(STRIPES * PADDING);
+
+	/**
+	 * The prefix of the identifiers generated by this generator.
+	 */
+	private final String prefix;
+
+	/**
+	 * Creates the generator.
+	 */
+	public StripedRequestIdGenerator() {
+		var random = ThreadLocalRandom.current();
+		var chars = new char[PREFIX_LENGTH];
+		for (int pos = 0; pos < PREFIX_LENGTH; pos++)
+			chars[pos] = Character.forDigit(random.nextInt(Character.MAX_RADIX), Character.MAX_RADIX);
+
+		this.prefix = new String(chars);
+	}
+
+	@Override
+	public long nextKey() {
+		int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+		// the stripe is in the lowest bits, hence keys of distinct stripes are distinct; we add 1 since keys must be positive
+		return ((counters.getAndIncrement(stripe * PADDING) << STRIPES_LOG) | stripe) + 1;
+	}
+
+	@Override
+	public String toId(long key) {
+		// we build the identifier in place, since concatenation would create intermediate strings
+		int digits = 1;
+		for (long rest = key / Character.MAX_RADIX; rest > 0L; rest /= Character.MAX_RADIX)
+			digits++;
+
+		var chars = new char[PREFIX_LENGTH + digits];
+		prefix.getChars(0, PREFIX_LENGTH, chars, 0);
+		for (int pos = chars.length - 1; pos >= PREFIX_LENGTH; pos--, key /= Character.MAX_RADIX)
+			chars[pos] = Character.forDigit((int) (key % Character.MAX_RADIX), Character.MAX_RADIX);
+
+		return new String(chars);
+	}
+
+	@Override
+	public long toKey(String id) {
+		int length = id.length();
+		// larger keys are never generated in practice and could overflow
+		if (length <= PREFIX_LENGTH || length > PREFIX_LENGTH + 12 || !id.startsWith(prefix))
+			return 0L;
+
+		long key = 0L;
+		for (int pos = PREFIX_LENGTH; pos < length; pos++) {
+			char c = id.charAt(pos);
+			int digit;
+			if (c >= '0' && c <= '9')
+				digit = c - '0';
+			else if (c >= 'a' && c <= 'z')
+				digit = c - 'a' + 10;
+			else
+				return 0L;
+
+			key = key * Character.MAX_RADIX + digit;
+		}
+
+		return key;
+	}
+}
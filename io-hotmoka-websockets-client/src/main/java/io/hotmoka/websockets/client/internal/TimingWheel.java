@@ -0,0 +1,268 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.hotmoka.annotations.GuardedBy;
+import io.hotmoka.annotations.ThreadSafe;
+
+/**
+ * A hashed timing wheel that expires keys at their deadline. Time is split into ticks
+ * and each key is scheduled in the bucket of the tick of its deadline, modulo the number of buckets.
+ * A single thread advances the wheel, tick by tick, and passes the expired keys to a callback.
+ * That thread is only started when the first key gets scheduled and it sleeps while
+ * the wheel holds no keys. Keys are never cancelled: the callback must ignore keys
+ * that do not need expiration anymore.
+ * All times are measured with {@link System#nanoTime()}.
+ */
+@ThreadSafe
+class TimingWheel {
+
+	/**
+	 * The duration of a tick, in nanoseconds.
+	 */
+	private final static long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+
+	/**
+	 * The number of buckets. It must be a power of two.
+	 */
+	private final static int BUCKETS = 512;
+
+	/**
+	 * The number of ticks between two consecutive runs of the housekeeping task.
+	 */
+	private final static int HOUSEKEEPING_TICKS = 100;
+
+	private final Bucket[] buckets = new Bucket[BUCKETS];
+
+	/**
+	 * The time when the wheel has been created: ticks are counted from here.
+	 */
+	private final long origin = System.nanoTime();
+
+	/**
+	 * The callback for the expired keys.
+	 */
+	private final LongConsumer onExpired;
+
+	/**
+	 * A task run periodically by the thread that advances the wheel.
+	 */
+	private final Runnable housekeeping;
+
+	/**
+	 * The name of the thread that advances the wheel.
+	 */
+	private final String name;
+
+	/**
+	 * The number of keys currently scheduled in the wheel.
+	 */
+	private final AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * The thread that advances the wheel, or {@code null} if it has not been started yet.
+	 */
+	private volatile Thread ticker;
+
+	private volatile boolean stopped;
+
+	private final static Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+
+	/**
+	 * Creates a timing wheel. Its thread is started when the first key gets scheduled.
+	 *
+	 * @param name the name of the thread that advances the wheel
+	 * @param onExpired the callback for the expired keys; it is called by the thread that advances the wheel
+	 * @param housekeeping a task run about every second by the thread that advances the wheel,
+	 *                     as long as the wheel holds some key
+	 */
+	TimingWheel(String name, LongConsumer onExpired, Runnable housekeeping) {
+		this.name = name;
+		this.onExpired = onExpired;
+		this.housekeeping = housekeeping;
+
+		for (int pos = 0; pos < BUCKETS; pos++)
+			buckets[pos] = new Bucket();
+	}
+
+	/**
+	 * Schedules the expiration of the given key.
+	 *
+	 * @param key the key
+	 * @param deadline the time, as given by {@link System#nanoTime()}, when the key expires;
+	 *                 it must be in the future
+	 */
+	void schedule(long key, long deadline) {
+		var bucket = buckets[(int) (tickOf(deadline) & (BUCKETS - 1))];
+		boolean wasEmpty = count.getAndIncrement() == 0;
+
+		synchronized (bucket) {
+			bucket.add(key, deadline);
+		}
+
+		var ticker = this.ticker;
+		if (ticker == null)
+			start();
+		else if (wasEmpty)
+			// the thread might be sleeping
+			LockSupport.unpark(ticker);
+	}
+
+	private synchronized void start() {
+		if (ticker == null && !stopped) {
+			var ticker = new Thread(this::run, name);
+			ticker.setDaemon(true);
+			ticker.start();
+			this.ticker = ticker;
+		}
+	}
+
+	/**
+	 * Stops the wheel. Keys that have not expired yet will never expire.
+	 */
+	synchronized void stop() {
+		stopped = true;
+		if (ticker != null)
+			ticker.interrupt();
+	}
+
+	private long tickOf(long time) {
+		return (time - origin) / TICK;
+	}
+
+	private void run() {
+		var expired = new long[16];
+		long nextTick = 0L;
+
+		while (!stopped) {
+			long now = System.nanoTime();
+
+			if (count.get() == 0) {
+				// keys scheduled from now on expire at or after now, hence the ticks till now can be skipped
+				nextTick = Math.max(nextTick, tickOf(now));
+				LockSupport.park(this);
+				continue;
+			}
+
+			// a tick is processed once it is completely in the past
+			long wait = origin + (nextTick + 1) * TICK - now;
+			if (wait > 0L) {
+				LockSupport.parkNanos(this, wait);
+				continue;
+			}
+
+			var bucket = buckets[(int) (nextTick & (BUCKETS - 1))];
+			int size;
+
+			synchronized (bucket) {
+				size = bucket.removeExpired(nextTick, expired);
+				if (size > expired.length) {
+					expired = new long[size];
+					size = bucket.removeExpired(nextTick, expired);
+				}
+			}
+
+			count.addAndGet(-size);
+
+			// the callback is called outside the lock, since it might be expensive
+			for (int pos = 0; pos < size; pos++) {
+				try {
+					onExpired.accept(expired[pos]);
+				}
+				catch (RuntimeException e) {
+					LOGGER.log(Level.SEVERE, "timing wheel: the expiration callback failed", e);
+				}
+			}
+
+			if (++nextTick % HOUSEKEEPING_TICKS == 0L) {
+				try {
+					housekeeping.run();
+				}
+				catch (RuntimeException e) {
+					LOGGER.log(Level.SEVERE, "timing wheel: the housekeeping task failed", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The keys scheduled for the ticks that fall in the same bucket.
+	 */
+	private final class Bucket {
+
+		@GuardedBy("this")
+		private long[] keys = new long[8];
+
+		@GuardedBy("this")
+		private long[] deadlines = new long[8];
+
+		@GuardedBy("this")
+		private int size;
+
+		private void add(long key, long deadline) {
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+				deadlines = Arrays.copyOf(deadlines, size * 2);
+			}
+
+			keys[size] = key;
+			deadlines[size++] = deadline;
+		}
+
+		/**
+		 * Removes the keys whose deadline falls at or before the given tick
+		 * and copies them into the given array.
+		 *
+		 * @param tick the tick
+		 * @param expired the array where the expired keys are copied
+		 * @return the number of expired keys; if this is larger than the length of {@code expired},
+		 *         then nothing has been removed and the call must be repeated with a larger array
+		 */
+		private int removeExpired(long tick, long[] expired) {
+			int count = 0;
+			for (int pos = 0; pos < size; pos++)
+				if (tickOf(deadlines[pos]) <= tick)
+					count++;
+
+			if (count > expired.length || count == 0)
+				return count;
+
+			// the keys of later rounds of the wheel are compacted at the beginning of the arrays
+			int kept = 0, next = 0;
+			for (int pos = 0; pos < size; pos++) {
+				if (tickOf(deadlines[pos]) <= tick)
+					expired[next++] = keys[pos];
+				else {
+					keys[kept] = keys[pos];
+					deadlines[kept++] = deadlines[pos];
+				}
+			}
+
+			size = kept;
+
+			return count;
+		}
+	}
+}
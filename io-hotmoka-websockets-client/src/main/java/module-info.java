@@ -23,9 +23,11 @@ module io.hotmoka.websockets.client {
 	requires transitive io.hotmoka.websockets.client.api;
 	requires transitive jakarta.websocket;
 	requires io.hotmoka.websockets.beans.api;
+	requires io.hotmoka.websockets.beans;
 	requires io.hotmoka.closeables;
 	requires io.hotmoka.annotations;
 	requires transitive io.hotmoka.exceptions;
 	requires org.glassfish.tyrus.client;
 	requires java.logging;
+	requires java.management;
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.websockets.beans.api.ResultMessage;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+
+/**
+ * Measures the bytes allocated by the requesting thread for each request that receives
+ * its reply, with the table of the pending requests and with the map from identifiers to queues
+ * that it replaced. The reply is delivered by the requesting thread itself, before it waits
+ * for it, so that the whole round trip is measured, except for the reply message, that is reused.
+ */
+public class AllocationTests {
+
+	/**
+	 * The minimal number of requests performed before measuring, so that the code gets compiled.
+	 */
+	private final static int WARMUP = 200_000;
+
+	/**
+	 * The number of requests that are measured.
+	 */
+	private final static int MEASURED = 500_000;
+
+	/**
+	 * The timeout of the requests, in milliseconds. It is never reached, but the timer of the
+	 * container keeps each request until its timeout, hence the warmup lasts at least twice as much,
+	 * so that the timer is measured in its steady state.
+	 */
+	private final static long TIMEOUT = 500L;
+
+	@Test
+	@DisplayName("per request, the pending table allocates less than half the bytes of a queue for each request")
+	public void allocationPerRequest() throws TimeoutException, InterruptedException {
+		var reply = new Reply();
+		var before = new QueuePerRequest();
+		var after = new RPCMessageQueuesContainer(TIMEOUT, new StripedRequestIdGenerator());
+
+		try {
+			double bytesBefore = bytesPerRequest(() -> {
+				reply.id = before.nextId();
+				before.notifyResult(reply);
+				assertEquals("ok", before.waitForResult(reply.id));
+			});
+
+			double bytesAfter = bytesPerRequest(() -> {
+				reply.id = after.nextId();
+				after.notifyResult(reply);
+				assertEquals("ok", after.waitForResult(reply.id, Reply.class));
+			});
+
+			System.out.printf("bytes allocated per request: %.1f with a queue for each request, %.1f with the pending table%n", bytesBefore, bytesAfter);
+			assertTrue(bytesAfter * 2 < bytesBefore, "the pending table allocates " + bytesAfter + " bytes per request, against " + bytesBefore);
+		}
+		finally {
+			after.close("end of test");
+		}
+	}
+
+	private interface Request {
+		void perform() throws TimeoutException, InterruptedException;
+	}
+
+	private static double bytesPerRequest(Request request) throws TimeoutException, InterruptedException {
+		long end = System.currentTimeMillis() + 2 * TIMEOUT;
+		for (int counter = 0; counter < WARMUP || System.currentTimeMillis() < end; counter++)
+			request.perform();
+
+		long start = allocatedBytes();
+		for (int counter = 0; counter < MEASURED; counter++)
+			request.perform();
+
+		return (allocatedBytes() - start) / (double) MEASURED;
+	}
+
+	/**
+	 * Yields the bytes allocated so far by the current thread. The attribute is read through
+	 * the platform MBean server, so that no module beyond {@code java.management} is needed.
+	 */
+	private static long allocatedBytes() {
+		try {
+			return (Long) ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME), "CurrentThreadAllocatedBytes");
+		}
+		catch (JMException e) {
+			throw new IllegalStateException("cannot measure the allocated bytes", e);
+		}
+	}
+
+	/**
+	 * The hot path of the container of the pending requests before the introduction of {@link PendingTable}:
+	 * a random identifier and a queue for each request, kept in a concurrent map.
+	 */
+	private static class QueuePerRequest {
+		private final ConcurrentMap<String, BlockingQueue<RpcMessage>> queues = new ConcurrentHashMap<>();
+
+		private String nextId() {
+			String id = UUID.randomUUID().toString();
+			queues.put(id, new ArrayBlockingQueue<>(10));
+			return id;
+		}
+
+		private void notifyResult(RpcMessage message) {
+			var queue = queues.get(message.getId());
+			if (queue != null)
+				queue.offer(message);
+		}
+
+		private String waitForResult(String id) throws TimeoutException, InterruptedException {
+			long startTime = System.currentTimeMillis();
+			var message = queues.get(id).poll(TIMEOUT - (System.currentTimeMillis() - startTime), TimeUnit.MILLISECONDS);
+			queues.remove(id);
+			if (message == null)
+				throw new TimeoutException();
+
+			return ((Reply) message).get();
+		}
+	}
+
+	private static class Reply implements ResultMessage<String> {
+		private String id;
+
+		@Override
+		public String get() {
+			return "ok";
+		}
+
+		@Override
+		public String getType() {
+			return Reply.class.getName();
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+	}
+}
@@ -0,0 +1,307 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.client.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import io.hotmoka.websockets.beans.api.RpcMessage;
+
+/**
+ * Tests of the table of the pending requests of a remote.
+ */
+public class PendingTableTests {
+
+	/**
+	 * The initial capacity of each stripe of the table.
+	 */
+	private final static int CAPACITY = 16;
+
+	/**
+	 * The maximal number of requests in a stripe that does not resize it.
+	 */
+	private final static int MAX_UNRESIZED = CAPACITY / 2;
+
+	@Test
+	@DisplayName("requests whose probe chain wraps around the end of a stripe are found and removed")
+	public void wrapAroundProbeChains() {
+		var removed = new AtomicIntegerArray(1);
+		var table = new PendingTable(tag -> removed.incrementAndGet(0));
+
+		// five keys with the last position as home, spilling over the first positions, and one whose home is among them
+		var keys = new ArrayList<Long>();
+		for (long key: keysWithHome(CAPACITY - 1, 5, 1L))
+			keys.add(key);
+
+		keys.add(keysWithHome(1, 1, 1L)[0]);
+		keys.forEach(table::register);
+		keys.forEach(key -> assertTrue(table.contains(key)));
+
+		// removing from the start of the chain shifts back the rest of the chain, across the end of the stripe
+		for (int pos = 0; pos < keys.size(); pos++) {
+			long key = keys.get(pos);
+			assertTrue(table.remove(key));
+			assertFalse(table.contains(key));
+			assertFalse(table.remove(key));
+
+			for (long other: keys.subList(pos + 1, keys.size()))
+				assertTrue(table.contains(other), "request " + other + " has been lost when removing " + key);
+		}
+
+		assertEquals(keys.size(), removed.get(0));
+		assertArrayEquals(new long[0], table.keys());
+	}
+
+	@Test
+	@DisplayName("random insertions and removals in a single stripe agree with a map")
+	public void randomOperationsAgreeWithMap() {
+		var random = new Random(13L);
+		var table = new PendingTable(tag -> {});
+		var model = new HashMap<Long, Integer>();
+
+		// the keys crowd the end of the stripe, so that probe chains often wrap around
+		var candidates = new ArrayList<Long>();
+		for (int home: new int[] { CAPACITY - 2, CAPACITY - 1, 0 })
+			for (long key: keysWithHome(home, MAX_UNRESIZED, 1L))
+				candidates.add(key);
+
+		for (int step = 0; step < 100_000; step++) {
+			long key = candidates.get(random.nextInt(candidates.size()));
+			if (model.containsKey(key)) {
+				int tag = model.remove(key);
+				assertEquals(tag, table.tagOf(key));
+				assertTrue(table.remove(key));
+			}
+			else if (model.size() < MAX_UNRESIZED) {
+				int tag = random.nextInt(4);
+				table.register(key);
+				assertTrue(table.sent(key, tag, null, 0L));
+				model.put(key, tag);
+			}
+
+			for (long candidate: candidates)
+				assertEquals(model.containsKey(candidate), table.contains(candidate));
+		}
+
+		for (int tag = 0; tag < 4; tag++) {
+			int expected = tag;
+			assertEquals(model.values().stream().filter(value -> value == expected).count(), table.taggedWith(tag).length);
+		}
+	}
+
+	@Test
+	@DisplayName("a failed request without a waiter is kept until its waiter arrives, then its slot is recycled")
+	public void failureBeforeWaiterIsDelivered() throws InterruptedException {
+		var table = new PendingTable(tag -> {});
+		var failure = new IllegalStateException("closed");
+		table.register(1L);
+		assertTrue(table.fail(1L, failure));
+		assertFalse(table.contains(1L));
+		assertSame(failure, assertThrows(IllegalStateException.class, () -> table.take(1L)));
+		assertNull(table.take(1L));
+		assertEquals(0, table.registeredBefore(System.nanoTime() + 1L).length);
+	}
+
+	@Test
+	@Timeout(60)
+	@DisplayName("concurrent insertions, replies, failures and removals leave the table empty")
+	public void concurrentStress() throws InterruptedException, ExecutionException {
+		final int requesters = 4, repliers = 4, requestsPerRequester = 25_000;
+		var removals = new AtomicIntegerArray(requesters);
+		var table = new PendingTable(tag -> removals.incrementAndGet(tag));
+		var toReply = new LinkedBlockingQueue<Long>();
+
+		// all keys fall into the same stripe, that gets crowded and resized while probe chains wrap around
+		long[] keys = keysInStripe(0, requesters * requestsPerRequester);
+
+		var executors = Executors.newFixedThreadPool(requesters + repliers);
+		try {
+			var futures = new ArrayList<Future<?>>();
+
+			for (int replier = 0; replier < repliers; replier++) {
+				futures.add(executors.submit(() -> {
+					while (true) {
+						long key = toReply.take();
+						if (key == 0L)
+							return null;
+
+						switch (action(key)) {
+						case 0 -> {
+							// the request expires right after its failure, as if the timer had fired meanwhile
+							table.fail(key, new IllegalStateException(String.valueOf(key)));
+							table.fail(key, null);
+						}
+						case 1 -> table.fail(key, null);
+						default -> assertFalse(table.offer(key, new Reply(key)) == PendingTable.Delivery.FULL);
+						}
+					}
+				}));
+			}
+
+			var requesterFutures = new ArrayList<Future<?>>();
+			for (int requester = 0; requester < requesters; requester++) {
+				int tag = requester;
+				requesterFutures.add(executors.submit(() -> {
+					for (int pos = 0; pos < requestsPerRequester; pos++) {
+						long key = keys[tag * requestsPerRequester + pos];
+						table.register(key);
+						assertTrue(table.sent(key, tag, null, 0L));
+						toReply.add(key);
+
+						switch (action(key)) {
+						case 0 -> {
+							// the failure is lost only if the waiter arrives after the expiration
+							try {
+								assertNull(table.take(key));
+							}
+							catch (IllegalStateException e) {
+								assertEquals(String.valueOf(key), e.getMessage());
+							}
+
+							assertFalse(table.remove(key));
+						}
+						case 1 -> {
+							assertNull(table.take(key));
+							assertFalse(table.remove(key));
+						}
+						case 2 -> {
+							// the request is abandoned, while its reply might be arriving
+							assertTrue(table.remove(key));
+						}
+						default -> {
+							var reply = table.take(key);
+							assertEquals(new Reply(key), reply);
+							assertTrue(table.remove(key));
+						}
+						}
+
+						assertFalse(table.contains(key));
+					}
+
+					return null;
+				}));
+			}
+
+			for (var future: requesterFutures)
+				future.get();
+
+			for (int replier = 0; replier < repliers; replier++)
+				toReply.add(0L);
+
+			for (var future: futures)
+				future.get();
+		}
+		finally {
+			executors.shutdownNow();
+		}
+
+		for (int tag = 0; tag < requesters; tag++)
+			assertEquals(requestsPerRequester, removals.get(tag));
+
+		assertArrayEquals(new long[0], table.keys());
+		assertEquals(0, table.registeredBefore(System.nanoTime() + 1L).length);
+	}
+
+	/**
+	 * Selects what happens to the request with the given key in {@link #concurrentStress()}.
+	 */
+	private static int action(long key) {
+		return (int) ((key >>> 4) % 8);
+	}
+
+	/**
+	 * Replicates the mixing of the keys of {@link PendingTable}.
+	 */
+	private static long mix(long key) {
+		return key * 0x9E3779B97F4A7C15L;
+	}
+
+	private static int stripeOf(long key) {
+		return (int) (mix(key) >>> 60) & 15;
+	}
+
+	private static int homeOf(long key) {
+		return (int) (mix(key) >>> 32) & (CAPACITY - 1);
+	}
+
+	/**
+	 * Yields keys of stripe 0 whose home position, in a stripe that has not been resized yet, is the given one.
+	 */
+	private static long[] keysWithHome(int home, int count, long from) {
+		var result = new long[count];
+		for (long key = from, found = 0; found < count; key++)
+			if (stripeOf(key) == 0 && homeOf(key) == home)
+				result[(int) found++] = key;
+
+		return result;
+	}
+
+	private static long[] keysInStripe(int stripe, int count) {
+		var result = new long[count];
+		for (long key = 1L, found = 0; found < count; key++)
+			if (stripeOf(key) == stripe)
+				result[(int) found++] = key;
+
+		return result;
+	}
+
+	private static class Reply implements RpcMessage {
+		private final String id;
+
+		private Reply(long key) {
+			this.id = String.valueOf(key);
+		}
+
+		@Override
+		public String getType() {
+			return Reply.class.getName();
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Reply reply && id.equals(reply.id);
+		}
+
+		@Override
+		public int hashCode() {
+			return id.hashCode();
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.server.api;
+
+/**
+ * The way a server runs the requests of its clients.
+ */
+public enum ExecutionMode {
+
+	/**
+	 * The requests are run by a fixed pool of platform threads. This suits requests
+	 * that are CPU-bound, whose concurrency is limited by the number of cores anyway.
+	 */
+	FIXED_POOL,
+
+	/**
+	 * Each request is run in its own virtual thread, up to a maximal number of concurrent requests.
+	 * This suits requests that block on I/O, such as database accesses or calls to other services,
+	 * whose concurrency would otherwise be limited by the number of threads of the pool.
+	 * If the runtime does not support virtual threads, platform threads are used instead.
+	 */
+	VIRTUAL_THREADS
+}
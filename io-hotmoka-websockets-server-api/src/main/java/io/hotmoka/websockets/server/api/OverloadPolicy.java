@@ -0,0 +1,45 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.server.api;
+
+/**
+ * What a server does with a new request when its queue of requests to process is full.
+ */
+public enum OverloadPolicy {
+
+	/**
+	 * The new request is rejected: its client immediately receives an exception message
+	 * for it, about a {@link java.util.concurrent.RejectedExecutionException}.
+	 */
+	REJECT,
+
+	/**
+	 * The session of the new request is paused: the request is set aside, and so are the further
+	 * requests of that session, in arrival order, until the queue has room for them. Only that session
+	 * is affected: the other sessions go on being served and the threads that read the sessions
+	 * never wait. At most as many requests as the length of the queue are set aside for a session;
+	 * beyond that, its requests are rejected, as for {@link #REJECT}.
+	 */
+	BACKPRESSURE,
+
+	/**
+	 * The oldest request in the queue is dropped, to make room for the new request, and its client
+	 * immediately receives an exception message for it, about a {@link java.util.concurrent.RejectedExecutionException}.
+	 * This favours fresh requests, whose clients are more likely to still wait for their reply.
+	 */
+	DROP_OLDEST
+}
@@ -17,21 +17,37 @@ limitations under the License.
 package io.hotmoka.websockets.server;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.IntStream;
 
+import io.hotmoka.websockets.beans.ExceptionMessages;
+import io.hotmoka.websockets.beans.api.CancelMessage;
 import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.beans.api.StreamDemandMessage;
+import io.hotmoka.websockets.server.api.ExecutionMode;
+import io.hotmoka.websockets.server.api.OverloadPolicy;
 import jakarta.websocket.Session;
 
 /**
  * Partial implementation of a websocket server with the ability of running RPC requests
- * on an executor service.
+ * on an executor service, either a fixed pool of threads or a virtual thread for each request
+ * (see {@link ExecutionMode}).
  */
 public abstract class AbstractRPCWebSocketServer extends AbstractWebSocketServer {
 	private final static Logger LOGGER = Logger.getLogger(AbstractRPCWebSocketServer.class.getName());
@@ -44,9 +60,85 @@ public abstract class AbstractRPCWebSocketServer extends AbstractWebSocketServer
 		private final Session session;
 		private final RpcMessage message;
 
-		private Task(Session session, RpcMessage message) {
+		/**
+		 * True if the client expects a reply within {@link #deadline}.
+		 */
+		private final boolean timed;
+
+		/**
+		 * The time, as given by {@link System#nanoTime()}, after which the client
+		 * does not expect a reply anymore, if {@link #timed}.
+		 */
+		private final long deadline;
+
+		/**
+		 * True if the client is not interested in the reply anymore.
+		 */
+		private volatile boolean cancelled;
+
+		/**
+		 * True once a stream of replies has been opened for this task.
+		 */
+		private volatile boolean streamOpened;
+
+		/**
+		 * The thread that is processing this task, if any; guarded by {@code this}.
+		 */
+		private Thread worker;
+
+		private Task(Session session, RpcMessage message, Deadline deadline) {
 			this.session = session;
 			this.message = message;
+			this.timed = deadline != null;
+			this.deadline = timed ? deadline.time : 0L;
+		}
+
+		/**
+		 * Determines if the client does not expect a reply to this task anymore.
+		 * 
+		 * @return true if and only if that condition holds
+		 */
+		private boolean isExpired() {
+			return timed && System.nanoTime() - deadline > 0L;
+		}
+
+		/**
+		 * Marks this task as cancelled.
+		 * 
+		 * @param interrupt true if the thread processing this task, if any, must be interrupted
+		 */
+		private synchronized void cancel(boolean interrupt) {
+			cancelled = true;
+			if (interrupt && worker != null)
+				worker.interrupt();
+		}
+
+		private synchronized void setWorker(Thread worker) {
+			this.worker = worker;
+		}
+	}
+
+	/**
+	 * The requests of a session that have been set aside, in arrival order, since the queue
+	 * of the tasks was full (see {@link OverloadPolicy#BACKPRESSURE}). While it is active,
+	 * the session is paused: its new requests are set aside as well, behind the others.
+	 */
+	private static class Overflow {
+		private final Session session;
+
+		/**
+		 * The requests set aside; guarded by {@code this}.
+		 */
+		private final Deque<Task> parked = new ArrayDeque<>();
+
+		/**
+		 * False once the requests have all been moved into the queue of the tasks,
+		 * or discarded; guarded by {@code this}.
+		 */
+		private boolean active = true;
+
+		private Overflow(Session session) {
+			this.session = session;
 		}
 	}
 
@@ -55,11 +147,104 @@ public abstract class AbstractRPCWebSocketServer extends AbstractWebSocketServer
 	 */
 	protected final BlockingQueue<Task> tasks;
 
+	/**
+	 * The maximal length of {@link #tasks}.
+	 */
+	private final int queueSize;
+
+	/**
+	 * The requests set aside for the paused sessions, if any.
+	 */
+	private final ConcurrentMap<Session, Overflow> overflows = new ConcurrentHashMap<>();
+
+	/**
+	 * The requests set aside for the paused sessions, in the order in which they get
+	 * moved into the queue of the tasks, one request at a time.
+	 */
+	private final Deque<Overflow> paused = new ConcurrentLinkedDeque<>();
+
 	/**
 	 * The executor of the {@link #tasks}.
 	 */
 	private final ExecutorService executors;
 
+	/**
+	 * The permits for running tasks concurrently, if each task runs in its own thread;
+	 * {@code null} if the tasks are run by a fixed pool of threads.
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * The thread that takes the tasks from the queue and starts a thread for each of them,
+	 * if each task runs in its own thread; {@code null} if the tasks are run by a fixed pool of threads.
+	 */
+	private final Thread dispatcher;
+
+	/**
+	 * The streams of replies being sent, or about to be sent, for each session and request identifier.
+	 */
+	private final ConcurrentMap<RequestKey, StreamEmitter> streams = new ConcurrentHashMap<>();
+
+	/**
+	 * The requests that are queued or being processed, for each session and request identifier.
+	 */
+	private final ConcurrentMap<RequestKey, Task> scheduled = new ConcurrentHashMap<>();
+
+	/**
+	 * True if the threads processing the requests cancelled by their client must be interrupted.
+	 */
+	private volatile boolean interruptCancelledRequests;
+
+	/**
+	 * The number of requests that have been dropped or stopped since their client cancelled them.
+	 */
+	private final LongAdder cancelled = new LongAdder();
+
+	/**
+	 * The deadline of the request being handled by the current thread, if it has been received with a deadline.
+	 */
+	private final ThreadLocal<Deadline> currentDeadline = new ThreadLocal<>();
+
+	/**
+	 * The number of requests that have been dropped, since their deadline expired before they could be processed.
+	 */
+	private final LongAdder expired = new LongAdder();
+
+	/**
+	 * What to do with a new request when {@link #tasks} is full.
+	 */
+	private volatile OverloadPolicy overloadPolicy = OverloadPolicy.REJECT;
+
+	/**
+	 * The number of requests rejected since the queue of the tasks was full.
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * The number of requests that have been set aside, while their session was paused.
+	 */
+	private final LongAdder throttled = new LongAdder();
+
+	/**
+	 * The number of queued requests dropped to make room for newer requests.
+	 */
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * The deadline of a request.
+	 * 
+	 * @param time the time, as given by {@link System#nanoTime()}, after which the client does not expect a reply anymore
+	 */
+	private record Deadline(long time) {}
+
+	/**
+	 * The key of a request, of its stream of replies.
+	 * 
+	 * @param session the session used to send the replies
+	 * @param id the identifier of the request
+	 */
+	private record RequestKey(Session session, String id) {}
+
 	/**
 	 * Creates the server. It uses a tasks queue of maximal length 1000
 	 * and a number of working threads equal to three times the number of available cores.
@@ -75,9 +260,37 @@ public abstract class AbstractRPCWebSocketServer extends AbstractWebSocketServer
 	 * @param nThreads the number of working threads
 	 */
 	protected AbstractRPCWebSocketServer(int queueSize, int nThreads) {
+		this(queueSize, nThreads, ExecutionMode.FIXED_POOL);
+	}
+
+	/**
+	 * Creates the server.
+	 * 
+	 * @param queueSize the maximal length of the tasks queue
+	 * @param concurrency the number of working threads, for {@link ExecutionMode#FIXED_POOL}, or the maximal
+	 *                    number of requests processed concurrently, for {@link ExecutionMode#VIRTUAL_THREADS}
+	 * @param mode the way requests are run
+	 */
+	protected AbstractRPCWebSocketServer(int queueSize, int concurrency, ExecutionMode mode) {
+		if (concurrency < 1)
+			throw new IllegalArgumentException("concurrency must be positive");
+
 		this.tasks = new ArrayBlockingQueue<>(queueSize);
-		this.executors = Executors.newFixedThreadPool(nThreads);
-    	IntStream.range(0, nThreads).forEach(__ -> executors.execute(this::processNextTask));
+		this.queueSize = queueSize;
+
+		if (mode == ExecutionMode.FIXED_POOL) {
+			this.executors = Executors.newFixedThreadPool(concurrency);
+			this.permits = null;
+			this.dispatcher = null;
+			IntStream.range(0, concurrency).forEach(__ -> executors.execute(this::processNextTask));
+		}
+		else {
+			this.executors = mkVirtualThreadsExecutor();
+			this.permits = new Semaphore(concurrency);
+			this.dispatcher = new Thread(this::dispatchTasks, "rpc-dispatcher");
+			dispatcher.setDaemon(true);
+			dispatcher.start();
+		}
 	}
 
 	@Override
@@ -85,23 +298,420 @@ public abstract class AbstractRPCWebSocketServer extends AbstractWebSocketServer
     	try {
     		if (executors != null)
     			executors.shutdownNow();
+
+    		if (dispatcher != null)
+    			dispatcher.interrupt();
     	}
     	finally {
     		super.closeResources();
     	}
     }
 
+	/**
+	 * Yields an executor that runs each task in a new virtual thread, if the runtime supports
+	 * virtual threads, or otherwise in a pool of daemon platform threads, created on demand.
+	 * 
+	 * @return the executor
+	 */
+	private static ExecutorService mkVirtualThreadsExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException | ClassCastException e) {
+			LOGGER.warning("virtual threads are not available in this runtime: requests will be processed by platform threads");
+			return Executors.newCachedThreadPool(runnable -> {
+				var thread = new Thread(runnable, "rpc-worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
 	/**
 	 * Enqueue a new request to process, eventually, with the executors of this server.
-	 * The result (or exception) will be sent to the given {@code session}.
+	 * The result (or exception) will be sent to the given {@code session}. If the request
+	 * has been received with a deadline (see {@link io.hotmoka.websockets.beans.api.TimedMessage})
+	 * and this method is called by the handler of the messages of the session, the request
+	 * is dropped if its deadline expires before it is taken from the queue of the tasks.
+	 * If the queue of the tasks is full, the overload policy of this server applies
+	 * (see {@link #setOverloadPolicy(OverloadPolicy)}).
 	 * 
 	 * @param session the session to use to send back the result of the execution of the request
 	 * @param message the request message to execute
 	 */
 	protected final void scheduleRequest(Session session, RpcMessage message) {
-    	tasks.add(new Task(session, message));
+		var key = new RequestKey(session, message.getId());
+		var task = new Task(session, message, currentDeadline.get());
+		scheduled.put(key, task);
+
+		// the requests of a paused session wait behind those already set aside, so that their order is kept
+		if (!overflows.isEmpty() && setAside(task, false))
+			return;
+
+		if (!tasks.offer(task) && !onOverload(task)) {
+			unschedule(key, task);
+			reject(task, "The server is overloaded");
+		}
     }
 
+	/**
+	 * Applies the overload policy to the given task, that did not fit in the full queue of the tasks.
+	 * 
+	 * @param task the task
+	 * @return true if and only if the task has been dealt with; otherwise, it must be rejected
+	 */
+	private boolean onOverload(Task task) {
+		switch (overloadPolicy) {
+		case BACKPRESSURE:
+			return setAside(task, true);
+		case DROP_OLDEST:
+			while (!tasks.offer(task)) {
+				var oldest = tasks.poll();
+				if (oldest != null) {
+					unschedule(new RequestKey(oldest.session, oldest.message.getId()), oldest);
+					dropped.increment();
+					reject(oldest, "The request has been dropped to make room for newer requests");
+				}
+			}
+
+			return true;
+		default:
+			rejected.increment();
+			return false;
+		}
+	}
+
+	/**
+	 * Sets the given task aside, behind the requests of its session already set aside, if its session is paused.
+	 * If too many requests of the session have been set aside already, the task is rejected instead.
+	 * 
+	 * @param task the task
+	 * @param pause true if the session of the task must be paused, if it is not paused yet
+	 * @return true if and only if the task has been set aside or rejected; this is false if its session
+	 *         is not paused and {@code pause} is false
+	 */
+	private boolean setAside(Task task, boolean pause) {
+		while (true) {
+			var overflow = pause ? overflows.computeIfAbsent(task.session, this::pause) : overflows.get(task.session);
+			if (overflow == null)
+				return false;
+
+			synchronized (overflow) {
+				if (overflow.active) {
+					if (overflow.parked.size() >= queueSize)
+						break;
+
+					overflow.parked.add(task);
+					throttled.increment();
+				}
+				else if (pause)
+					continue; // the session has just been resumed: it gets paused again
+				else
+					return false;
+			}
+
+			// room might have been made in the queue before the session was paused, with nobody noticing it
+			if (pause)
+				resumePausedSessions();
+
+			return true;
+		}
+
+		rejected.increment();
+		unschedule(new RequestKey(task.session, task.message.getId()), task);
+		reject(task, "The server is overloaded");
+		return true;
+	}
+
+	/**
+	 * Pauses the given session: its requests get set aside until there is room for them in the queue of the tasks.
+	 * 
+	 * @param session the session
+	 * @return the container of the requests set aside for the session
+	 */
+	private Overflow pause(Session session) {
+		var overflow = new Overflow(session);
+		paused.add(overflow);
+		return overflow;
+	}
+
+	/**
+	 * Moves the requests set aside for the paused sessions into the queue of the tasks, as long as there
+	 * is room for them. The paused sessions take turns, one request each, so that none of them starves;
+	 * the requests of each session are moved in order. The sessions whose requests have all been moved get resumed.
+	 */
+	private void resumePausedSessions() {
+		Overflow overflow;
+
+		while ((overflow = paused.poll()) != null) {
+			synchronized (overflow) {
+				var next = overflow.parked.peek();
+				if (next != null) {
+					if (!tasks.offer(next)) {
+						// the queue is full again: the session keeps its turn
+						paused.addFirst(overflow);
+						return;
+					}
+
+					overflow.parked.poll();
+					if (!overflow.parked.isEmpty()) {
+						paused.add(overflow);
+						continue;
+					}
+				}
+
+				if (overflow.active) {
+					overflow.active = false;
+					overflows.remove(overflow.session, overflow);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replies to the given task with an exception message about a {@link RejectedExecutionException},
+	 * so that its client does not wait for a reply until its timeout.
+	 * 
+	 * @param task the task
+	 * @param reason the message of the exception
+	 */
+	private void reject(Task task, String reason) {
+		try {
+			sendObjectAsync(task.session, ExceptionMessages.of(new RejectedExecutionException(reason), task.message.getId()));
+		}
+		catch (IOException e) {
+			LOGGER.warning("cannot reject a request since its session cannot be used (is it closed?): " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Sets what to do with a new request when the queue of the tasks is full (see {@link #scheduleRequest(Session, RpcMessage)}).
+	 * It defaults to {@link OverloadPolicy#REJECT}.
+	 * 
+	 * @param overloadPolicy the policy
+	 */
+	protected final void setOverloadPolicy(OverloadPolicy overloadPolicy) {
+		this.overloadPolicy = Objects.requireNonNull(overloadPolicy, "overloadPolicy cannot be null");
+	}
+
+	/**
+	 * Yields the number of requests rejected since the queue of the tasks was full
+	 * (see {@link OverloadPolicy#REJECT}).
+	 * 
+	 * @return the number of rejected requests
+	 */
+	protected final long getRejectedRequests() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Yields the number of requests that have been set aside, until there was room for them
+	 * in the queue of the tasks, while their session was paused (see {@link OverloadPolicy#BACKPRESSURE}).
+	 * 
+	 * @return the number of throttled requests
+	 */
+	protected final long getThrottledRequests() {
+		return throttled.sum();
+	}
+
+	/**
+	 * Yields the number of queued requests dropped to make room for newer requests
+	 * (see {@link OverloadPolicy#DROP_OLDEST}).
+	 * 
+	 * @return the number of dropped requests
+	 */
+	protected final long getDroppedRequests() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Yields the number of requests that have been dropped, since their deadline expired
+	 * before they could be processed.
+	 * 
+	 * @return the number of expired requests
+	 */
+	protected final long getExpiredRequests() {
+		return expired.sum();
+	}
+
+	/**
+	 * Runs the given handler of a request received with the given deadline. The requests
+	 * that the handler schedules get that deadline.
+	 * 
+	 * @param deadline the time, in milliseconds from now, within which the client expects a reply
+	 * @param handler the handler
+	 */
+	void withDeadline(long deadline, Runnable handler) {
+		currentDeadline.set(new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline)));
+
+		try {
+			handler.run();
+		}
+		finally {
+			currentDeadline.remove();
+		}
+	}
+
+	/**
+	 * Determines if the threads processing the requests cancelled by their client get interrupted.
+	 * Otherwise, {@link #processRequest(Session, RpcMessage)} can only check
+	 * {@link #isCancelled(Session, String)} from time to time. Requests cancelled while still queued
+	 * are dropped in any case. Interruption should be enabled only if the processing of the requests
+	 * copes with interruption. By default, it is disabled.
+	 * 
+	 * @param interrupt true if and only if the threads must be interrupted
+	 */
+	protected final void setInterruptCancelledRequests(boolean interrupt) {
+		this.interruptCancelledRequests = interrupt;
+	}
+
+	/**
+	 * Determines if the client is not interested anymore in the reply to the request
+	 * with the given identifier, received from the given session. This can be called
+	 * by {@link #processRequest(Session, RpcMessage)}, to stop long computations early.
+	 * 
+	 * @param session the session where the request has been received
+	 * @param id the identifier of the request
+	 * @return true if and only if that condition holds
+	 */
+	protected final boolean isCancelled(Session session, String id) {
+		var task = scheduled.get(new RequestKey(session, id));
+		return task != null && task.cancelled;
+	}
+
+	/**
+	 * Yields the number of requests that have been dropped, since they were cancelled by their client
+	 * while still queued, or that have been marked as cancelled while being processed.
+	 * 
+	 * @return the number of cancelled requests
+	 */
+	protected final long getCancelledRequests() {
+		return cancelled.sum();
+	}
+
+	/**
+	 * Opens a stream of replies to the request with the given identifier, instead of a single reply.
+	 * This is typically called from {@link #processRequest(Session, RpcMessage)}, for requests
+	 * whose replies might not fit in a single message. The client must consume the stream
+	 * as a {@link java.util.concurrent.Flow.Publisher}. The credit that the client grants before
+	 * the stream gets opened is kept only while the request is queued or being processed.
+	 * 
+	 * @param session the session to use to send the replies
+	 * @param id the identifier of the request
+	 * @return the sender of the stream
+	 */
+	protected final StreamEmitter openStream(Session session, String id) {
+		var key = new RequestKey(session, id);
+		var task = scheduled.get(key);
+
+		// the client might have granted credit already, before the stream gets opened
+		return streams.compute(key, (requestKey, stream) -> {
+			if (task != null)
+				task.streamOpened = true;
+
+			return stream != null ? stream : mkStream(requestKey);
+		});
+	}
+
+	/**
+	 * Removes the given task from the scheduled ones. The credit granted by the client
+	 * to a stream of replies that the task has not opened is dropped as well.
+	 * 
+	 * @param key the key of the task
+	 * @param task the task
+	 */
+	private void unschedule(RequestKey key, Task task) {
+		if (scheduled.remove(key, task))
+			streams.computeIfPresent(key, (requestKey, stream) -> task.streamOpened ? stream : null);
+	}
+
+	private StreamEmitter mkStream(RequestKey key) {
+		return new StreamEmitter(key.session, key.id, () -> streams.remove(key));
+	}
+
+	/**
+	 * Handles a control message, that is not a request but concerns the replies to a request.
+	 * 
+	 * @param session the session where the message has been received
+	 * @param message the message
+	 */
+	void onControlMessage(Session session, RpcMessage message) {
+		var key = new RequestKey(session, message.getId());
+
+		if (message instanceof StreamDemandMessage sdm) {
+			// credit for a stream not opened yet is kept only while its request is scheduled;
+			// credit for a stream that has ended, or for an unknown request, is dropped
+			var stream = streams.compute(key, (requestKey, existing) -> {
+				if (existing != null)
+					return existing;
+
+				var task = scheduled.get(requestKey);
+				return task != null && !task.streamOpened ? mkStream(requestKey) : null;
+			});
+
+			if (stream != null)
+				stream.addCredit(sdm.getCredit());
+		}
+		else if (message instanceof CancelMessage) {
+			var stream = streams.remove(key);
+			if (stream != null)
+				stream.cancel();
+
+			var task = scheduled.get(key);
+			if (task != null)
+				cancel(key, task);
+		}
+	}
+
+	/**
+	 * Cancels the given task: it is removed from the queue, if still there, or marked as cancelled otherwise.
+	 * 
+	 * @param key the key of the task
+	 * @param task the task
+	 */
+	private void cancel(RequestKey key, Task task) {
+		if (tasks.remove(task))
+			// the task has not been taken by a worker yet
+			unschedule(key, task);
+		else
+			task.cancel(interruptCancelledRequests);
+
+		cancelled.increment();
+	}
+
+	/**
+	 * Cancels the streams of replies being sent through the given session, that has been closed,
+	 * and its requests, including those set aside while it was paused.
+	 * 
+	 * @param session the session
+	 */
+	void onSessionClosed(Session session) {
+		var overflow = overflows.get(session);
+		if (overflow != null) {
+			synchronized (overflow) {
+				overflow.active = false;
+				overflows.remove(session, overflow);
+
+				for (var task: overflow.parked)
+					unschedule(new RequestKey(session, task.message.getId()), task);
+
+				overflow.parked.clear();
+			}
+		}
+
+		for (var key: streams.keySet())
+			if (key.session == session) {
+				var stream = streams.remove(key);
+				if (stream != null)
+					stream.cancel();
+			}
+
+		// nobody is going to read the replies to the requests of the session
+		for (var entry: scheduled.entrySet())
+			if (entry.getKey().session == session)
+				cancel(entry.getKey(), entry.getValue());
+	}
+
 	/**
 	 * Executes the given request.
 	 * 
@@ -119,25 +729,108 @@ public abstract class AbstractRPCWebSocketServer extends AbstractWebSocketServer
 	private void processNextTask() {
 		try {
 			while (true) {
-				Task next = tasks.take();
-	
+				var next = tasks.take();
+				// room has been made in the queue
+				if (!overflows.isEmpty())
+					resumePausedSessions();
+
+				process(next);
+			}
+		}
+		catch (InterruptedException e) {
+			LOGGER.fine("request processing has been interrupted");
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * An infinite loop that polls the queue looking for requests to execute and starts
+	 * a new thread for each of them, as long as the limit to their concurrency allows it.
+	 * A permit is acquired before taking a request, so that requests that cannot run yet
+	 * remain in the queue, where they can still be cancelled or expire.
+	 */
+	private void dispatchTasks() {
+		try {
+			while (true) {
+				permits.acquire();
+
 				try {
-					processRequest(next.session, next.message);
-				}
-				catch (IOException e) {
-					LOGGER.warning("request processing cannot send to session (is it closed?): " + e.getMessage());
-				}
-				catch (TimeoutException e) {
-					LOGGER.warning("request processing timed out: " + e.getMessage());
+					Task next = tasks.take();
+					// room has been made in the queue
+					if (!overflows.isEmpty())
+						resumePausedSessions();
+
+					executors.execute(() -> processInOwnThread(next));
 				}
-				catch (RuntimeException e) {
-					LOGGER.log(Level.SEVERE, "request processing failed to process a " + next.message.getClass().getName(), e);
+				catch (InterruptedException | RuntimeException e) {
+					permits.release();
+					throw e;
 				}
 			}
 		}
 		catch (InterruptedException e) {
-			LOGGER.fine("request processing has been interrupted");
+			LOGGER.fine("request dispatching has been interrupted");
 			Thread.currentThread().interrupt();
 		}
+		catch (RuntimeException e) {
+			// the executor has been shut down
+			LOGGER.fine("request dispatching stopped: " + e.getMessage());
+		}
+	}
+
+	private void processInOwnThread(Task task) {
+		try {
+			process(task);
+		}
+		catch (InterruptedException e) {
+			LOGGER.fine("request processing has been interrupted");
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Processes the given task, unless it has expired or has been cancelled.
+	 * 
+	 * @param next the task
+	 * @throws InterruptedException if the current thread has been interrupted because the server is shutting down
+	 */
+	private void process(Task next) throws InterruptedException {
+		next.setWorker(Thread.currentThread());
+
+		try {
+			if (next.isExpired()) {
+				// the client has already given up waiting for the reply
+				expired.increment();
+				LOGGER.fine("request processing dropped a " + next.message.getClass().getName() + " whose deadline has expired");
+			}
+			else if (!next.cancelled)
+				processRequest(next.session, next.message);
+		}
+		catch (IOException e) {
+			LOGGER.warning("request processing cannot send to session (is it closed?): " + e.getMessage());
+		}
+		catch (TimeoutException e) {
+			LOGGER.warning("request processing timed out: " + e.getMessage());
+		}
+		catch (InterruptedException e) {
+			// the interruption might be due to the cancellation of the request or to the shutdown of the server
+			if (!next.cancelled || executors.isShutdown())
+				throw e;
+
+			LOGGER.fine("request processing has been stopped since its client cancelled it");
+		}
+		catch (RuntimeException e) {
+			LOGGER.log(Level.SEVERE, "request processing failed to process a " + next.message.getClass().getName(), e);
+		}
+		finally {
+			next.setWorker(null);
+			unschedule(new RequestKey(next.session, next.message.getId()), next);
+		}
+
+		// clears the interruption due to a late cancellation of the request, if any, but not that due to the shutdown
+		if (next.cancelled && Thread.interrupted() && executors.isShutdown())
+			throw new InterruptedException();
 	}
 }
\ No newline at end of file
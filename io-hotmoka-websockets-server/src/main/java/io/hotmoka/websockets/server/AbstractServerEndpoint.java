@@ -17,8 +17,11 @@ limitations under the License.
 package io.hotmoka.websockets.server;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.logging.Level;
@@ -26,9 +29,21 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import io.hotmoka.websockets.beans.Batches;
+import io.hotmoka.websockets.beans.CancelMessages;
+import io.hotmoka.websockets.beans.ExceptionMessages;
+import io.hotmoka.websockets.beans.StreamDemandMessages;
+import io.hotmoka.websockets.beans.StreamEndMessages;
+import io.hotmoka.websockets.beans.TimedMessages;
+import io.hotmoka.websockets.beans.api.Batch;
+import io.hotmoka.websockets.beans.api.CancelMessage;
 import io.hotmoka.websockets.beans.api.InconsistentJsonException;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.beans.api.StreamDemandMessage;
+import io.hotmoka.websockets.beans.api.TimedMessage;
 import io.hotmoka.websockets.server.api.ServerEndpoint;
 import io.hotmoka.websockets.server.api.WebSocketServer;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.DecodeException;
 import jakarta.websocket.Decoder;
 import jakarta.websocket.EncodeException;
@@ -65,13 +80,68 @@ public abstract class AbstractServerEndpoint<S extends WebSocketServer> extends
 
 	/**
 	 * Adds the given handler for incoming messages to the given session.
+	 * The messages inside a {@link Batch} are passed to the handler one by one.
+	 * Control messages about the replies to the requests, such as {@link StreamDemandMessage}s
+	 * and {@link CancelMessage}s, are handled by the server and not passed to the handler.
+	 * The message wrapped inside a {@link TimedMessage} is passed to the handler, while its deadline
+	 * is recorded by the server, for the case when the handler schedules the message
+	 * (see {@link AbstractRPCWebSocketServer#scheduleRequest(Session, RpcMessage)}).
+	 * If the server requires so, the session starts pinging its client
+	 * (see {@link AbstractWebSocketServer#setKeepalive(Duration, int)}).
 	 * 
 	 * @param <M> the type of the messages
 	 * @param session the session
 	 * @param handler the handler
 	 */
 	protected <M> void addMessageHandler(Session session, Consumer<M> handler) {
-		session.addMessageHandler((MessageHandler.Whole<M>) handler::accept);
+		if (server instanceof AbstractWebSocketServer aws)
+			aws.startKeepalive(session);
+
+		session.addMessageHandler((MessageHandler.Whole<M>) message -> {
+			if (message instanceof Batch batch)
+				batch.getMessages().forEach(element -> dispatch(session, handler, element));
+			else
+				dispatch(session, handler, message);
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <M> void dispatch(Session session, Consumer<M> handler, Object message) {
+		if (message instanceof StreamDemandMessage || message instanceof CancelMessage) {
+			if (server instanceof AbstractRPCWebSocketServer rpc)
+				rpc.onControlMessage(session, (RpcMessage) message);
+			else
+				LOGGER.warning("ignoring a control message since this server does not handle RPC requests");
+		}
+		else if (message instanceof TimedMessage tm) {
+			if (server instanceof AbstractRPCWebSocketServer rpc)
+				rpc.withDeadline(tm.getDeadline(), () -> handler.accept((M) tm.getMessage()));
+			else
+				handler.accept((M) tm.getMessage());
+		}
+		else
+			handler.accept((M) message);
+	}
+
+	@Override
+	public void onClose(Session session, CloseReason closeReason) {
+		Keepalive.stop(session);
+
+		if (server instanceof AbstractRPCWebSocketServer rpc)
+			rpc.onSessionClosed(session);
+
+		super.onClose(session, closeReason);
+	}
+
+	/**
+	 * Yields the moving estimate of the round-trip time of the pings sent through the given session
+	 * (see {@link AbstractWebSocketServer#setKeepalive(Duration, int)}).
+	 * 
+	 * @param session the session
+	 * @return the estimate; this is empty if the session is not pinged or no pong has arrived yet
+	 */
+	protected static Optional<Duration> getRoundTripTime(Session session) {
+		return Keepalive.getRoundTripTime(session);
 	}
 
 	/**
@@ -162,17 +232,38 @@ public abstract class AbstractServerEndpoint<S extends WebSocketServer> extends
 		List<Class<? extends Decoder>> inputs = Stream.of(coders)
 			.filter(coder -> Decoder.class.isAssignableFrom(coder))
 			.map(coder -> (Class<? extends Decoder>) coder)
-			.collect(Collectors.toList());
+			.collect(Collectors.toCollection(ArrayList::new));
 
 		List<Class<? extends Encoder>> outputs = Stream.of(coders)
 			.filter(coder -> Encoder.class.isAssignableFrom(coder))
 			.map(coder -> (Class<? extends Encoder>) coder)
-			.collect(Collectors.toList());
+			.collect(Collectors.toCollection(ArrayList::new));
 
 		Stream.of(coders)
 			.filter(coder -> !inputs.contains(coder) && !outputs.contains(coder))
 			.forEach(coder -> LOGGER.warning("Unknown coder " + coder + ": only encoders and decoders are allowed"));
 
+		// requests can carry the time within which a reply is expected; this decoder only
+		// accepts their envelopes and must precede the decoders of the requests, that
+		// might otherwise accept the envelope and ignore the deadline
+		inputs.add(0, TimedMessages.Decoder.class);
+
+		// batches are always accepted; their decoder comes last, so that the decoders
+		// of the endpoint keep precedence over it, also for messages that are JSON arrays
+		if (!inputs.contains(Batches.Decoder.class))
+			inputs.add(Batches.Decoder.class);
+
+		outputs.add(Batches.Encoder.class);
+
+		// control messages about the replies to the requests are always accepted as well
+		inputs.add(StreamDemandMessages.Decoder.class);
+		inputs.add(CancelMessages.Decoder.class);
+		outputs.add(StreamEndMessages.Encoder.class);
+
+		// requests can be rejected when the server is overloaded
+		if (!outputs.contains(ExceptionMessages.Encoder.class))
+			outputs.add(ExceptionMessages.Encoder.class);
+
 		return ServerEndpointConfig.Builder.create(clazz, subpath)
 			.decoders(inputs)
 			.encoders(outputs)
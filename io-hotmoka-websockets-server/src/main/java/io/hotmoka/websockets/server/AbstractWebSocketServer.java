@@ -17,10 +17,12 @@ limitations under the License.
 package io.hotmoka.websockets.server;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Objects;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.glassfish.tyrus.spi.ServerContainer;
 import org.glassfish.tyrus.spi.ServerContainerFactory;
@@ -45,6 +47,21 @@ public abstract class AbstractWebSocketServer implements WebSocketServer {
 	 */
 	private final AtomicBoolean isClosed = new AtomicBoolean();
 
+	/**
+	 * The time between two pings of the sessions of this server; {@code null} if sessions are not pinged.
+	 */
+	private volatile Duration keepaliveInterval;
+
+	/**
+	 * The number of consecutive pings without pong after which a client is considered dead.
+	 */
+	private volatile int maxMissedPongs;
+
+	/**
+	 * The number of sessions closed since their client did not answer to pings.
+	 */
+	private final LongAdder deadSessions = new LongAdder();
+
 	/**
 	 * Deploys a new websocket server.
 	 */
@@ -74,6 +91,49 @@ public abstract class AbstractWebSocketServer implements WebSocketServer {
 		}
 	}
 
+	/**
+	 * Requires the sessions opened from now on to ping their client periodically. The round-trip
+	 * times of the pongs are measured (see {@link AbstractServerEndpoint#getRoundTripTime(Session)}).
+	 * If {@code maxMissedPongs} consecutive pings remain without pong, the client is considered dead
+	 * and the session gets closed, freeing its resources. Sessions start being pinged when their endpoint
+	 * adds its message handler (see {@link AbstractServerEndpoint#addMessageHandler(Session, java.util.function.Consumer)}).
+	 * By default, sessions are not pinged.
+	 * 
+	 * @param interval the time between two pings
+	 * @param maxMissedPongs the number of consecutive pings without pong after which the client is considered dead
+	 */
+	protected final void setKeepalive(Duration interval, int maxMissedPongs) {
+		if (interval.toMillis() <= 0)
+			throw new IllegalArgumentException("interval must be positive");
+
+		if (maxMissedPongs < 1)
+			throw new IllegalArgumentException("maxMissedPongs must be positive");
+
+		this.maxMissedPongs = maxMissedPongs;
+		this.keepaliveInterval = interval;
+	}
+
+	/**
+	 * Yields the number of sessions closed since their client did not answer to pings
+	 * (see {@link #setKeepalive(Duration, int)}).
+	 * 
+	 * @return the number of sessions
+	 */
+	protected final long getDeadSessions() {
+		return deadSessions.longValue();
+	}
+
+	/**
+	 * Starts pinging the client of the given session, if required (see {@link #setKeepalive(Duration, int)}).
+	 * 
+	 * @param session the session
+	 */
+	void startKeepalive(Session session) {
+		var keepaliveInterval = this.keepaliveInterval;
+		if (keepaliveInterval != null)
+			Keepalive.start(session, keepaliveInterval, maxMissedPongs, deadSessions::increment);
+	}
+
 	@Override
 	public final void close() {
 		if (!isClosed.getAndSet(true)) {
@@ -0,0 +1,205 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.CloseReason.CloseCodes;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.PongMessage;
+import jakarta.websocket.Session;
+
+/**
+ * The keepalive of a session. It pings the peer periodically and measures the round-trip time
+ * of its pongs. If too many consecutive pings remain without pong, the peer is considered dead
+ * and the session gets closed, so that half-open connections are detected early.
+ */
+final class Keepalive implements MessageHandler.Whole<PongMessage> {
+
+	/**
+	 * The key of the keepalive in the user properties of its session.
+	 */
+	private final static String KEY = Keepalive.class.getName();
+
+	/**
+	 * The session.
+	 */
+	private final Session session;
+
+	/**
+	 * The number of consecutive pings without pong after which the peer is considered dead.
+	 */
+	private final int maxMissedPongs;
+
+	/**
+	 * Called when the peer is considered dead, before closing the session.
+	 */
+	private final Runnable onDead;
+
+	/**
+	 * The number of consecutive pings sent without receiving a pong.
+	 */
+	private final AtomicInteger missed = new AtomicInteger();
+
+	/**
+	 * The moving estimate of the round-trip time, in nanoseconds; negative if no pong arrived yet.
+	 */
+	private volatile long roundTripTime = -1L;
+
+	/**
+	 * The periodic task that sends the pings.
+	 */
+	private volatile ScheduledFuture<?> task;
+
+	private final static Logger LOGGER = Logger.getLogger(Keepalive.class.getName());
+
+	private Keepalive(Session session, int maxMissedPongs, Runnable onDead) {
+		this.session = session;
+		this.maxMissedPongs = maxMissedPongs;
+		this.onDead = onDead;
+	}
+
+	/**
+	 * Starts the keepalive of the given session, unless it has been started already.
+	 * 
+	 * @param session the session
+	 * @param interval the time between two pings
+	 * @param maxMissedPongs the number of consecutive pings without pong after which the peer is considered dead
+	 * @param onDead called when the peer is considered dead, before closing the session
+	 */
+	static void start(Session session, Duration interval, int maxMissedPongs, Runnable onDead) {
+		long millis = interval.toMillis();
+		if (millis <= 0)
+			throw new IllegalArgumentException("interval must be positive");
+
+		if (maxMissedPongs < 1)
+			throw new IllegalArgumentException("maxMissedPongs must be positive");
+
+		var keepalive = new Keepalive(session, maxMissedPongs, onDead);
+		if (session.getUserProperties().putIfAbsent(KEY, keepalive) == null) {
+			session.addMessageHandler(PongMessage.class, keepalive);
+			keepalive.task = Scheduler.INSTANCE.scheduleAtFixedRate(keepalive::ping, millis, millis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stops the keepalive of the given session, if any.
+	 * 
+	 * @param session the session
+	 */
+	static void stop(Session session) {
+		if (session.getUserProperties().get(KEY) instanceof Keepalive keepalive)
+			keepalive.stop();
+	}
+
+	/**
+	 * Yields the moving estimate of the round-trip time of the pings of the given session.
+	 * 
+	 * @param session the session
+	 * @return the estimate; this is empty if the session has no keepalive or no pong has arrived yet
+	 */
+	static Optional<Duration> getRoundTripTime(Session session) {
+		if (session.getUserProperties().get(KEY) instanceof Keepalive keepalive) {
+			long roundTripTime = keepalive.roundTripTime;
+			if (roundTripTime >= 0L)
+				return Optional.of(Duration.ofNanos(roundTripTime));
+		}
+
+		return Optional.empty();
+	}
+
+	private void stop() {
+		var task = this.task;
+		if (task != null)
+			task.cancel(false);
+	}
+
+	private void ping() {
+		if (!session.isOpen()) {
+			stop();
+			return;
+		}
+
+		if (missed.getAndIncrement() >= maxMissedPongs) {
+			stop();
+			LOGGER.warning("keepalive: no pong for " + maxMissedPongs + " pings: closing session " + session.getId());
+
+			try {
+				onDead.run();
+			}
+			finally {
+				try {
+					session.close(new CloseReason(CloseCodes.GOING_AWAY, "The peer does not answer pings"));
+				}
+				catch (IOException e) {
+					LOGGER.warning("keepalive: cannot close session " + session.getId() + ": " + e.getMessage());
+				}
+			}
+
+			return;
+		}
+
+		// the payload is the time of the ping, that the pong echoes back
+		var payload = ByteBuffer.allocate(Long.BYTES).putLong(0, System.nanoTime());
+
+		try {
+			session.getAsyncRemote().sendPing(payload);
+		}
+		catch (IOException | RuntimeException e) {
+			// this ping counts as missed
+			LOGGER.fine(() -> "keepalive: cannot ping session " + session.getId() + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void onMessage(PongMessage pong) {
+		var payload = pong.getApplicationData();
+		if (payload.remaining() != Long.BYTES)
+			return; // unsolicited pong
+
+		long sample = System.nanoTime() - payload.getLong(payload.position());
+		if (sample < 0L)
+			return;
+
+		missed.set(0);
+
+		// exponentially weighted moving average, with the same weight used for the smoothed round-trip time of TCP
+		long previous = roundTripTime;
+		roundTripTime = previous < 0L ? sample : previous + (sample - previous) / 8;
+	}
+
+	/**
+	 * The lazily created scheduler of the pings of all sessions.
+	 */
+	private static class Scheduler {
+		private final static ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			var thread = new Thread(runnable, "websockets-keepalive");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+}
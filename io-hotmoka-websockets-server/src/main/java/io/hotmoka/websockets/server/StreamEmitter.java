@@ -0,0 +1,207 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.server;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+
+import io.hotmoka.websockets.beans.ExceptionMessages;
+import io.hotmoka.websockets.beans.StreamEndMessages;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import jakarta.websocket.EncodeException;
+import jakarta.websocket.Session;
+
+/**
+ * The sender of a stream of replies to a single request, all with the identifier of the request.
+ * The stream is consumed by the client, that grants credit for further replies: this sender never
+ * sends more replies than the credit granted so far and waits for more credit when needed.
+ * This keeps bounded the memory used by the client, however long the stream is.
+ * Streams are opened with {@link AbstractRPCWebSocketServer#openStream(Session, String)}.
+ * This class is thread-safe.
+ */
+public final class StreamEmitter {
+
+	/**
+	 * The session used to send the replies.
+	 */
+	private final Session session;
+
+	/**
+	 * The identifier of the request that started the stream.
+	 */
+	private final String id;
+
+	/**
+	 * Called when this stream gets closed.
+	 */
+	private final Runnable onClose;
+
+	/**
+	 * The number of replies that can still be sent; guarded by {@code this}.
+	 */
+	private long credit;
+
+	/**
+	 * True if the client is not interested in the stream anymore; guarded by {@code this}.
+	 */
+	private boolean cancelled;
+
+	/**
+	 * True if the stream has been completed or failed; guarded by {@code this}.
+	 */
+	private boolean closed;
+
+	/**
+	 * The time (in milliseconds) between two checks that the session is still open,
+	 * while waiting for credit.
+	 */
+	private final static long SESSION_CHECK_INTERVAL = 1000L;
+
+	/**
+	 * Creates the sender of a stream.
+	 * 
+	 * @param session the session used to send the replies
+	 * @param id the identifier of the request that started the stream
+	 * @param onClose called when the stream gets closed
+	 */
+	StreamEmitter(Session session, String id, Runnable onClose) {
+		this.session = session;
+		this.id = id;
+		this.onClose = onClose;
+	}
+
+	/**
+	 * Yields the identifier of the request that started this stream.
+	 * 
+	 * @return the identifier
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Sends the next reply of this stream, waiting for the client to grant credit for it, if needed.
+	 * 
+	 * @param reply the reply; it must have the identifier of the request that started this stream
+	 * @throws IOException if the reply cannot be sent, for instance, because the session has been closed
+	 * @throws EncodeException if the reply cannot be encoded
+	 * @throws InterruptedException if the current thread gets interrupted while waiting for credit
+	 * @throws CancellationException if the client is not interested in the stream anymore
+	 */
+	public void emit(RpcMessage reply) throws IOException, EncodeException, InterruptedException {
+		if (!id.equals(reply.getId()))
+			throw new IllegalArgumentException("The reply must have identifier " + id);
+
+		synchronized (this) {
+			while (credit == 0L && !cancelled && !closed) {
+				if (!session.isOpen())
+					throw new IOException("The session has been closed");
+
+				wait(SESSION_CHECK_INTERVAL);
+			}
+
+			if (cancelled)
+				throw new CancellationException("The client is not interested in the stream anymore");
+			else if (closed)
+				throw new IllegalStateException("The stream has already been closed");
+
+			credit--;
+		}
+
+		send(reply);
+	}
+
+	/**
+	 * Closes this stream, by letting the client know that no more replies will be sent.
+	 * Nothing is sent if the client is not interested in the stream anymore.
+	 * 
+	 * @throws IOException if the end of the stream cannot be sent
+	 * @throws EncodeException if the end of the stream cannot be encoded
+	 */
+	public void complete() throws IOException, EncodeException {
+		if (close())
+			send(StreamEndMessages.of(id));
+	}
+
+	/**
+	 * Closes this stream with the given exception, that is sent to the client.
+	 * Nothing is sent if the client is not interested in the stream anymore.
+	 * 
+	 * @param exception the exception
+	 * @throws IOException if the exception cannot be sent
+	 * @throws EncodeException if the exception cannot be encoded
+	 */
+	public void fail(Exception exception) throws IOException, EncodeException {
+		if (close())
+			send(ExceptionMessages.of(exception, id));
+	}
+
+	/**
+	 * Determines if the client is not interested in this stream anymore.
+	 * 
+	 * @return true if and only if that condition holds
+	 */
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Grants credit for further replies.
+	 * 
+	 * @param amount the number of further replies that can be sent
+	 */
+	synchronized void addCredit(long amount) {
+		// saturates instead of overflowing
+		credit = credit + amount < 0L ? Long.MAX_VALUE : credit + amount;
+		notifyAll();
+	}
+
+	/**
+	 * Records that the client is not interested in this stream anymore.
+	 */
+	synchronized void cancel() {
+		cancelled = true;
+		notifyAll();
+	}
+
+	/**
+	 * Marks this stream as closed.
+	 * 
+	 * @return true if and only if the stream was not closed nor cancelled
+	 */
+	private boolean close() {
+		boolean result;
+
+		synchronized (this) {
+			result = !closed && !cancelled;
+			closed = true;
+			notifyAll();
+		}
+
+		onClose.run();
+		return result;
+	}
+
+	private void send(RpcMessage message) throws IOException, EncodeException {
+		try {
+			session.getBasicRemote().sendObject(message);
+		}
+		catch (RuntimeException e) {
+			throw new IOException(e.getMessage());
+		}
+	}
+}
@@ -22,6 +22,7 @@ module io.hotmoka.websockets.server {
 
 	requires transitive io.hotmoka.websockets.server.api;
 	requires io.hotmoka.websockets.beans.api;
+	requires io.hotmoka.websockets.beans;
 	requires transitive io.hotmoka.exceptions;
 	requires transitive jakarta.websocket;
 	requires org.glassfish.tyrus.spi;
@@ -0,0 +1,153 @@
+/*
+Copyright 2026 Fausto Spoto
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package io.hotmoka.websockets.server;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.hotmoka.websockets.api.FailedDeploymentException;
+import io.hotmoka.websockets.beans.api.RpcMessage;
+import io.hotmoka.websockets.server.api.ExecutionMode;
+import jakarta.websocket.Session;
+
+/**
+ * Compares the throughput of the execution modes of a server, for requests that block on I/O,
+ * simulated by a sleep. Requests are scheduled directly, without any network, so that only
+ * the execution of the requests is measured. In a fixed pool, the throughput cannot exceed
+ * the number of threads divided by the latency of a request, while, with a thread for
+ * each request, it is only limited by the maximal number of concurrent requests.
+ * On runtimes without virtual threads, that mode uses platform threads, hence this test
+ * measures the same gain, but not the cost of platform threads.
+ */
+public class ExecutionModesTests {
+
+	/**
+	 * The time spent by each request waiting for I/O, in milliseconds.
+	 */
+	private final static long LATENCY = 10L;
+
+	/**
+	 * The number of threads of the fixed pool.
+	 */
+	private final static int THREADS = 8;
+
+	/**
+	 * The maximal number of requests processed concurrently, with a thread for each request.
+	 */
+	private final static int CONCURRENCY = 400;
+
+	/**
+	 * The number of requests that are measured, for each mode.
+	 */
+	private final static int REQUESTS = 2_000;
+
+	@Test
+	@DisplayName("with I/O-bound requests, a thread for each request beats a fixed pool")
+	public void threadPerRequestBeatsFixedPoolForBlockingRequests() throws FailedDeploymentException, InterruptedException {
+		double fixedPool = throughput(ExecutionMode.FIXED_POOL, THREADS);
+		double threadPerRequest = throughput(ExecutionMode.VIRTUAL_THREADS, CONCURRENCY);
+
+		System.out.printf("requests per second, with %d ms of I/O each: %.0f with a fixed pool of %d threads, %.0f with a thread for each request, up to %d at a time%n",
+			LATENCY, fixedPool, THREADS, threadPerRequest, CONCURRENCY);
+
+		assertTrue(threadPerRequest > 5 * fixedPool, "a thread for each request processes " + threadPerRequest + " requests per second, against " + fixedPool);
+	}
+
+	/**
+	 * Yields the throughput of a server with the given execution mode.
+	 *
+	 * @param mode the execution mode
+	 * @param concurrency the number of threads or the maximal number of concurrent requests
+	 * @return the number of requests processed per second
+	 */
+	private static double throughput(ExecutionMode mode, int concurrency) throws FailedDeploymentException, InterruptedException {
+		try (var server = new SleepingServer(concurrency, mode)) {
+			// a first round lets the threads get created and the code get compiled
+			server.run(REQUESTS / 10);
+
+			long start = System.nanoTime();
+			server.run(REQUESTS);
+			return REQUESTS * 1e9 / (System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * A server whose requests just sleep, as if they were waiting for I/O. Its container has
+	 * no endpoints, since the requests are scheduled directly.
+	 */
+	private static class SleepingServer extends AbstractRPCWebSocketServer {
+		private final Session session = mkSession();
+		private volatile CountDownLatch done;
+
+		private SleepingServer(int concurrency, ExecutionMode mode) throws FailedDeploymentException {
+			super(REQUESTS, concurrency, mode);
+
+			// port 0 lets the system choose a free port
+			startContainer("", 0);
+		}
+
+		/**
+		 * Schedules the given number of requests and waits until all of them have been processed.
+		 */
+		private void run(int requests) throws InterruptedException {
+			done = new CountDownLatch(requests);
+
+			for (int counter = 0; counter < requests; counter++)
+				scheduleRequest(session, new Request(String.valueOf(counter)));
+
+			assertTrue(done.await(1, TimeUnit.MINUTES), "the requests have not been processed in time");
+		}
+
+		@Override
+		protected void processRequest(Session session, RpcMessage message) throws InterruptedException {
+			try {
+				Thread.sleep(LATENCY);
+			}
+			finally {
+				done.countDown();
+			}
+		}
+
+		/**
+		 * Yields a session that is only compared and hashed, since the requests send no reply.
+		 */
+		private static Session mkSession() {
+			return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] { Session.class }, (proxy, method, args) -> {
+				switch (method.getName()) {
+				case "equals": return proxy == args[0];
+				case "hashCode": return System.identityHashCode(proxy);
+				case "toString": return "session";
+				default: throw new UnsupportedOperationException(method.getName());
+				}
+			});
+		}
+	}
+
+	private record Request(String getId) implements RpcMessage {
+
+		@Override
+		public String getType() {
+			return Request.class.getName();
+		}
+	}
+}